@@ -3,9 +3,12 @@ package com.bapel_slimefun_mod;
 import com.bapel_slimefun_mod.automation.*;
 import com.bapel_slimefun_mod.client.ModKeybinds;
 import com.bapel_slimefun_mod.config.ModConfig;
+import com.bapel_slimefun_mod.config.PersistenceService;
 import com.bapel_slimefun_mod.debug.PerformanceMonitor;
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,12 +34,15 @@ public class BapelSlimefunMod implements ClientModInitializer {
     
     private void initializeSystems() {
         try {
+            PerformanceMonitor.setAlwaysOn(config.isProfilingAlwaysOn());
             ItemRegistry.initialize();
             SlimefunDataLoader.loadData();
+            MultiblockMaterials.initialize();
             RecipeDatabase.initialize();
             RecipeOverlayRenderer.initialize();
             MultiblockCacheManager.load();
             UnifiedAutomationManager.init(config);
+            MultiblockWorldScanner.register(config);
             
             LOGGER.info("All systems initialized successfully");
         } catch (Exception e) {
@@ -46,15 +52,27 @@ public class BapelSlimefunMod implements ClientModInitializer {
     
     private void registerEventHandlers() {
         try {
+            registerTickTasks();
+            
             ClientTickEvents.END_CLIENT_TICK.register(client -> {
                 try {
                     PerformanceMonitor.trackFrame();
-                    UnifiedAutomationManager.tick();
+                    TickScheduler.runTick();
                 } catch (Exception e) {
                     LOGGER.error("Error in client tick handler", e);
                 }
             });
             
+            ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> {
+                InteractionTracker.clear();
+                ClickPlanner.cancel();
+                ProductionLoop.reset();
+                MultiblockAutoClicker.reset();
+            });
+            
+            // Pending write-behind saves must reach disk before the JVM exits
+            ClientLifecycleEvents.CLIENT_STOPPING.register(client -> PersistenceService.flushAll());
+            
             HudRenderCallback.EVENT.register((graphics, tickDelta) -> {
                 try {
                     PerformanceMonitor.render(graphics);
@@ -70,6 +88,24 @@ public class BapelSlimefunMod implements ClientModInitializer {
         }
     }
     
+    /**
+     * All per-tick work goes through TickScheduler so it shares one time budget
+     */
+    private void registerTickTasks() {
+        TickScheduler.scheduleRepeating("AutoClicker", TickScheduler.Priority.CRITICAL, 1,
+            MultiblockAutoClicker::tick);
+        TickScheduler.scheduleRepeating("ClickPlanner", TickScheduler.Priority.CRITICAL, 1,
+            ClickPlanner::tick);
+        TickScheduler.scheduleRepeating("UnifiedAuto", TickScheduler.Priority.NORMAL, 1,
+            UnifiedAutomationManager::tick);
+        TickScheduler.scheduleRepeating("MachineAuto", TickScheduler.Priority.NORMAL,
+            UnifiedAutomationManager.MACHINE_CHECK_TICKS, UnifiedAutomationManager::tickMachineAutomation);
+        TickScheduler.scheduleRepeating("WorldScanner", TickScheduler.Priority.DEFERRABLE, 1,
+            MultiblockWorldScanner::tick);
+        TickScheduler.scheduleRepeating("RecipeCache", TickScheduler.Priority.DEFERRABLE,
+            RecipeDatabase.CACHE_CLEAR_TICKS, RecipeDatabase::clearCraftableCache);
+    }
+    
     public static ModConfig getConfig() {
         return config;
     }
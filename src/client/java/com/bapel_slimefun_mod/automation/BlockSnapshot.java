@@ -0,0 +1,127 @@
+package com.bapel_slimefun_mod.automation;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+
+/**
+ * Small box of blocks around a dispenser, addressed by offset from the dispenser.
+ *
+ * Each world position is read at most once: cells are filled on first access
+ * and served from the local array afterwards.
+ *
+ * Captured snapshots copy the whole box up front and never touch the level again,
+ * so they can be handed to worker threads.
+ */
+public final class BlockSnapshot {
+
+    /**
+     * Inclusive offset box (relative to the dispenser) a snapshot has to cover
+     */
+    public static final class Bounds {
+        final int minX, minY, minZ;
+        final int sizeX, sizeY, sizeZ;
+
+        public Bounds(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.sizeX = maxX - minX + 1;
+            this.sizeY = maxY - minY + 1;
+            this.sizeZ = maxZ - minZ + 1;
+        }
+
+        public boolean contains(int dx, int dy, int dz) {
+            return dx >= minX && dx < minX + sizeX
+                && dy >= minY && dy < minY + sizeY
+                && dz >= minZ && dz < minZ + sizeZ;
+        }
+
+        int volume() {
+            return sizeX * sizeY * sizeZ;
+        }
+
+        int index(int dx, int dy, int dz) {
+            return ((dy - minY) * sizeZ + (dz - minZ)) * sizeX + (dx - minX);
+        }
+    }
+
+    private final Level level;
+    private final BlockPos origin;
+    private final Bounds bounds;
+    private final Block[] blocks;
+    private final BlockPos.MutableBlockPos cursor = new BlockPos.MutableBlockPos();
+
+    private BlockSnapshot(Level level, BlockPos origin, Bounds bounds) {
+        this.level = level;
+        this.origin = origin.immutable();
+        this.bounds = bounds;
+        this.blocks = new Block[bounds.volume()];
+    }
+
+    /**
+     * Snapshot that reads from the level lazily (client thread only)
+     */
+    public static BlockSnapshot lazy(Level level, BlockPos origin, Bounds bounds) {
+        return new BlockSnapshot(level, origin, bounds);
+    }
+
+    /**
+     * Fully copied, immutable snapshot (call on the client thread, read anywhere).
+     * Returns null if any part of the box lies in a chunk that is not loaded yet.
+     */
+    public static BlockSnapshot capture(Level level, BlockPos origin, Bounds bounds) {
+        int minChunkX = (origin.getX() + bounds.minX) >> 4;
+        int maxChunkX = (origin.getX() + bounds.minX + bounds.sizeX - 1) >> 4;
+        int minChunkZ = (origin.getZ() + bounds.minZ) >> 4;
+        int maxChunkZ = (origin.getZ() + bounds.minZ + bounds.sizeZ - 1) >> 4;
+
+        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+                if (!level.getChunkSource().hasChunk(cx, cz)) {
+                    return null;
+                }
+            }
+        }
+
+        BlockSnapshot live = new BlockSnapshot(level, origin, bounds);
+        BlockSnapshot copy = new BlockSnapshot(null, origin, bounds);
+
+        for (int dy = bounds.minY; dy < bounds.minY + bounds.sizeY; dy++) {
+            for (int dz = bounds.minZ; dz < bounds.minZ + bounds.sizeZ; dz++) {
+                for (int dx = bounds.minX; dx < bounds.minX + bounds.sizeX; dx++) {
+                    copy.blocks[bounds.index(dx, dy, dz)] = live.readWorld(dx, dy, dz);
+                }
+            }
+        }
+
+        return copy;
+    }
+
+    public BlockPos getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Block at an offset from the origin
+     */
+    public Block get(int dx, int dy, int dz) {
+        if (!bounds.contains(dx, dy, dz)) {
+            return readWorld(dx, dy, dz);
+        }
+
+        int index = bounds.index(dx, dy, dz);
+        Block block = blocks[index];
+        if (block == null && level != null) {
+            block = readWorld(dx, dy, dz);
+            blocks[index] = block;
+        }
+        return block;
+    }
+
+    private Block readWorld(int dx, int dy, int dz) {
+        if (level == null) return null;
+        cursor.setWithOffset(origin, dx, dy, dz);
+        return level.getBlockState(cursor).getBlock();
+    }
+}
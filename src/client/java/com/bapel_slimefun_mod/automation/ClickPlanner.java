@@ -0,0 +1,705 @@
+package com.bapel_slimefun_mod.automation;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.player.LocalPlayer;
+import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.ClickType;
+import net.minecraft.world.inventory.Slot;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compiles "make these container slots look like this" into a short click sequence.
+ *
+ * The planner runs on a simulated copy of the menu (slots + cursor) and picks,
+ * per ingredient, the cheapest of:
+ * - SWAP with a hotbar stack that fits an empty slot exactly (1 packet)
+ * - PICKUP + PICKUP_ALL to gather the ingredient onto the cursor
+ * - QUICK_CRAFT drag to split the cursor over every slot that needs it (n + 2 packets)
+ * - PICKUP / right-click for single slots
+ * - QUICK_MOVE to evict items that don't belong
+ *
+ * Before anything is evicted, misplaced container stacks that another container
+ * slot wants are moved there directly (cursor chains, see relayout()), so switching
+ * between related recipes only touches the slots that actually differ.
+ *
+ * Each plan also carries the click count of the old approach (3 PICKUPs per item
+ * moved, 1 QUICK_MOVE per eviction) so callers can report packets saved.
+ *
+ * The simulation follows vanilla click semantics closely enough for one plan;
+ * callers re-plan from the real menu once it has run, so any drift self-corrects.
+ *
+ * execute() does not send a plan at once: at most MAX_CLICKS_PER_TICK clicks go
+ * out per client tick (tick() sends the rest), like the old filler's cap. A plan
+ * is dropped when its container closes.
+ */
+public final class ClickPlanner {
+    /** Target count meaning "as many as fit in the slot" */
+    public static final int FILL = Integer.MAX_VALUE;
+
+    /** Clicks sent per client tick at most */
+    public static final int MAX_CLICKS_PER_TICK = 5;
+
+    private static final int OUTSIDE = -999;
+    private static final int MAX_ROUNDS = 64;
+
+    // Plan being sent and how far it got
+    private static Plan running = null;
+    private static int runningIndex = 0;
+    private static int runningContainerId = -1;
+    private static long batchTick = -1;
+    private static int sentThisTick = 0;
+
+    private ClickPlanner() {}
+
+    /**
+     * One container click
+     */
+    public static final class Click {
+        private final int slot;
+        private final int button;
+        private final ClickType type;
+
+        Click(int slot, int button, ClickType type) {
+            this.slot = slot;
+            this.button = button;
+            this.type = type;
+        }
+
+        public int getSlot() { return slot; }
+        public int getButton() { return button; }
+        public ClickType getType() { return type; }
+
+        @Override
+        public String toString() {
+            return type + "(" + slot + ", " + button + ")";
+        }
+    }
+
+    /**
+     * Planned clicks plus what the naive approach would have cost
+     */
+    public static final class Plan {
+        private final List<Click> clicks = new ArrayList<>();
+        private int baselineClicks;
+
+        public List<Click> getClicks() {
+            return Collections.unmodifiableList(clicks);
+        }
+
+        public int size() {
+            return clicks.size();
+        }
+
+        public boolean isEmpty() {
+            return clicks.isEmpty();
+        }
+
+        public int getBaselineClicks() {
+            return baselineClicks;
+        }
+
+        public int getPacketsSaved() {
+            return Math.max(0, baselineClicks - clicks.size());
+        }
+    }
+
+    // ========================================
+    // SIMULATION
+    // ========================================
+
+    /**
+     * Simulated stack. {@code proto} decides what may merge (same item + components).
+     */
+    static final class Stack {
+        static final Stack EMPTY = new Stack(ItemStack.EMPTY, null, 0);
+
+        final ItemStack proto;
+        final String id;
+        final int count;
+
+        Stack(ItemStack proto, String id, int count) {
+            this.proto = proto;
+            this.id = id;
+            this.count = count;
+        }
+
+        static Stack of(ItemStack stack) {
+            if (stack.isEmpty()) return EMPTY;
+            return new Stack(stack.copyWithCount(1), AutomationUtils.getItemId(stack), stack.getCount());
+        }
+
+        boolean isEmpty() {
+            return count <= 0;
+        }
+
+        int max() {
+            return isEmpty() ? 64 : proto.getMaxStackSize();
+        }
+
+        boolean stacksWith(Stack other) {
+            return !isEmpty() && !other.isEmpty() && ItemStack.isSameItemSameComponents(proto, other.proto);
+        }
+
+        boolean is(String itemId) {
+            return !isEmpty() && id.equals(itemId);
+        }
+
+        Stack withCount(int newCount) {
+            return newCount <= 0 ? EMPTY : new Stack(proto, id, newCount);
+        }
+    }
+
+    /**
+     * Simulated menu: every operation updates the model and records its click
+     */
+    static final class Model {
+        final Stack[] slots;
+        final int[] hotbarIndex; // hotbar index (0-8) of a menu slot, or -1
+        final int containerSize;
+        final Plan plan = new Plan();
+        Stack cursor;
+
+        Model(AbstractContainerMenu menu, int containerSize, LocalPlayer player) {
+            this.containerSize = containerSize;
+            this.slots = new Stack[menu.slots.size()];
+            this.hotbarIndex = new int[slots.length];
+            this.cursor = Stack.of(menu.getCarried());
+
+            for (int i = 0; i < slots.length; i++) {
+                Slot slot = menu.slots.get(i);
+                slots[i] = Stack.of(slot.getItem());
+
+                int index = slot.getContainerSlot();
+                hotbarIndex[i] = slot.container == player.getInventory() && Inventory.isHotbarSlot(index) ? index : -1;
+            }
+        }
+
+        /**
+         * Left click: pick up / place all / merge / swap
+         */
+        void pickup(int slot) {
+            Stack current = slots[slot];
+            if (cursor.isEmpty()) {
+                cursor = current;
+                slots[slot] = Stack.EMPTY;
+            } else if (current.isEmpty()) {
+                slots[slot] = cursor;
+                cursor = Stack.EMPTY;
+            } else if (current.stacksWith(cursor)) {
+                int moved = Math.min(cursor.count, current.max() - current.count);
+                slots[slot] = current.withCount(current.count + moved);
+                cursor = cursor.withCount(cursor.count - moved);
+            } else {
+                slots[slot] = cursor;
+                cursor = current;
+            }
+            record(slot, 0, ClickType.PICKUP);
+        }
+
+        /**
+         * Right click with a stack on the cursor: place one
+         */
+        void placeOne(int slot) {
+            Stack current = slots[slot];
+            if (current.isEmpty()) {
+                slots[slot] = cursor.withCount(1);
+                cursor = cursor.withCount(cursor.count - 1);
+            } else if (current.stacksWith(cursor) && current.count < current.max()) {
+                slots[slot] = current.withCount(current.count + 1);
+                cursor = cursor.withCount(cursor.count - 1);
+            }
+            record(slot, 1, ClickType.PICKUP);
+        }
+
+        /**
+         * Double click on an empty slot: gather matching stacks from the whole menu onto the cursor.
+         * Same order as vanilla: non-full stacks first, then full ones.
+         */
+        void pickupAll(int slot) {
+            for (int pass = 0; pass < 2; pass++) {
+                for (int i = 0; i < slots.length && cursor.count < cursor.max(); i++) {
+                    Stack stack = slots[i];
+                    if (!stack.stacksWith(cursor)) continue;
+                    if (pass == 0 && stack.count == stack.max()) continue;
+
+                    int moved = Math.min(stack.count, cursor.max() - cursor.count);
+                    slots[i] = stack.withCount(stack.count - moved);
+                    cursor = cursor.withCount(cursor.count + moved);
+                }
+            }
+            record(slot, 0, ClickType.PICKUP_ALL);
+        }
+
+        /**
+         * Shift click a container slot into the player inventory (merge, then last empty slot first)
+         */
+        void quickMove(int slot) {
+            Stack moving = slots[slot];
+            for (int i = slots.length - 1; i >= containerSize && !moving.isEmpty(); i--) {
+                Stack target = slots[i];
+                if (target.stacksWith(moving) && target.count < target.max()) {
+                    int moved = Math.min(moving.count, target.max() - target.count);
+                    slots[i] = target.withCount(target.count + moved);
+                    moving = moving.withCount(moving.count - moved);
+                }
+            }
+            for (int i = slots.length - 1; i >= containerSize && !moving.isEmpty(); i--) {
+                if (slots[i].isEmpty()) {
+                    slots[i] = moving;
+                    moving = Stack.EMPTY;
+                }
+            }
+            slots[slot] = moving;
+            record(slot, 0, ClickType.QUICK_MOVE);
+        }
+
+        /**
+         * Number key: swap a menu slot with a hotbar slot
+         */
+        void swap(int slot, int hotbar) {
+            int hotbarSlot = menuSlotOfHotbar(hotbar);
+            if (hotbarSlot >= 0) {
+                Stack current = slots[slot];
+                slots[slot] = slots[hotbarSlot];
+                slots[hotbarSlot] = current;
+            }
+            record(slot, hotbar, ClickType.SWAP);
+        }
+
+        /**
+         * QUICK_CRAFT drag. {@code single}: right drag (1 per slot), else split evenly.
+         */
+        void drag(List<Integer> targets, boolean single) {
+            int type = single ? 1 : 0;
+            record(OUTSIDE, AbstractContainerMenu.getQuickcraftMask(0, type), ClickType.QUICK_CRAFT);
+            for (int slot : targets) {
+                record(slot, AbstractContainerMenu.getQuickcraftMask(1, type), ClickType.QUICK_CRAFT);
+            }
+            record(OUTSIDE, AbstractContainerMenu.getQuickcraftMask(2, type), ClickType.QUICK_CRAFT);
+
+            int each = single ? 1 : cursor.count / targets.size();
+            int remaining = cursor.count;
+            for (int slot : targets) {
+                Stack current = slots[slot];
+                int base = current.isEmpty() ? 0 : current.count;
+                int placed = Math.min(base + each, cursor.max()) - base;
+                slots[slot] = cursor.withCount(base + placed);
+                remaining -= placed;
+            }
+            cursor = cursor.withCount(remaining);
+        }
+
+        int menuSlotOfHotbar(int hotbar) {
+            for (int i = containerSize; i < slots.length; i++) {
+                if (hotbarIndex[i] == hotbar) return i;
+            }
+            return -1;
+        }
+
+        boolean containerHas(Stack like) {
+            for (int i = 0; i < containerSize; i++) {
+                if (slots[i].stacksWith(like)) return true;
+            }
+            return false;
+        }
+
+        int inventoryCount(String itemId) {
+            int total = 0;
+            for (int i = containerSize; i < slots.length; i++) {
+                if (slots[i].is(itemId)) total += slots[i].count;
+            }
+            return total;
+        }
+
+        private void record(int slot, int button, ClickType type) {
+            plan.clicks.add(new Click(slot, button, type));
+        }
+    }
+
+    // ========================================
+    // PLANNING
+    // ========================================
+
+    /**
+     * Plan clicks that bring container slots [0, containerSize) to the target layout.
+     *
+     * @param targetIds    item id per container slot; null or "AIR" = must be empty
+     * @param targetCounts wanted count per slot, or {@link #FILL}
+     */
+    public static Plan planFill(AbstractContainerMenu menu, int containerSize, LocalPlayer player,
+                                String[] targetIds, int[] targetCounts) {
+        Model model = new Model(menu, containerSize, player);
+        if (!model.cursor.isEmpty()) {
+            // Something is held by the player - don't touch the menu
+            return model.plan;
+        }
+
+        relayout(model, targetIds);
+        evictForeign(model, targetIds);
+        fillAll(model, targetIds, targetCounts);
+        return model.plan;
+    }
+    
+    /**
+     * Plan only the minimal-diff re-layout for a new layout: keep stacks that are
+     * already right, move misplaced ones between container slots, evict the rest.
+     * Baseline is the old clear-everything-and-refill approach.
+     */
+    public static Plan planRelayout(AbstractContainerMenu menu, int containerSize, LocalPlayer player,
+                                    String[] targetIds) {
+        Model model = new Model(menu, containerSize, player);
+        if (!model.cursor.isEmpty()) {
+            return model.plan;
+        }
+        
+        // Stacks that stay put would also have been cleared and refilled
+        for (int i = 0; i < containerSize; i++) {
+            Stack current = model.slots[i];
+            if (!current.isEmpty() && !isAir(targetIds[i]) && current.is(targetIds[i])) {
+                model.plan.baselineClicks += 1 + 3 * current.count;
+            }
+        }
+        
+        relayout(model, targetIds);
+        evictForeign(model, targetIds);
+        return model.plan;
+    }
+    
+    /**
+     * Move misplaced container stacks straight to a container slot that wants them.
+     * Picking one up and dropping it on a wrong stack swaps; the displaced stack
+     * continues the chain, so cycles cost one click per slot.
+     */
+    static void relayout(Model model, String[] targetIds) {
+        for (int i = 0; i < model.containerSize; i++) {
+            Stack current = model.slots[i];
+            if (current.isEmpty() || (!isAir(targetIds[i]) && current.is(targetIds[i]))) continue;
+            
+            int target = wantingSlot(model, targetIds, current);
+            if (target < 0) continue; // evicted later
+            
+            model.pickup(i);
+            for (int hop = 0; hop < model.containerSize && target >= 0; hop++) {
+                // Old way: shift-click out, then refill item by item
+                model.plan.baselineClicks += 1 + 3 * model.cursor.count;
+                model.pickup(target);
+                if (model.cursor.isEmpty()) break;
+                target = wantingSlot(model, targetIds, model.cursor);
+            }
+            
+            if (!model.cursor.isEmpty()) {
+                // Displaced stack isn't wanted anywhere in the container
+                model.plan.baselineClicks++;
+                returnCursor(model, -1);
+            }
+        }
+    }
+    
+    /**
+     * Container slot whose target is this stack's item and that doesn't hold its target yet
+     */
+    private static int wantingSlot(Model model, String[] targetIds, Stack stack) {
+        for (int j = 0; j < model.containerSize; j++) {
+            if (isAir(targetIds[j]) || !stack.is(targetIds[j])) continue;
+            
+            Stack there = model.slots[j];
+            if (there.isEmpty() || !there.is(targetIds[j])) return j;
+        }
+        return -1;
+    }
+
+    /**
+     * Shift-click out every container stack that doesn't belong in its slot
+     */
+    static void evictForeign(Model model, String[] targetIds) {
+        for (int i = 0; i < model.containerSize; i++) {
+            Stack current = model.slots[i];
+            if (current.isEmpty()) continue;
+
+            if (isAir(targetIds[i]) || !current.is(targetIds[i])) {
+                model.quickMove(i);
+                model.plan.baselineClicks++;
+            }
+        }
+    }
+
+    /**
+     * Fill every ingredient group (all slots wanting the same item)
+     */
+    static void fillAll(Model model, String[] targetIds, int[] targetCounts) {
+        List<String> done = new ArrayList<>();
+        for (int i = 0; i < model.containerSize; i++) {
+            String itemId = targetIds[i];
+            if (isAir(itemId) || done.contains(itemId)) continue;
+            done.add(itemId);
+
+            List<Integer> group = new ArrayList<>();
+            for (int j = i; j < model.containerSize; j++) {
+                if (itemId.equals(targetIds[j])) group.add(j);
+            }
+            fillGroup(model, itemId, group, targetCounts);
+        }
+    }
+
+    private static void fillGroup(Model model, String itemId, List<Integer> group, int[] targetCounts) {
+        int available = model.inventoryCount(itemId);
+        if (available == 0) return;
+
+        int itemMax = maxStackOf(model, itemId);
+        int needed = 0;
+        for (int slot : group) {
+            needed += deficit(model, slot, targetCounts[slot], itemMax);
+        }
+        if (needed == 0) return;
+
+        // Old filler: pick up, place one, put back - per item
+        model.plan.baselineClicks += 3 * Math.min(needed, available);
+
+        swapFromHotbar(model, itemId, group, targetCounts, itemMax);
+
+        int sourceSlot = -1;
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            if (model.cursor.isEmpty()) {
+                sourceSlot = largestStack(model, itemId);
+                if (sourceSlot < 0) break;
+
+                model.pickup(sourceSlot);
+                if (model.cursor.count < openDeficit(model, group, targetCounts, itemMax)
+                        && !model.containerHas(model.cursor)
+                        && hasMoreStacks(model, model.cursor)) {
+                    // Gather the rest; safe because no container slot holds this item yet
+                    model.pickupAll(sourceSlot);
+                }
+            }
+
+            List<Integer> open = openSlots(model, group, targetCounts, itemMax);
+            if (open.isEmpty()) break;
+
+            int carried = model.cursor.count;
+            int n = open.size();
+
+            if (n == 1) {
+                placeExactly(model, open.get(0), deficit(model, open.get(0), targetCounts[open.get(0)], itemMax), sourceSlot);
+            } else if (carried >= n) {
+                int each = carried / n;
+                int shortAfter = 0;
+                for (int slot : open) {
+                    shortAfter += Math.max(0, deficit(model, slot, targetCounts[slot], itemMax) - each);
+                }
+                int supplyAfter = model.inventoryCount(itemId) + carried - each * n;
+                
+                // Even split unless overshooting some slots would leave others short
+                model.drag(open, supplyAfter < shortAfter);
+            } else {
+                // Fewer items than slots: one each into the emptiest slots
+                open.sort((a, b) -> deficit(model, b, targetCounts[b], itemMax) - deficit(model, a, targetCounts[a], itemMax));
+                for (int k = 0; k < carried; k++) model.placeOne(open.get(k));
+            }
+
+            if (model.cursor.isEmpty() && model.inventoryCount(itemId) == 0) break;
+        }
+
+        returnCursor(model, sourceSlot);
+    }
+
+    /**
+     * Put exactly {@code want} of the cursor into {@code slot}, the rest stays on the cursor.
+     * Uses whichever is shorter: right-click {@code want} times, or right-click the
+     * surplus back into the (emptied) source slot and drop the remainder in one click.
+     */
+    private static void placeExactly(Model model, int slot, int want, int sourceSlot) {
+        int carried = model.cursor.count;
+        if (carried <= want) {
+            model.pickup(slot);
+            return;
+        }
+
+        int surplus = carried - want;
+        boolean canPutBack = sourceSlot >= model.containerSize
+            && (model.slots[sourceSlot].isEmpty() || model.slots[sourceSlot].stacksWith(model.cursor))
+            && model.slots[sourceSlot].count + surplus <= model.cursor.max();
+
+        if (canPutBack && surplus + 1 < want) {
+            for (int k = 0; k < surplus; k++) model.placeOne(sourceSlot);
+            model.pickup(slot);
+        } else {
+            for (int k = 0; k < want; k++) model.placeOne(slot);
+        }
+    }
+
+    /**
+     * Empty target slots that a whole hotbar stack fits into exactly: one SWAP each
+     */
+    private static void swapFromHotbar(Model model, String itemId, List<Integer> group,
+                                       int[] targetCounts, int itemMax) {
+        for (int slot : group) {
+            if (!model.slots[slot].isEmpty()) continue;
+            int want = deficit(model, slot, targetCounts[slot], itemMax);
+
+            int best = -1;
+            for (int i = model.containerSize; i < model.slots.length; i++) {
+                Stack stack = model.slots[i];
+                if (model.hotbarIndex[i] < 0 || !stack.is(itemId) || stack.count > want) continue;
+                if (best < 0 || stack.count > model.slots[best].count) best = i;
+            }
+
+            // Only worth it when it fills the slot completely
+            if (best >= 0 && model.slots[best].count == want) {
+                model.swap(slot, model.hotbarIndex[best]);
+            }
+        }
+    }
+
+    /**
+     * Put whatever is left on the cursor back into the inventory
+     */
+    static void returnCursor(Model model, int preferredSlot) {
+        if (model.cursor.isEmpty()) return;
+
+        if (preferredSlot >= model.containerSize
+                && (model.slots[preferredSlot].isEmpty() || model.slots[preferredSlot].stacksWith(model.cursor))) {
+            model.pickup(preferredSlot);
+        }
+        for (int i = model.containerSize; i < model.slots.length && !model.cursor.isEmpty(); i++) {
+            Stack stack = model.slots[i];
+            if (stack.isEmpty() || (stack.stacksWith(model.cursor) && stack.count < stack.max())) {
+                model.pickup(i);
+            }
+        }
+        // Inventory full: park it in an empty container slot rather than keep holding it
+        for (int i = 0; i < model.containerSize && !model.cursor.isEmpty(); i++) {
+            if (model.slots[i].isEmpty()) {
+                model.pickup(i);
+            }
+        }
+    }
+
+    // ========================================
+    // EXECUTION
+    // ========================================
+
+    /**
+     * Start sending a plan to the live menu (replaces one still running).
+     * The first batch goes out right away, the rest over the next ticks.
+     */
+    public static void execute(AbstractContainerMenu menu, Plan plan) {
+        running = plan.isEmpty() ? null : plan;
+        runningIndex = 0;
+        runningContainerId = menu.containerId;
+        sendBatch();
+    }
+
+    /**
+     * Called once per client tick
+     */
+    public static void tick() {
+        if (running != null) {
+            sendBatch();
+        }
+    }
+
+    /**
+     * True while a plan still has clicks to send (callers wait before re-planning)
+     */
+    public static boolean isExecuting() {
+        return running != null;
+    }
+
+    public static void cancel() {
+        running = null;
+        runningIndex = 0;
+        runningContainerId = -1;
+    }
+
+    private static void sendBatch() {
+        if (running == null) return;
+
+        Minecraft mc = Minecraft.getInstance();
+        LocalPlayer player = mc.player;
+        if (player == null || mc.gameMode == null || player.containerMenu.containerId != runningContainerId) {
+            cancel(); // container closed or replaced: the rest of the plan is meaningless
+            return;
+        }
+
+        long tick = TickScheduler.getCurrentTick();
+        if (tick != batchTick) {
+            batchTick = tick;
+            sentThisTick = 0;
+        }
+
+        while (runningIndex < running.clicks.size() && sentThisTick < MAX_CLICKS_PER_TICK) {
+            Click click = running.clicks.get(runningIndex++);
+            mc.gameMode.handleInventoryMouseClick(runningContainerId, click.slot, click.button, click.type, player);
+            sentThisTick++;
+        }
+
+        if (runningIndex >= running.clicks.size()) {
+            cancel();
+        }
+    }
+
+    // ========================================
+    // HELPERS
+    // ========================================
+
+    static boolean isAir(String itemId) {
+        return itemId == null || itemId.equals("AIR");
+    }
+
+    static int deficit(Model model, int slot, int target, int itemMax) {
+        Stack current = model.slots[slot];
+        int max = current.isEmpty() ? itemMax : current.max();
+        int wanted = target == FILL ? max : Math.min(target, max);
+        return Math.max(0, wanted - current.count);
+    }
+
+    private static int openDeficit(Model model, List<Integer> group, int[] targetCounts, int itemMax) {
+        int total = 0;
+        for (int slot : group) {
+            total += deficit(model, slot, targetCounts[slot], itemMax);
+        }
+        return total;
+    }
+
+    /**
+     * Slots of the group that still need items and can take what is on the cursor
+     */
+    private static List<Integer> openSlots(Model model, List<Integer> group, int[] targetCounts, int itemMax) {
+        List<Integer> open = new ArrayList<>();
+        for (int slot : group) {
+            Stack current = model.slots[slot];
+            if (!current.isEmpty() && !current.stacksWith(model.cursor)) continue;
+            if (deficit(model, slot, targetCounts[slot], itemMax) > 0) open.add(slot);
+        }
+        return open;
+    }
+
+    private static int largestStack(Model model, String itemId) {
+        int best = -1;
+        for (int i = model.containerSize; i < model.slots.length; i++) {
+            if (model.slots[i].is(itemId) && (best < 0 || model.slots[i].count > model.slots[best].count)) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static boolean hasMoreStacks(Model model, Stack like) {
+        for (int i = model.containerSize; i < model.slots.length; i++) {
+            if (model.slots[i].stacksWith(like)) return true;
+        }
+        return false;
+    }
+
+    private static int maxStackOf(Model model, String itemId) {
+        for (Stack stack : model.slots) {
+            if (stack.is(itemId)) return stack.max();
+        }
+        return 64;
+    }
+}
@@ -0,0 +1,152 @@
+package com.bapel_slimefun_mod.automation;
+
+import com.bapel_slimefun_mod.debug.PerformanceMonitor;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.player.LocalPlayer;
+import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * "What can I make right now" across every machine in RecipeDatabase
+ *
+ * The inventory is counted once into itemId -> amount. Only recipes that use at
+ * least one owned item (RECIPES_BY_INPUT) are scored, against that count map.
+ * Craftable and near-craftable (>= NEAR_CRAFTABLE completion) recipes are grouped
+ * by machine: craftable first, then by completion; machines with the most
+ * craftable recipes come first.
+ *
+ * Results are cached per Inventory.getTimesChanged(), so callers can refresh every frame.
+ */
+public class CraftableLookup {
+    private static final PerformanceMonitor.Timer TIMER_REFRESH = PerformanceMonitor.timer("CraftableLookup.refresh");
+
+    public static final float NEAR_CRAFTABLE = 0.5f;
+
+    public record Match(RecipeData recipe, float completion, boolean craftable, int maxCrafts) {}
+
+    public record MachineGroup(String machineId, String machineName, List<Match> matches, int craftableCount) {}
+
+    private static final Comparator<Match> MATCH_ORDER = Comparator
+        .comparing(Match::craftable).reversed()
+        .thenComparing(Comparator.comparingDouble(Match::completion).reversed())
+        .thenComparing(m -> m.recipe().getDisplayString());
+
+    private static List<MachineGroup> cachedGroups = Collections.emptyList();
+    private static int cachedVersion = -1;
+    private static int cachedRecipeTotal = -1;
+
+    /**
+     * Current results; recomputed only when the inventory (or database) changed
+     */
+    public static List<MachineGroup> refresh() {
+        LocalPlayer player = Minecraft.getInstance().player;
+        if (player == null) return Collections.emptyList();
+
+        Inventory inventory = player.getInventory();
+        int version = inventory.getTimesChanged();
+        if (version == cachedVersion && RecipeDatabase.getTotalRecipes() == cachedRecipeTotal) {
+            return cachedGroups;
+        }
+
+        TIMER_REFRESH.start();
+        try {
+            cachedGroups = compute(countInventory(inventory));
+            cachedVersion = version;
+            cachedRecipeTotal = RecipeDatabase.getTotalRecipes();
+            return cachedGroups;
+        } finally {
+            TIMER_REFRESH.end();
+        }
+    }
+
+    /**
+     * Inventory version the cached results belong to
+     */
+    public static int getVersion() {
+        return cachedVersion;
+    }
+
+    public static void invalidate() {
+        cachedVersion = -1;
+    }
+
+    private static Map<String, Integer> countInventory(Inventory inventory) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < inventory.getContainerSize(); i++) {
+            ItemStack stack = inventory.getItem(i);
+            if (!stack.isEmpty()) {
+                counts.merge(AutomationUtils.getItemId(stack).toUpperCase(), stack.getCount(), Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private static List<MachineGroup> compute(Map<String, Integer> counts) {
+        // Candidates via the inverted index: recipes sharing at least one owned item
+        Set<RecipeData> candidates = new HashSet<>();
+        for (String itemId : counts.keySet()) {
+            candidates.addAll(RecipeDatabase.getRecipesUsingIngredient(itemId));
+        }
+
+        Map<String, List<Match>> byMachine = new LinkedHashMap<>();
+        for (RecipeData recipe : candidates) {
+            Match match = score(recipe, counts);
+            if (match != null && match.completion() >= NEAR_CRAFTABLE) {
+                byMachine.computeIfAbsent(recipe.getMachineId(), k -> new ArrayList<>()).add(match);
+            }
+        }
+
+        List<MachineGroup> groups = new ArrayList<>(byMachine.size());
+        for (Map.Entry<String, List<Match>> entry : byMachine.entrySet()) {
+            List<Match> matches = entry.getValue();
+            matches.sort(MATCH_ORDER);
+
+            int craftable = 0;
+            for (Match match : matches) {
+                if (match.craftable()) craftable++;
+            }
+            groups.add(new MachineGroup(entry.getKey(), machineName(entry.getKey()), matches, craftable));
+        }
+
+        groups.sort(Comparator.comparingInt(MachineGroup::craftableCount).reversed()
+            .thenComparing(Comparator.comparingDouble((MachineGroup g) -> g.matches().get(0).completion()).reversed())
+            .thenComparing(MachineGroup::machineName));
+        return groups;
+    }
+
+    private static Match score(RecipeData recipe, Map<String, Integer> counts) {
+        Map<String, Integer> required = recipe.getGroupedInputs();
+        if (required.isEmpty()) return null;
+
+        int totalRequired = 0;
+        int totalAvailable = 0;
+        int maxCrafts = Integer.MAX_VALUE;
+
+        for (Map.Entry<String, Integer> entry : required.entrySet()) {
+            int need = entry.getValue();
+            int have = counts.getOrDefault(entry.getKey(), 0);
+
+            totalRequired += need;
+            totalAvailable += Math.min(have, need);
+            maxCrafts = Math.min(maxCrafts, have / need);
+        }
+
+        float completion = (float) totalAvailable / totalRequired;
+        return new Match(recipe, completion, maxCrafts > 0, maxCrafts);
+    }
+
+    private static String machineName(String machineId) {
+        SlimefunMachineData machine = SlimefunDataLoader.getMachineById(machineId);
+        return machine != null ? machine.getName() : machineId;
+    }
+}
@@ -0,0 +1,120 @@
+package com.bapel_slimefun_mod.automation;
+
+import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits the available ingredients over a dispenser layout so that one fill
+ * yields as many crafts as possible.
+ *
+ * A craft consumes {@code required} items from every recipe slot, so a fill can
+ * run k = min over slots of (slotCount / required) times. For an item used in
+ * slots S with total available T (inventory + already in the right slots):
+ *   k(item) = min( T / sum(required_s), min_s(maxStack / required_s) )
+ * and k = min over items. Every slot is then targeted at exactly k * required;
+ * anything beyond that could never be crafted from this fill. An optional
+ * craft limit caps k (last fill of a production target).
+ */
+public final class FillBalancer {
+
+    private FillBalancer() {}
+
+    /**
+     * Target count per container slot plus the crafts one fill reaches
+     */
+    public static final class Result {
+        private final int[] targetCounts;
+        private final int craftsPerFill;
+
+        Result(int[] targetCounts, int craftsPerFill) {
+            this.targetCounts = targetCounts;
+            this.craftsPerFill = craftsPerFill;
+        }
+
+        public int[] getTargetCounts() {
+            return targetCounts;
+        }
+
+        public int getCraftsPerFill() {
+            return craftsPerFill;
+        }
+    }
+
+    public static Result balance(AbstractContainerMenu menu, int containerSize,
+                                 List<RecipeHandler.RecipeIngredient> layout) {
+        return balance(menu, containerSize, layout, 0);
+    }
+
+    /**
+     * @param layout recipe padded to the container size ("AIR"/0 = empty slot)
+     * @param craftLimit most crafts to fill for, 0 = no limit
+     */
+    public static Result balance(AbstractContainerMenu menu, int containerSize,
+                                 List<RecipeHandler.RecipeIngredient> layout, int craftLimit) {
+        Map<String, Integer> requiredPerCraft = new HashMap<>();
+        Map<String, Integer> maxCrafts = new HashMap<>();
+        Map<String, Integer> available = new HashMap<>();
+        Map<String, Integer> maxStack = new HashMap<>();
+
+        // Items anywhere in the player inventory part of the menu
+        for (int i = containerSize; i < menu.slots.size(); i++) {
+            ItemStack stack = menu.slots.get(i).getItem();
+            if (stack.isEmpty()) continue;
+
+            String id = AutomationUtils.getItemId(stack);
+            available.merge(id, stack.getCount(), Integer::sum);
+            maxStack.putIfAbsent(id, stack.getMaxStackSize());
+        }
+
+        // Plus what already sits in the right container slot
+        for (int i = 0; i < containerSize && i < layout.size(); i++) {
+            RecipeHandler.RecipeIngredient ingredient = layout.get(i);
+            if (isEmpty(ingredient)) continue;
+
+            ItemStack stack = menu.slots.get(i).getItem();
+            if (!stack.isEmpty() && AutomationUtils.getItemId(stack).equals(ingredient.getItemId())) {
+                available.merge(ingredient.getItemId(), stack.getCount(), Integer::sum);
+                maxStack.putIfAbsent(ingredient.getItemId(), stack.getMaxStackSize());
+            }
+        }
+
+        for (int i = 0; i < containerSize && i < layout.size(); i++) {
+            RecipeHandler.RecipeIngredient ingredient = layout.get(i);
+            if (isEmpty(ingredient)) continue;
+
+            String id = ingredient.getItemId();
+            int slotMax = maxStack.getOrDefault(id, 64);
+            requiredPerCraft.merge(id, ingredient.getAmount(), Integer::sum);
+            maxCrafts.merge(id, slotMax / ingredient.getAmount(), Math::min);
+        }
+
+        int crafts = Integer.MAX_VALUE;
+        for (Map.Entry<String, Integer> entry : requiredPerCraft.entrySet()) {
+            String id = entry.getKey();
+            int byAmount = available.getOrDefault(id, 0) / entry.getValue();
+            crafts = Math.min(crafts, Math.min(byAmount, maxCrafts.get(id)));
+        }
+        if (crafts == Integer.MAX_VALUE) {
+            crafts = 0;
+        }
+        if (craftLimit > 0) {
+            crafts = Math.min(crafts, craftLimit);
+        }
+
+        int[] targets = new int[containerSize];
+        for (int i = 0; i < containerSize && i < layout.size(); i++) {
+            RecipeHandler.RecipeIngredient ingredient = layout.get(i);
+            targets[i] = isEmpty(ingredient) ? 0 : crafts * ingredient.getAmount();
+        }
+
+        return new Result(targets, crafts);
+    }
+
+    private static boolean isEmpty(RecipeHandler.RecipeIngredient ingredient) {
+        return ingredient.getItemId().equals("AIR") || ingredient.getAmount() <= 0;
+    }
+}
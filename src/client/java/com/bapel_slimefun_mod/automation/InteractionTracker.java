@@ -0,0 +1,104 @@
+package com.bapel_slimefun_mod.automation;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.Block;
+
+/**
+ * Ties an opened container to the block that was clicked to open it.
+ *
+ * 1. The outgoing ServerboundUseItemOnPacket records the exact position and block
+ *    (see UseItemOnPacketMixin)
+ * 2. The next ClientboundOpenScreenPacket binds that interaction to its container id
+ *    (see OpenScreenMixin)
+ * 3. While that container is open, getOpenedBlockPos() returns the clicked block
+ *
+ * Synthetic clicks that never open a container (the multiblock auto-clicker)
+ * run inside runUntracked() so they cannot steal a pending interaction.
+ *
+ * A pending interaction expires after PENDING_TICKS client ticks, so a click that
+ * opened nothing cannot be claimed by an unrelated container later on.
+ * No raycasts. All methods run on the client thread.
+ */
+public final class InteractionTracker {
+    private static final long PENDING_TICKS = 20; // ~1s, generous for server lag
+
+    // Last block interaction not yet claimed by a container
+    private static BlockPos pendingPos = null;
+    private static Block pendingBlock = null;
+    private static long pendingTick = 0;
+
+    // Interaction bound to an open container
+    private static int boundContainerId = -1;
+    private static BlockPos boundPos = null;
+    private static Block boundBlock = null;
+
+    // Set while a synthetic click is being sent
+    private static boolean suppressed = false;
+
+    private InteractionTracker() {}
+
+    /**
+     * Run {@code action} without recording the block interactions it sends
+     */
+    public static void runUntracked(Runnable action) {
+        boolean previous = suppressed;
+        suppressed = true;
+        try {
+            action.run();
+        } finally {
+            suppressed = previous;
+        }
+    }
+
+    /**
+     * Player (or a container-opening automation click) used an item on a block
+     */
+    public static void onUseItemOn(BlockPos pos, Block block) {
+        if (suppressed) return;
+        pendingPos = pos.immutable();
+        pendingBlock = block;
+        pendingTick = TickScheduler.getCurrentTick();
+    }
+
+    /**
+     * Server opened a container; claim the interaction that caused it
+     */
+    public static void onOpenScreen(int containerId) {
+        boolean fresh = pendingPos != null && TickScheduler.getCurrentTick() - pendingTick <= PENDING_TICKS;
+        boundContainerId = containerId;
+        boundPos = fresh ? pendingPos : null;
+        boundBlock = fresh ? pendingBlock : null;
+        pendingPos = null;
+        pendingBlock = null;
+    }
+
+    /**
+     * Position of the block whose container is currently open, or null if the
+     * open container was not opened by a block interaction
+     */
+    public static BlockPos getOpenedBlockPos() {
+        Minecraft mc = Minecraft.getInstance();
+        if (boundPos == null || mc.player == null) return null;
+        if (mc.player.containerMenu.containerId != boundContainerId) return null;
+        return boundPos;
+    }
+
+    /**
+     * Block type that was clicked to open the current container (as seen at click time)
+     */
+    public static Block getOpenedBlock() {
+        return getOpenedBlockPos() != null ? boundBlock : null;
+    }
+
+    /**
+     * Forget everything (container closed for good / disconnect)
+     */
+    public static void clear() {
+        pendingPos = null;
+        pendingBlock = null;
+        boundContainerId = -1;
+        boundPos = null;
+        boundBlock = null;
+    }
+}
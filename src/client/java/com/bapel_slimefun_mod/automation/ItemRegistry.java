@@ -199,6 +199,7 @@ public class ItemRegistry {
      */
     public static void reload() {
         clear();
+        ItemStackResolver.clear();
         initialize();
     }
     
@@ -0,0 +1,104 @@
+package com.bapel_slimefun_mod.automation;
+
+import com.bapel_slimefun_mod.BapelSlimefunMod;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Recipe item ID -> representative ItemStack for overlay icons
+ *
+ * Vanilla IDs ("OAK_LOG") resolve through the built-in item registry, indexed
+ * once by upper-case path. Slimefun IDs have no material in slimefun_items.json,
+ * so they fall back to the longest vanilla suffix of the ID ("SYNTHETIC_DIAMOND"
+ * -> diamond), then a few keyword families (*_INGOT, *_DUST), then a player head,
+ * which is what most custom Slimefun items look like.
+ *
+ * Every ID is resolved once and cached; the overlay calls this while building
+ * its view-model, never from the per-frame path. Returned stacks are shared
+ * and must not be modified.
+ */
+public final class ItemStackResolver {
+
+    private static final Map<String, Item> VANILLA_BY_PATH = new HashMap<>();
+    private static final Map<String, ItemStack> CACHE = new HashMap<>();
+
+    private static final Map<String, Item> KEYWORDS = Map.of(
+        "INGOT", Items.IRON_INGOT,
+        "DUST", Items.GLOWSTONE_DUST,
+        "NUGGET", Items.IRON_NUGGET,
+        "LUMP", Items.SLIME_BALL,
+        "RUNE", Items.PAPER,
+        "CRYSTAL", Items.AMETHYST_SHARD
+    );
+
+    private static ItemStack placeholder;
+
+    private ItemStackResolver() {}
+
+    /**
+     * Representative stack for {@code itemId}; never null, EMPTY for AIR
+     */
+    public static ItemStack resolve(String itemId) {
+        if (itemId == null) return getPlaceholder();
+
+        String key = itemId.toUpperCase();
+        ItemStack cached = CACHE.get(key);
+        if (cached != null) return cached;
+
+        ItemStack resolved = key.equals("AIR") ? ItemStack.EMPTY : lookup(key);
+        CACHE.put(key, resolved);
+        return resolved;
+    }
+
+    private static ItemStack lookup(String key) {
+        if (VANILLA_BY_PATH.isEmpty()) {
+            indexRegistry();
+        }
+
+        // 1. Vanilla item (Slimefun items sharing a vanilla name look like it anyway)
+        Item exact = VANILLA_BY_PATH.get(key);
+        if (exact != null) {
+            return new ItemStack(exact);
+        }
+
+        // 2. Longest vanilla suffix: "SYNTHETIC_DIAMOND" -> DIAMOND
+        String[] words = key.split("_");
+        for (int start = 1; start < words.length; start++) {
+            Item suffix = VANILLA_BY_PATH.get(String.join("_", Arrays.copyOfRange(words, start, words.length)));
+            if (suffix != null) return new ItemStack(suffix);
+        }
+
+        // 3. Keyword families
+        for (String word : words) {
+            Item family = KEYWORDS.get(word);
+            if (family != null) return new ItemStack(family);
+        }
+
+        return getPlaceholder();
+    }
+
+    private static void indexRegistry() {
+        for (Item item : BuiltInRegistries.ITEM) {
+            if (item == Items.AIR) continue;
+            VANILLA_BY_PATH.put(BuiltInRegistries.ITEM.getKey(item).getPath().toUpperCase(), item);
+        }
+        BapelSlimefunMod.LOGGER.info("[ItemStackResolver] Indexed {} vanilla items", VANILLA_BY_PATH.size());
+    }
+
+    private static ItemStack getPlaceholder() {
+        if (placeholder == null) {
+            placeholder = new ItemStack(Items.PLAYER_HEAD);
+        }
+        return placeholder;
+    }
+
+    public static void clear() {
+        CACHE.clear();
+    }
+}
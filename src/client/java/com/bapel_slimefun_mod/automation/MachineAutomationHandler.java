@@ -28,8 +28,10 @@ import com.bapel_slimefun_mod.debug.PerformanceMonitor;
  * 6. Pre-validated slot indices
  */
 public class MachineAutomationHandler {
+    private static final PerformanceMonitor.Timer TIMER_TICK = PerformanceMonitor.timer("MachineAuto.tick");
+    
     private static SlimefunMachineData currentMachine = null;
-    private static long lastAutoTick = 0;
+    private static long lastAutoTick = 0; // TickScheduler tick
     private static ModConfig config;
     private static Map<String, Integer> cachedRecipeRequirements = new HashMap<>();
     private static String selectedRecipeId = null;
@@ -55,9 +57,13 @@ public class MachineAutomationHandler {
     // Machine change tracking
     private static String lastMachineId = null;
     
+    // Placed machine the open container belongs to (null if it wasn't opened from a block)
+    private static MachineInstanceRegistry.MachineInstance currentInstance = null;
+    
     public static void init(ModConfig cfg) {
         config = cfg;
         RecipeMemoryManager.load();
+        MachineInstanceRegistry.load();
     }
     
     public static void setSelectedRecipe(String recipeId) {
@@ -71,6 +77,9 @@ public static void setSelectedRecipe(String recipeId, boolean rememberRecipe) {
         currentMachine != null && recipeId != null) {
         
         RecipeMemoryManager.rememberRecipe(currentMachine.getId(), recipeId);
+        if (currentInstance != null) {
+            MachineInstanceRegistry.rememberRecipe(currentInstance.getPosition(), recipeId);
+        }
     }
     
     if (RecipeDatabase.isInitialized() && recipeId != null) {
@@ -92,7 +101,12 @@ public static void setSelectedRecipe(String recipeId, boolean rememberRecipe) {
      * ✅ OPTIMIZED: Clear recipe on machine change
      */
     public static void onContainerOpen(String title) {
-        currentMachine = SlimefunDataLoader.getMachineByTitle(title);
+        // ✅ Known placed machine: registry lookup instead of title matching
+        BlockPos openedPos = InteractionTracker.getOpenedBlockPos();
+        currentInstance = openedPos != null ? MachineInstanceRegistry.resolve(openedPos, title) : null;
+        currentMachine = currentInstance != null
+            ? currentInstance.getMachine()
+            : SlimefunDataLoader.getMachineByTitle(title);
         
         if (currentMachine != null) {
             
@@ -122,7 +136,11 @@ public static void setSelectedRecipe(String recipeId, boolean rememberRecipe) {
             
             // AUTO MODE
             if (config != null && config.isRememberLastRecipe()) {
-                String rememberedRecipe = RecipeMemoryManager.getRememberedRecipe(currentMachine.getId());
+                // This machine's own recipe first, then the last one used on this machine type
+                String rememberedRecipe = currentInstance != null ? currentInstance.getLastRecipe() : null;
+                if (rememberedRecipe == null) {
+                    rememberedRecipe = RecipeMemoryManager.getRememberedRecipe(currentMachine.getId());
+                }
                 
                 if (rememberedRecipe != null) {
                     setSelectedRecipe(rememberedRecipe, false);
@@ -164,6 +182,13 @@ public static void setSelectedRecipe(String recipeId, boolean rememberRecipe) {
             return;
         }
         
+        // Layout was validated when the instance was registered
+        if (currentInstance != null) {
+            validInputSlots = currentInstance.getInputSlots();
+            validOutputSlots = currentInstance.getOutputSlots();
+            return;
+        }
+        
         // Validate input slots
         int[] rawInput = currentMachine.getInputSlots();
         List<Integer> validInput = new ArrayList<>();
@@ -191,6 +216,7 @@ public static void setSelectedRecipe(String recipeId, boolean rememberRecipe) {
         }
         
         currentMachine = null;
+        currentInstance = null;
         cachedRecipeRequirements.clear();
         resetCaches();
         
@@ -224,7 +250,7 @@ public static void setSelectedRecipe(String recipeId, boolean rememberRecipe) {
      * ✅ ULTRA OPTIMIZED: Smart throttling + batch processing
      */
     public static void tick() {
-        PerformanceMonitor.start("MachineAuto.tick");
+        TIMER_TICK.start();
         try {
             // ✅ FAST PATH: Early exits
             if (config == null || !automationEnabled || currentMachine == null) {
@@ -248,15 +274,16 @@ public static void setSelectedRecipe(String recipeId, boolean rememberRecipe) {
             AbstractContainerMenu menu = player.containerMenu;
             if (menu == null) return;
             
-            long now = System.currentTimeMillis();
+            long now = TickScheduler.getCurrentTick();
             
             // ✅ OPTIMIZATION: Dynamic delay based on success rate
             long delay = config.getAutomationDelayMs();
             if (successfulInputs == 0 && successfulOutputs == 0) {
                 delay = Math.min(delay * 2, 500); // Slow down if nothing happening
             }
+            long delayTicks = Math.max(1, delay / 50);
             
-            if (now - lastAutoTick < delay) return;
+            if (now - lastAutoTick < delayTicks) return;
             lastAutoTick = now;
             
             try {
@@ -269,7 +296,7 @@ public static void setSelectedRecipe(String recipeId, boolean rememberRecipe) {
                 BapelSlimefunMod.LOGGER.error("[Automation] Error in automation tick", e);
             }
         } finally {
-            PerformanceMonitor.end("MachineAuto.tick");
+            TIMER_TICK.end();
         }
     }
     
@@ -0,0 +1,308 @@
+package com.bapel_slimefun_mod.automation;
+
+import com.bapel_slimefun_mod.BapelSlimefunMod;
+import com.bapel_slimefun_mod.config.PersistenceService;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import net.minecraft.core.BlockPos;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of placed electric machines, keyed by world scope + position
+ *
+ * Each instance remembers what the machine resolved to (machine id + GUI title),
+ * its validated slot layout and its own last recipe. Reopening a known machine
+ * is a map lookup: no title matching, and two machines of the same type keep
+ * separate recipes.
+ *
+ * The title is stored so a machine that was replaced by a different one at the
+ * same position is re-resolved instead of trusted.
+ */
+public class MachineInstanceRegistry {
+    private static final String REGISTRY_FILE = "machine_instances.json";
+    private static final int SCHEMA_VERSION = 1;
+    private static final InstanceAdapter ADAPTER = new InstanceAdapter();
+
+    // Scope -> packed BlockPos -> instance (concurrent: serialized on the persistence thread)
+    private static final Map<String, Map<Long, MachineInstance>> instances = new ConcurrentHashMap<>();
+    private static boolean isLoaded = false;
+
+    /**
+     * One placed machine
+     */
+    public static class MachineInstance {
+        private final BlockPos position;
+        private final String machineId;
+        private final String title;
+        private final int[] inputSlots;
+        private final int[] outputSlots;
+        private volatile String lastRecipe;
+
+        private MachineInstance(BlockPos position, String machineId, String title,
+                                int[] inputSlots, int[] outputSlots, String lastRecipe) {
+            this.position = position.immutable();
+            this.machineId = machineId;
+            this.title = title;
+            this.inputSlots = inputSlots;
+            this.outputSlots = outputSlots;
+            this.lastRecipe = lastRecipe;
+        }
+
+        public BlockPos getPosition() { return position; }
+        public String getMachineId() { return machineId; }
+        public String getTitle() { return title; }
+        public int[] getInputSlots() { return inputSlots; }
+        public int[] getOutputSlots() { return outputSlots; }
+        public String getLastRecipe() { return lastRecipe; }
+
+        public SlimefunMachineData getMachine() {
+            return SlimefunDataLoader.getMachineById(machineId);
+        }
+    }
+
+    /**
+     * Machine behind a container opened from {@code pos}. Known positions with an
+     * unchanged title are answered from the registry; otherwise the title is
+     * resolved once and the result registered.
+     */
+    public static MachineInstance resolve(BlockPos pos, String title) {
+        if (!isLoaded) load();
+
+        String scope = WorldScope.current();
+        if (scope == null || pos == null || title == null) return null;
+
+        Map<Long, MachineInstance> byPos = instances.computeIfAbsent(scope, k -> new ConcurrentHashMap<>());
+        MachineInstance known = byPos.get(pos.asLong());
+        if (known != null && known.title.equals(title) && known.getMachine() != null) {
+            return known;
+        }
+
+        SlimefunMachineData machine = SlimefunDataLoader.getMachineByTitle(title);
+        if (machine == null || !machine.isElectric()) {
+            if (known != null) {
+                byPos.remove(pos.asLong());
+                save();
+            }
+            return null;
+        }
+
+        MachineInstance instance = new MachineInstance(pos, machine.getId(), title,
+            validSlots(machine.getInputSlots()), validSlots(machine.getOutputSlots()), null);
+        byPos.put(pos.asLong(), instance);
+        save();
+
+        BapelSlimefunMod.LOGGER.info("[MachineRegistry] Registered {} at {}", machine.getName(), pos);
+        return instance;
+    }
+
+    /**
+     * Instance at a position in the current world (no resolution)
+     */
+    public static MachineInstance get(BlockPos pos) {
+        if (!isLoaded) load();
+
+        String scope = WorldScope.current();
+        if (scope == null || pos == null) return null;
+
+        Map<Long, MachineInstance> byPos = instances.get(scope);
+        return byPos != null ? byPos.get(pos.asLong()) : null;
+    }
+
+    /**
+     * Remember the recipe selected for one specific machine
+     */
+    public static void rememberRecipe(BlockPos pos, String recipeId) {
+        MachineInstance instance = get(pos);
+        if (instance == null || recipeId == null || recipeId.equals(instance.lastRecipe)) return;
+
+        instance.lastRecipe = recipeId;
+        save();
+    }
+
+    /**
+     * Number of registered machines in the current world
+     */
+    public static int size() {
+        if (!isLoaded) load();
+
+        String scope = WorldScope.current();
+        Map<Long, MachineInstance> byPos = scope != null ? instances.get(scope) : null;
+        return byPos != null ? byPos.size() : 0;
+    }
+
+    private static int[] validSlots(int[] raw) {
+        if (raw == null) return new int[0];
+
+        List<Integer> valid = new ArrayList<>();
+        for (int slot : raw) {
+            if (slot >= 0) {
+                valid.add(slot);
+            }
+        }
+        return valid.stream().mapToInt(i -> i).toArray();
+    }
+
+    // ========================================
+    // PERSISTENCE
+    // ========================================
+
+    public static void load() {
+        Path path = getRegistryPath();
+
+        if (Files.exists(path)) {
+            try (JsonReader reader = new JsonReader(Files.newBufferedReader(path))) {
+                readRegistry(reader);
+            } catch (Exception e) {
+                BapelSlimefunMod.LOGGER.error("[MachineRegistry] Failed to load registry", e);
+            }
+        }
+
+        isLoaded = true;
+    }
+
+    public static void save() {
+        if (!isLoaded) return;
+        PersistenceService.schedule(getRegistryPath(), MachineInstanceRegistry::serialize);
+    }
+
+    /**
+     * {"version":1,"scopes":{"scope":[instance,...]}}
+     */
+    private static String serialize() {
+        StringWriter buffer = new StringWriter();
+        try (JsonWriter out = new JsonWriter(buffer)) {
+            out.beginObject();
+            out.name("version").value(SCHEMA_VERSION);
+            out.name("scopes");
+            out.beginObject();
+            for (Map.Entry<String, Map<Long, MachineInstance>> scope : new TreeMap<>(instances).entrySet()) {
+                if (scope.getValue().isEmpty()) continue;
+
+                out.name(scope.getKey());
+                out.beginArray();
+                for (MachineInstance instance : scope.getValue().values()) {
+                    ADAPTER.write(out, instance);
+                }
+                out.endArray();
+            }
+            out.endObject();
+            out.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toString();
+    }
+
+    private static void readRegistry(JsonReader in) throws IOException {
+        in.beginObject();
+        while (in.hasNext()) {
+            if (!in.nextName().equals("scopes")) {
+                in.skipValue();
+                continue;
+            }
+
+            in.beginObject();
+            while (in.hasNext()) {
+                Map<Long, MachineInstance> byPos =
+                    instances.computeIfAbsent(in.nextName(), k -> new ConcurrentHashMap<>());
+                in.beginArray();
+                while (in.hasNext()) {
+                    MachineInstance instance = ADAPTER.read(in);
+                    if (instance != null) {
+                        byPos.put(instance.position.asLong(), instance);
+                    }
+                }
+                in.endArray();
+            }
+            in.endObject();
+        }
+        in.endObject();
+    }
+
+    /**
+     * {"pos":[x,y,z],"id":"ELECTRIC_FURNACE","title":"...","in":[..],"out":[..],"recipe":"..."}
+     */
+    private static final class InstanceAdapter extends TypeAdapter<MachineInstance> {
+        @Override
+        public void write(JsonWriter out, MachineInstance instance) throws IOException {
+            BlockPos pos = instance.position;
+            out.beginObject();
+            out.name("pos").beginArray().value(pos.getX()).value(pos.getY()).value(pos.getZ()).endArray();
+            out.name("id").value(instance.machineId);
+            out.name("title").value(instance.title);
+            writeSlots(out.name("in"), instance.inputSlots);
+            writeSlots(out.name("out"), instance.outputSlots);
+            if (instance.lastRecipe != null) {
+                out.name("recipe").value(instance.lastRecipe);
+            }
+            out.endObject();
+        }
+
+        @Override
+        public MachineInstance read(JsonReader in) throws IOException {
+            int[] xyz = null;
+            String machineId = null;
+            String title = null;
+            int[] input = new int[0];
+            int[] output = new int[0];
+            String recipe = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "pos": xyz = readSlots(in); break;
+                    case "id": machineId = in.nextString(); break;
+                    case "title": title = in.nextString(); break;
+                    case "in": input = readSlots(in); break;
+                    case "out": output = readSlots(in); break;
+                    case "recipe": recipe = in.nextString(); break;
+                    default: in.skipValue(); break;
+                }
+            }
+            in.endObject();
+
+            if (xyz == null || xyz.length != 3 || machineId == null || title == null) return null;
+            return new MachineInstance(new BlockPos(xyz[0], xyz[1], xyz[2]), machineId, title, input, output, recipe);
+        }
+
+        private static void writeSlots(JsonWriter out, int[] slots) throws IOException {
+            out.beginArray();
+            for (int slot : slots) {
+                out.value(slot);
+            }
+            out.endArray();
+        }
+
+        private static int[] readSlots(JsonReader in) throws IOException {
+            List<Integer> values = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                values.add(in.nextInt());
+            }
+            in.endArray();
+            return values.stream().mapToInt(i -> i).toArray();
+        }
+    }
+
+    private static Path getRegistryPath() {
+        return Paths.get("config", REGISTRY_FILE);
+    }
+}
@@ -1,69 +1,156 @@
 package com.bapel_slimefun_mod.automation;
 
 import com.bapel_slimefun_mod.BapelSlimefunMod;
+import com.bapel_slimefun_mod.config.ModConfig;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientPacketListener;
+import net.minecraft.client.multiplayer.PlayerInfo;
 import net.minecraft.client.player.LocalPlayer;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.Block;
-import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.phys.BlockHitResult;
 import net.minecraft.world.phys.Vec3;
 import com.bapel_slimefun_mod.debug.PerformanceMonitor;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
- * OPTIMIZED VERSION - Reduced CPU overhead
- * 
+ * OPTIMIZED VERSION - Reduced CPU overhead, several machines at once
+ *
+ * Every multiblock that gets auto-clicked is a Job (keyed by dispenser position)
+ * with its own recipe, target count and click interval (ModConfig.autoClickIntervalTicks,
+ * per machine id).
+ *
+ * Scheduling runs on client game ticks, not wall-clock time: tick() is called on
+ * every END_CLIENT_TICK and sends at most ModConfig.clicksPerServerTick clicks,
+ * at most one per machine, to the machines that waited longest. Clicks therefore
+ * arrive spread one (or N) per server tick instead of bunching up or leaving gaps.
+ *
+ * A click only counts once it is confirmed: Slimefun answers a click that did not
+ * consume the dispenser (no recipe match / output full) with a chat message
+ * (ModConfig.autoClickFailurePhrases, editable for translated servers). A click
+ * with no such answer within the confirmation window is a confirmed craft; the
+ * window follows the measured ping (round trip plus a server tick and some jitter
+ * margin). Successful clicks get no answer, so a failure message is matched by
+ * timing: it belongs to the pending click sent about one round trip (plus the
+ * processing tick) earlier. If clicks of several machines fall within
+ * ATTRIBUTION_SLACK_TICKS of that point, every one of those machines is stopped
+ * rather than guessing.
+ *
+ * Clicks the server drops without any answer (lost packet, ignored
+ * interaction) are indistinguishable from successful ones and still count as
+ * confirmed; only an explicit failure message un-counts a click.
+ *
  * Performance improvements:
- * 1. Cached signature block position - find once, reuse
- * 2. Smart block validation - cache block type
- * 3. Reduced Level queries - batch checks
- * 4. Early exit optimization
+ * 1. Trigger block position comes from the cached multiblock (offset learned
+ *    from the structure template during detection) - no searching
+ * 2. Validity is the cache's verified flag (block updates invalidate it) -
+ *    no block comparisons per click
+ * 3. Early exit optimization
  */
 public class MultiblockAutoClicker {
-    
-    private static boolean autoClickEnabled = false;
-    private static BlockPos dispenserPos = null;
-    private static String machineId = null;
-    private static long lastClickTime = 0;
-    private static final long CLICK_INTERVAL = 100; // 1 second
-    
-    private static int targetClickCount = 0;
-    private static int currentClickCount = 0;
-    
-    // OPTIMIZATION: Cache signature block position
-    private static BlockPos cachedSignaturePos = null;
-    private static Block cachedSignatureBlock = null;
-    
-    public static void enable(BlockPos pos, String machine, int targetClicks) {
-        dispenserPos = pos;
-        machineId = machine;
-        targetClickCount = targetClicks;
-        currentClickCount = 0;
-        autoClickEnabled = true;
-        
-        // OPTIMIZATION: Pre-find signature block position
+    private static final PerformanceMonitor.Timer TIMER_TICK = PerformanceMonitor.timer("AutoClicker.tick");
+
+    private static final int DEFAULT_CONFIRM_TICKS = 10; // ping unknown
+    private static final int MIN_CONFIRM_TICKS = 3;
+    private static final int MAX_CONFIRM_TICKS = 60;
+    private static final int CONFIRM_MARGIN_TICKS = 2;   // server processing + jitter
+    private static final int ATTRIBUTION_SLACK_TICKS = 1; // send-tick tolerance when matching a failure
+    private static final int RATE_WINDOW_TICKS = 20;    // confirmed crafts/s are counted over 1s
+    private static final double MAX_TRACK_DISTANCE_SQR = 32 * 32; // beyond this a job is dropped
+
+    private static final Map<Long, Job> jobs = new LinkedHashMap<>();
+    private static long clientTick = 0;
+    private static int confirmTicks = DEFAULT_CONFIRM_TICKS;
+    private static int roundTripTicks = DEFAULT_CONFIRM_TICKS / 2;
+
+    // Clicks sent but not yet confirmed, oldest first (across all jobs)
+    private static final ArrayDeque<PendingClick> pending = new ArrayDeque<>();
+    // Ticks at which clicks were confirmed, for the crafts/s figure
+    private static final ArrayDeque<Long> confirmedTicks = new ArrayDeque<>();
+
+    // Outcome of the last finished run per dispenser (read by ProductionLoop)
+    private static final Map<Long, Job> finished = new HashMap<>();
+
+    /**
+     * One multiblock being clicked
+     */
+    private static final class Job {
+        final BlockPos dispenserPos;
+        final String machineId;
+        final String recipeId;
+        final int targetClicks;
+        final int intervalTicks;
+        int sent = 0;
+        int confirmed = 0;
+        int unconfirmed = 0;
+        long lastClickTick = Long.MIN_VALUE / 2;
+        String failure = null;
+        BlockPos triggerPos;
+
+        Job(BlockPos dispenserPos, String machineId, String recipeId, int targetClicks, int intervalTicks) {
+            this.dispenserPos = dispenserPos.immutable();
+            this.machineId = machineId;
+            this.recipeId = recipeId;
+            this.targetClicks = targetClicks;
+            this.intervalTicks = intervalTicks;
+        }
+
+        boolean isCompleted() {
+            return confirmed >= targetClicks;
+        }
+
+        boolean wantsClick(long tick) {
+            return failure == null && sent < targetClicks && tick - lastClickTick >= intervalTicks;
+        }
+    }
+
+    private static final class PendingClick {
+        final Job job;
+        final long tick;
+
+        PendingClick(Job job, long tick) {
+            this.job = job;
+            this.tick = tick;
+        }
+    }
+
+    /**
+     * Start (or restart) clicking the multiblock whose dispenser is at {@code pos}.
+     * Other running machines are not affected.
+     * @param intervalTicks minimum game ticks between two clicks on this machine
+     *                      (ModConfig.getAutoClickIntervalTicks)
+     */
+    public static void enable(BlockPos pos, String machine, int targetClicks, int intervalTicks) {
+        Job job = new Job(pos, machine, MultiblockAutomationHandler.getSelectedRecipe(),
+            targetClicks, Math.max(1, intervalTicks));
+
+        // Trigger position is known from detection; no search
         Minecraft mc = Minecraft.getInstance();
-        Level level = mc.level;
-        if (level != null) {
-            Block signatureBlock = getSignatureBlock(machine);
-            if (signatureBlock != null) {
-                cachedSignaturePos = findSignatureBlock(level, pos, signatureBlock, machine);
-                cachedSignatureBlock = signatureBlock;
-            }
+        job.triggerPos = MultiblockCacheManager.resolveTriggerPos(mc.level, pos);
+
+        Job previous = jobs.put(job.dispenserPos.asLong(), job);
+        if (previous != null) {
+            dropPending(previous);
         }
-        
-        BapelSlimefunMod.LOGGER.info("[AutoClick] ✅ ENABLED - Target: {} clicks for {} at {}", 
-            targetClicks, machine, pos);
-        
+        finished.remove(job.dispenserPos.asLong());
+
+        BapelSlimefunMod.LOGGER.info("[AutoClick] ✅ ENABLED - Target: {} clicks for {} at {} ({} running)",
+            targetClicks, machine, pos, jobs.size());
+
         if (mc.player != null) {
             mc.player.displayClientMessage(
                 Component.literal(String.format(
-                    "§a▶ Auto-Click STARTED - Will click §b%d times",
-                    targetClicks
+                    "§a▶ Auto-Click STARTED - Will click §b%d times §7(%d machine%s running)",
+                    targetClicks, jobs.size(), jobs.size() == 1 ? "" : "s"
                 )),
                 false
             );
@@ -73,246 +160,261 @@ public class MultiblockAutoClicker {
             );
         }
     }
-    
+
+    /**
+     * Stop every running machine
+     */
     public static void disable() {
-        if (!autoClickEnabled) return;
-        
-        autoClickEnabled = false;
-        
+        for (Job job : new ArrayList<>(jobs.values())) {
+            finish(job);
+        }
+    }
+
+    /**
+     * Stop the machine whose dispenser is at {@code pos}
+     */
+    public static void disable(BlockPos pos) {
+        Job job = pos != null ? jobs.get(pos.asLong()) : null;
+        if (job != null) {
+            finish(job);
+        }
+    }
+
+    private static void finish(Job job) {
+        jobs.remove(job.dispenserPos.asLong());
+        dropPending(job);
+        finished.put(job.dispenserPos.asLong(), job);
+
         Minecraft mc = Minecraft.getInstance();
         if (mc.player != null) {
-            String reason = currentClickCount >= targetClickCount ? "Target reached" : "Stopped";
-            
+            String reason = job.isCompleted() ? "Target reached"
+                : job.failure != null ? job.failure : "Stopped";
+
             mc.player.displayClientMessage(
                 Component.literal(String.format(
-                    "§c■ Auto-Click STOPPED - %s (%d/%d clicks)",
-                    reason, currentClickCount, targetClickCount
+                    "§c■ Auto-Click STOPPED - %s §7(%s: %d/%d crafts confirmed)",
+                    reason, getMachineName(job.machineId), job.confirmed, job.targetClicks
                 )),
                 false
             );
         }
-        
-        BapelSlimefunMod.LOGGER.info("[AutoClick] Disabled - Completed {}/{} clicks", 
-            currentClickCount, targetClickCount);
-        
-        // Clear cache
-        dispenserPos = null;
-        machineId = null;
-        targetClickCount = 0;
-        currentClickCount = 0;
-        cachedSignaturePos = null;
-        cachedSignatureBlock = null;
+
+        BapelSlimefunMod.LOGGER.info("[AutoClick] Disabled {} at {} - {} sent, {}/{} confirmed{}",
+            job.machineId, job.dispenserPos, job.sent, job.confirmed, job.targetClicks,
+            job.failure != null ? " (" + job.failure + ")" : "");
     }
-    
+
+    private static void dropPending(Job job) {
+        pending.removeIf(click -> click.job == job);
+        job.unconfirmed = 0;
+    }
+
+    /**
+     * Server chat line (client thread). A Slimefun failure message means the oldest
+     * unconfirmed click did not craft anything.
+     */
+    public static void onServerMessage(String text) {
+        if (pending.isEmpty() || text == null) return;
+
+        String lower = text.toLowerCase();
+        for (String phrase : getFailurePhrases()) {
+            if (lower.contains(phrase)) {
+                attributeFailure(text.trim());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Cancel the pending click the failure answers: the one sent closest to one
+     * round trip (plus the processing tick) ago. Clicks of other machines within
+     * the slack make it ambiguous; then all of those machines are stopped.
+     */
+    private static void attributeFailure(String text) {
+        long expectedTick = clientTick - roundTripTicks - 1;
+
+        PendingClick closest = null;
+        for (PendingClick click : pending) {
+            if (closest == null || Math.abs(click.tick - expectedTick) < Math.abs(closest.tick - expectedTick)) {
+                closest = click;
+            }
+        }
+
+        pending.remove(closest);
+        closest.job.unconfirmed--;
+
+        List<Job> suspects = new ArrayList<>();
+        suspects.add(closest.job);
+        for (PendingClick click : pending) {
+            if (Math.abs(click.tick - expectedTick) <= ATTRIBUTION_SLACK_TICKS && !suspects.contains(click.job)) {
+                suspects.add(click.job);
+            }
+        }
+
+        String reason = suspects.size() == 1 ? "Server: " + text : "Server (ambiguous): " + text;
+        for (Job job : suspects) {
+            if (job.failure == null) {
+                job.failure = reason;
+                BapelSlimefunMod.LOGGER.info("[AutoClick] Click on {} at {} failed ({} candidate machine(s)): {}",
+                    job.machineId, job.dispenserPos, suspects.size(), text);
+            }
+        }
+    }
+
     /**
-     * OPTIMIZED: Main tick with cached signature position
+     * Called once per client tick
      */
     public static void tick() {
-        PerformanceMonitor.start("AutoClicker.tick");
+        TIMER_TICK.start();
         try {
+            clientTick++;
+
             // OPTIMIZATION: Fast-path early exit
-            if (!autoClickEnabled || dispenserPos == null || machineId == null) {
+            if (jobs.isEmpty()) {
                 return;
             }
-            
+
             Minecraft mc = Minecraft.getInstance();
             LocalPlayer player = mc.player;
             Level level = mc.level;
-            
+
             if (player == null || level == null) {
                 return;
             }
-            
-            // Check if target reached
-            if (currentClickCount >= targetClickCount) {
-                BapelSlimefunMod.LOGGER.info("[AutoClick] ✓ Target reached! ({}/{})", 
-                    currentClickCount, targetClickCount);
-                disable();
-                return;
-            }
-            
+
             // Check automation status
             if (!UnifiedAutomationManager.isAutomationEnabled()) {
                 BapelSlimefunMod.LOGGER.info("[AutoClick] Stopped: automation disabled");
                 disable();
                 return;
             }
-            
-            // Check recipe selection
-            String selectedRecipe = MultiblockAutomationHandler.getSelectedRecipe();
-            if (selectedRecipe == null) {
-                BapelSlimefunMod.LOGGER.info("[AutoClick] Stopped: no recipe selected");
-                disable();
-                return;
-            }
-            
-            // Throttle clicking
-            long now = System.currentTimeMillis();
-            if (now - lastClickTime < CLICK_INTERVAL) {
-                return;
-            }
-            
-            // OPTIMIZATION: Validate cached position before searching
-            BlockPos targetPos = cachedSignaturePos;
-            
-            if (targetPos != null) {
-                // Verify cached position is still valid
-                Block currentBlock = level.getBlockState(targetPos).getBlock();
-                if (!isMatchingBlock(currentBlock, cachedSignatureBlock)) {
-                    // Cache invalidated - search again
-                    BapelSlimefunMod.LOGGER.warn("[AutoClick] Cached position invalid, searching...");
-                    cachedSignaturePos = findSignatureBlock(level, dispenserPos, cachedSignatureBlock, machineId);
-                    targetPos = cachedSignaturePos;
+
+            confirmTicks = measureConfirmTicks(mc, player);
+            confirmPending();
+
+            List<Job> due = new ArrayList<>();
+            List<Job> dropped = new ArrayList<>();
+
+            for (Job job : jobs.values()) {
+                if (job.recipeId == null || job.failure != null && job.unconfirmed == 0) {
+                    dropped.add(job);
+                    continue;
+                }
+                if (job.sent >= job.targetClicks) {
+                    if (job.unconfirmed == 0) {
+                        dropped.add(job); // all clicks answered
+                    }
+                    continue;
+                }
+
+                // Structure changed since the position was taken? (block updates mark the entry unverified)
+                MultiblockCacheManager.CachedMultiblock cached = MultiblockCacheManager.getMachineAt(job.dispenserPos);
+                if (cached == null || !cached.isVerified() || job.triggerPos == null) {
+                    job.triggerPos = MultiblockCacheManager.resolveTriggerPos(level, job.dispenserPos);
+                    if (job.triggerPos == null) {
+                        BapelSlimefunMod.LOGGER.warn("[AutoClick] No complete {} at {} anymore",
+                            job.machineId, job.dispenserPos);
+                        dropped.add(job);
+                        continue;
+                    }
+                }
+
+                if (player.distanceToSqr(Vec3.atCenterOf(job.triggerPos)) > MAX_TRACK_DISTANCE_SQR) {
+                    dropped.add(job);
+                    continue;
                 }
-            } else {
-                // No cache - find signature block
-                Block signatureBlock = getSignatureBlock(machineId);
-                if (signatureBlock == null) {
-                    BapelSlimefunMod.LOGGER.warn("[AutoClick] Unknown signature block for: {}", machineId);
-                    disable();
-                    return;
+
+                // Out of reach: paused until the player comes back
+                if (!player.canInteractWithBlock(job.triggerPos, 0.0)) {
+                    continue;
+                }
+
+                if (job.wantsClick(clientTick)) {
+                    due.add(job);
                 }
-                
-                cachedSignatureBlock = signatureBlock;
-                cachedSignaturePos = findSignatureBlock(level, dispenserPos, signatureBlock, machineId);
-                targetPos = cachedSignaturePos;
             }
-            
-            if (targetPos == null) {
-                BapelSlimefunMod.LOGGER.warn("[AutoClick] Signature block not found near {}", dispenserPos);
-                return; // Don't disable - might be temporary
+
+            for (Job job : dropped) {
+                finish(job);
             }
-            
-            // Perform right-click
-            boolean success = clickBlock(mc, player, level, targetPos);
-            
-            if (success) {
-                lastClickTime = now;
-                currentClickCount++;
-                
-                BapelSlimefunMod.LOGGER.info("[AutoClick] ✓ Click {}/{} on {} at {}", 
-                    currentClickCount, targetClickCount, cachedSignatureBlock, targetPos);
-                
-                player.displayClientMessage(
-                    Component.literal(String.format(
-                        "§a✓ Auto-Click: %d/%d",
-                        currentClickCount, targetClickCount
-                    )),
-                    true
-                );
-                
-                if (currentClickCount >= targetClickCount) {
-                    BapelSlimefunMod.LOGGER.info("[AutoClick] ✅ All clicks completed!");
-                    disable();
+
+            if (due.isEmpty()) {
+                return;
+            }
+
+            // Longest-waiting machines first, up to the per-tick click budget
+            due.sort((a, b) -> Long.compare(a.lastClickTick, b.lastClickTick));
+            int budget = getClicksPerServerTick();
+
+            for (int i = 0; i < due.size() && i < budget; i++) {
+                Job job = due.get(i);
+                if (!clickBlock(mc, player, level, job.triggerPos)) {
+                    continue;
                 }
+
+                job.lastClickTick = clientTick;
+                job.sent++;
+                job.unconfirmed++;
+                pending.addLast(new PendingClick(job, clientTick));
             }
-        
+
+            Job shown = due.get(0);
+            player.displayClientMessage(
+                Component.literal(jobs.size() == 1
+                    ? String.format("§a✓ Auto-Click: %d/%d §7(%d/s)",
+                        shown.confirmed, shown.targetClicks, getConfirmedPerSecond())
+                    : String.format("§a✓ Auto-Click: %d machines §7| %s | %d/s",
+                        jobs.size(), getProgressSummary(), getConfirmedPerSecond())),
+                true
+            );
+
         } finally {
-            PerformanceMonitor.end("AutoClicker.tick");
+            TIMER_TICK.end();
         }
     }
-    
+
     /**
-     * ✅ FIXED: Enhanced search with machine-specific logic
+     * Confirmation window from the player's ping: a failure answer arrives one
+     * round trip after the click, plus the server tick that processes it.
+     * Also keeps roundTripTicks for attributeFailure()
      */
-    private static BlockPos findSignatureBlock(Level level, BlockPos center, Block targetBlock, String machineId) {
-        // ✅ SPECIAL CASE: PRESSURE_CHAMBER - cauldron is 2 blocks below dispenser
-        if ("PRESSURE_CHAMBER".equals(machineId)) {
-            BlockPos cauldronPos = center.below(2); // Y-2
-            Block block = level.getBlockState(cauldronPos).getBlock();
-            if (isMatchingBlock(block, targetBlock)) {
-                return cauldronPos;
-            }
+    private static int measureConfirmTicks(Minecraft mc, LocalPlayer player) {
+        ClientPacketListener connection = mc.getConnection();
+        PlayerInfo info = connection != null ? connection.getPlayerInfo(player.getUUID()) : null;
+        if (info == null) {
+            roundTripTicks = DEFAULT_CONFIRM_TICKS / 2;
+            return DEFAULT_CONFIRM_TICKS;
         }
-        
-        // OPTIMIZATION: Check center first (most common case)
-        Block centerBlock = level.getBlockState(center).getBlock();
-        if (isMatchingBlock(centerBlock, targetBlock)) {
-            return center;
-        }
-        
-        // OPTIMIZATION: Search in order of most likely positions
-        // Check adjacent blocks first (6 directions)
-        for (Direction dir : Direction.values()) {
-            BlockPos pos = center.relative(dir);
-            Block block = level.getBlockState(pos).getBlock();
-            if (isMatchingBlock(block, targetBlock)) {
-                return pos;
-            }
-        }
-        
-        // Then check diagonal and corners (within 3x3x3)
-        for (int x = -1; x <= 1; x++) {
-            for (int y = -1; y <= 1; y++) {
-                for (int z = -1; z <= 1; z++) {
-                    if (x == 0 && y == 0 && z == 0) continue; // Skip center (already checked)
-                    
-                    // Skip direct adjacent (already checked)
-                    int absSum = Math.abs(x) + Math.abs(y) + Math.abs(z);
-                    if (absSum == 1) continue;
-                    
-                    BlockPos pos = center.offset(x, y, z);
-                    Block block = level.getBlockState(pos).getBlock();
-                    
-                    if (isMatchingBlock(block, targetBlock)) {
-                        return pos;
-                    }
-                }
-            }
-        }
-        
-        // ✅ EXTENDED SEARCH: For machines with signature blocks further away
-        // Check Y-2 and Y+2 explicitly (for vertical multiblocks)
-        BlockPos down2 = center.below(2);
-        if (isMatchingBlock(level.getBlockState(down2).getBlock(), targetBlock)) {
-            return down2;
-        }
-        
-        BlockPos up2 = center.above(2);
-        if (isMatchingBlock(level.getBlockState(up2).getBlock(), targetBlock)) {
-            return up2;
-        }
-        
-        return null;
+
+        roundTripTicks = (info.getLatency() + 49) / 50;
+        return Math.max(MIN_CONFIRM_TICKS, Math.min(MAX_CONFIRM_TICKS, roundTripTicks + 1 + CONFIRM_MARGIN_TICKS));
     }
-    
+
     /**
-     * OPTIMIZATION: Cached block type matching
+     * Clicks that got no failure answer within the confirmation window crafted something
      */
-    private static boolean isMatchingBlock(Block actual, Block target) {
-        if (actual == target) {
-            return true;
-        }
-        
-        // OPTIMIZATION: Use switch for faster lookup
-        String targetName = target.toString().toLowerCase();
-        String actualName = actual.toString().toLowerCase();
-        
-        if (targetName.contains("fence")) {
-            if (targetName.contains("nether")) {
-                return actualName.contains("nether") && actualName.contains("fence");
-            } else {
-                return actualName.contains("fence") && !actualName.contains("nether");
-            }
-        }
-        
-        if (target == Blocks.ANVIL) {
-            return actual == Blocks.ANVIL || 
-                   actual == Blocks.CHIPPED_ANVIL || 
-                   actual == Blocks.DAMAGED_ANVIL;
-        }
-        
-        if (target == Blocks.PISTON) {
-            return actual == Blocks.PISTON || actual == Blocks.STICKY_PISTON;
+    private static void confirmPending() {
+        while (!pending.isEmpty() && clientTick - pending.peekFirst().tick >= confirmTicks) {
+            PendingClick click = pending.pollFirst();
+            click.job.unconfirmed--;
+            click.job.confirmed++;
+            confirmedTicks.addLast(clientTick);
         }
-        
-        if (targetName.contains("cauldron")) {
-            return actualName.contains("cauldron");
+        while (!confirmedTicks.isEmpty() && clientTick - confirmedTicks.peekFirst() >= RATE_WINDOW_TICKS) {
+            confirmedTicks.pollFirst();
         }
-        
-        return false;
     }
-    
+
+    private static int getClicksPerServerTick() {
+        ModConfig config = BapelSlimefunMod.getConfig();
+        return config != null ? config.getClicksPerServerTick() : 1;
+    }
+
+    private static List<String> getFailurePhrases() {
+        ModConfig config = BapelSlimefunMod.getConfig();
+        return config != null ? config.getAutoClickFailurePhrases() : List.of();
+    }
+
     private static boolean clickBlock(Minecraft mc, LocalPlayer player, Level level, BlockPos pos) {
         try {
             Vec3 hitVec = Vec3.atCenterOf(pos);
@@ -325,11 +427,12 @@ public class MultiblockAutoClicker {
                 false
             );
             
-            mc.gameMode.useItemOn(
+            // Trigger clicks open nothing; keep them out of the container binding
+            InteractionTracker.runUntracked(() -> mc.gameMode.useItemOn(
                 player,
                 InteractionHand.MAIN_HAND,
                 hitResult
-            );
+            ));
             
             return true;
             
@@ -339,42 +442,6 @@ public class MultiblockAutoClicker {
         }
     }
     
-    private static Block getSignatureBlock(String machineId) {
-        switch (machineId.toUpperCase()) {
-            case "ARMOR_FORGE":
-                return Blocks.ANVIL;
-            case "GRIND_STONE":
-                return Blocks.OAK_FENCE;
-            case "MAGIC_WORKBENCH":
-                return Blocks.CRAFTING_TABLE;
-            case "ENHANCED_CRAFTING_TABLE":
-                return Blocks.CRAFTING_TABLE;
-            case "ORE_CRUSHER":
-                return Blocks.NETHER_BRICK_FENCE;
-            case "COMPRESSOR":
-                return Blocks.NETHER_BRICK_FENCE;
-            case "SMELTERY":
-                return Blocks.NETHER_BRICK_FENCE;
-            case "MAKESHIFT_SMELTERY":
-                return Blocks.OAK_FENCE;
-            case "PRESSURE_CHAMBER":
-                return Blocks.CAULDRON; // ✅ This is correct
-            case "ORE_WASHER":
-                return Blocks.OAK_FENCE;
-            case "AUTOMATED_PANNING_MACHINE":
-                return Blocks.CAULDRON;
-            case "JUICER":
-                return Blocks.GLASS;
-            case "ANCIENT_ALTAR":
-                return Blocks.ENCHANTING_TABLE;
-            case "TABLE_SAW":
-                return Blocks.SMOOTH_STONE_SLAB;
-            default:
-                BapelSlimefunMod.LOGGER.warn("[AutoClick] Unknown machine type: {}", machineId);
-                return null;
-        }
-    }
-    
     private static String getMachineName(String machineId) {
         if (machineId == null) return "Unknown";
         
@@ -393,24 +460,77 @@ public class MultiblockAutoClicker {
         
         return name.toString();
     }
-    
+
+    private static String getProgressSummary() {
+        int confirmed = 0;
+        int target = 0;
+        for (Job job : jobs.values()) {
+            confirmed += job.confirmed;
+            target += job.targetClicks;
+        }
+        return confirmed + "/" + target;
+    }
+
+    /**
+     * Confirmed crafts over the last second, all machines together
+     */
+    public static int getConfirmedPerSecond() {
+        return confirmedTicks.size();
+    }
+
+    /**
+     * True while any machine is being clicked
+     */
     public static boolean isEnabled() {
-        return autoClickEnabled;
+        return !jobs.isEmpty();
     }
-    
+
+    /**
+     * True while the machine whose dispenser is at {@code pos} is being clicked
+     */
+    public static boolean isRunningAt(BlockPos pos) {
+        return pos != null && jobs.containsKey(pos.asLong());
+    }
+
+    public static int getActiveCount() {
+        return jobs.size();
+    }
+
+    /**
+     * Confirmed crafts of the last finished run at {@code pos}
+     */
+    public static int getLastRunClicks(BlockPos pos) {
+        Job job = pos != null ? finished.get(pos.asLong()) : null;
+        return job != null ? job.confirmed : 0;
+    }
+
+    /**
+     * True if the last run at {@code pos} reached its target instead of being stopped
+     */
+    public static boolean wasLastRunCompleted(BlockPos pos) {
+        Job job = pos != null ? finished.get(pos.asLong()) : null;
+        return job != null && job.isCompleted();
+    }
+
     public static String getStatus() {
-        if (!autoClickEnabled) {
+        if (jobs.isEmpty()) {
             return "§7Disabled";
         }
-        
-        return String.format("§aEnabled §7| Machine: §f%s §7| Progress: §b%d§7/§b%d", 
-            getMachineName(machineId), currentClickCount, targetClickCount);
+
+        if (jobs.size() == 1) {
+            Job job = jobs.values().iterator().next();
+            return String.format("§aEnabled §7| Machine: §f%s §7| Progress: §b%d§7/§b%d §7| §b%d§7/s",
+                getMachineName(job.machineId), job.confirmed, job.targetClicks, getConfirmedPerSecond());
+        }
+
+        return String.format("§aEnabled §7| Machines: §b%d §7| Progress: §b%s §7| §b%d§7/s",
+            jobs.size(), getProgressSummary(), getConfirmedPerSecond());
     }
-    
+
     public static void forceStop() {
-        if (autoClickEnabled) {
+        if (!jobs.isEmpty()) {
             BapelSlimefunMod.LOGGER.info("[AutoClick] Force stopped by user");
-            
+
             Minecraft mc = Minecraft.getInstance();
             if (mc.player != null) {
                 mc.player.displayClientMessage(
@@ -418,8 +538,18 @@ public class MultiblockAutoClicker {
                     false
                 );
             }
-            
+
             disable();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Forget everything (disconnect)
+     */
+    public static void reset() {
+        jobs.clear();
+        finished.clear();
+        pending.clear();
+        confirmedTicks.clear();
+    }
+}
@@ -18,22 +18,33 @@ import java.util.*;
 import com.bapel_slimefun_mod.debug.PerformanceMonitor;
 
 /**
- * ✅ COMPLETE FIX: Clear dispenser when changing recipes + validate recipe before filling
+ * ✅ COMPLETE FIX: Re-arrange dispenser when changing recipes + validate recipe before filling
  */
 public class MultiblockAutomationHandler {
+    private static final PerformanceMonitor.Timer TIMER_TICK = PerformanceMonitor.timer("Automation.tick");
     
     private static final int SEARCH_RADIUS = 5;
     private static ModConfig config;
     private static String selectedRecipeId = null;
-    private static long lastProcessTime = 0;
     
-    private static int currentSlotIndex = 0;
     private static int emptySlotCount = 0;
     private static boolean allSlotsFilled = false;
     
     private static int calculatedClickCount = 0;
     private static boolean hasShownReadyMessage = false;
     
+    // Clicks avoided by ClickPlanner vs. the old 3-clicks-per-item filler
+    private static int packetsSaved = 0;
+    
+    // Crafts one balanced fill reaches with the current inventory (FillBalancer)
+    private static int craftsPerFill = 0;
+    
+    // Most crafts one fill may hold, 0 = no limit (ProductionLoop's remaining target)
+    private static int craftLimit = 0;
+    
+    // When the open dispenser was last evaluated (ProductionLoop waits for a fresh one)
+    private static long lastEvaluationTime = 0;
+    
     // ✅ NEW: Track current machine ID to detect machine changes
     private static String currentMachineId = null;
     
@@ -85,7 +96,7 @@ public class MultiblockAutomationHandler {
                                     !recipeId.equals(selectedRecipeId);
         
         if (isChangingRecipe) {
-            clearDispenserForNewRecipe();
+            relayoutDispenserForNewRecipe(recipeId);
             resetAutomationState(); // Reset only when changing
         }
         
@@ -103,9 +114,10 @@ public class MultiblockAutomationHandler {
     }
     
     /**
-     * ✅ NEW: Clear all items from dispenser when changing recipe
+     * ✅ Re-layout the dispenser for a new recipe: keep matching stacks, move
+     * misplaced ones directly, evict only what the new recipe doesn't use
      */
-    private static void clearDispenserForNewRecipe() {
+    private static void relayoutDispenserForNewRecipe(String newRecipeId) {
         try {
             Minecraft mc = Minecraft.getInstance();
             LocalPlayer player = mc.player;
@@ -118,29 +130,30 @@ public class MultiblockAutomationHandler {
                 return;
             }
             
-            int clearedCount = 0;
+            RecipeData recipe = RecipeDatabase.getRecipe(newRecipeId);
+            if (recipe == null) return;
             
-            // Clear all 9 dispenser slots
+            List<RecipeHandler.RecipeIngredient> paddedInputs = padInputsTo9(recipe.getInputs());
+            String[] targetIds = new String[9];
             for (int i = 0; i < 9; i++) {
-                ItemStack stack = menu.getSlot(i).getItem();
-                
-                if (!stack.isEmpty()) {
-                    mc.gameMode.handleInventoryMouseClick(
-                        menu.containerId, i, 0, ClickType.QUICK_MOVE, player
-                    );
-                    clearedCount++;
-                }
+                RecipeHandler.RecipeIngredient target = paddedInputs.get(i);
+                boolean empty = target.getItemId().equals("AIR") || target.getAmount() == 0;
+                targetIds[i] = empty ? null : target.getItemId();
             }
             
-            if (clearedCount > 0) {
-                player.displayClientMessage(
-                    Component.literal(String.format("§e⚠ Cleared %d items from dispenser", clearedCount)),
-                    true
-                );
-            }
+            ClickPlanner.Plan plan = ClickPlanner.planRelayout(menu, 9, player, targetIds);
+            if (plan.isEmpty()) return;
+            
+            ClickPlanner.execute(menu, plan);
+            
+            player.displayClientMessage(
+                Component.literal(String.format("§e⚠ Re-arranged dispenser: %d clicks §7(%d saved)",
+                    plan.size(), plan.getPacketsSaved())),
+                true
+            );
             
         } catch (Exception e) {
-            BapelSlimefunMod.LOGGER.error("[MultiblockAuto] Error clearing dispenser", e);
+            BapelSlimefunMod.LOGGER.error("[MultiblockAuto] Error re-arranging dispenser", e);
         }
     }
     
@@ -152,11 +165,40 @@ public class MultiblockAutomationHandler {
         return calculatedClickCount;
     }
     
+    public static int getPacketsSaved() {
+        return packetsSaved;
+    }
+    
+    /**
+     * Crafts a balanced fill reaches with the current inventory
+     */
+    public static int getCraftsPerFill() {
+        return craftsPerFill;
+    }
+    
+    /**
+     * True once the open dispenser holds a complete fill (ready to auto-click)
+     */
+    public static boolean isDispenserReady() {
+        return allSlotsFilled && calculatedClickCount > 0;
+    }
+    
+    public static long getLastEvaluationTime() {
+        return lastEvaluationTime;
+    }
+    
+    /**
+     * Cap the crafts of the next fills (0 = no limit)
+     */
+    public static void setCraftLimit(int limit) {
+        craftLimit = Math.max(0, limit);
+    }
+    
     /**
      * ✅ OPTIMIZED: Fast validation without logging spam
      */
     public static void tick(SlimefunMachineData machine) {
-        PerformanceMonitor.start("Automation.tick");
+        TIMER_TICK.start();
         try {
         if (machine == null || !machine.isMultiblock() || selectedRecipeId == null) {
             return;
@@ -191,27 +233,16 @@ public class MultiblockAutomationHandler {
             return;
         }
         
-        long now = System.currentTimeMillis();
-        long timeSinceLastProcess = now - lastProcessTime;
-        int delayMs = 25;
-        
-        if (timeSinceLastProcess < delayMs) {
-            return;
-        }
-        
+        // Pacing comes from TickScheduler (UnifiedAutomationManager.MACHINE_CHECK_TICKS)
         BlockPos dispenserPos = findNearbyDispenser(player, level);
         if (dispenserPos == null) {
             dispenserPos = player.blockPosition();
         }
         
-        boolean actionTaken = autoFillDispenserRoundRobin(player, level, dispenserPos, recipe);
-        
-        if (actionTaken) {
-            lastProcessTime = now;
-        }
+        autoFillDispenser(player, level, dispenserPos, recipe);
     
         } finally {
-            PerformanceMonitor.end("Automation.tick");
+            TIMER_TICK.end();
         }}
     
     private static BlockPos findNearbyDispenser(LocalPlayer player, Level level) {
@@ -231,15 +262,19 @@ public class MultiblockAutomationHandler {
     }
     
     /**
-     * ✅ FIXED: Auto-fill with FASTER round-robin (multiple slots per tick)
+     * ✅ Auto-fill via ClickPlanner (re-planned from the live menu every tick)
      */
-    private static boolean autoFillDispenserRoundRobin(LocalPlayer player, Level level, 
+    private static boolean autoFillDispenser(LocalPlayer player, Level level, 
                                                        BlockPos pos, RecipeData recipe) {
         if (!(player.containerMenu instanceof DispenserMenu)) {
             return false;
         }
         
-        Minecraft mc = Minecraft.getInstance();
+        // Previous plan still being sent: the menu is mid-change, evaluate once it is done
+        if (ClickPlanner.isExecuting()) {
+            return false;
+        }
+        
         AbstractContainerMenu menu = player.containerMenu;
         List<RecipeHandler.RecipeIngredient> inputs = recipe.getInputs();
         
@@ -252,8 +287,18 @@ public class MultiblockAutomationHandler {
         }
         
         // ✅ ALWAYS calculate click count
-        int previousClickCount = calculatedClickCount;
         calculatedClickCount = calculateClickCount(menu, paddedInputs);
+        if (craftLimit > 0) {
+            calculatedClickCount = Math.min(calculatedClickCount, craftLimit);
+        }
+        
+        // ✅ Balanced targets: every slot gets exactly what the reachable crafts need
+        FillBalancer.Result balance = FillBalancer.balance(menu, 9, paddedInputs, craftLimit);
+        int[] targetCounts = balance.getTargetCounts();
+        if (balance.getCraftsPerFill() != craftsPerFill) {
+            craftsPerFill = balance.getCraftsPerFill();
+            hasShownReadyMessage = false;
+        }
         
         // ✅ Check if dispenser is ready (all slots filled correctly)
         emptySlotCount = 0;
@@ -263,20 +308,21 @@ public class MultiblockAutomationHandler {
             RecipeHandler.RecipeIngredient target = paddedInputs.get(i);
             ItemStack currentStack = menu.getSlot(i).getItem();
             
-            boolean needsWork = needsWorkOnSlot(currentStack, target);
+            boolean needsWork = needsWorkOnSlot(currentStack, target, targetCounts[i]);
             
             if (needsWork) {
                 emptySlotCount++;
                 allSlotsFilled = false;
             }
         }
+        lastEvaluationTime = System.currentTimeMillis();
         
         // ✅ Show ready message only ONCE when dispenser becomes ready
         if (allSlotsFilled && calculatedClickCount > 0 && !hasShownReadyMessage) {
             player.displayClientMessage(
                 Component.literal(String.format(
-                    "§a✓ Dispenser ready! Can process §b%d §atimes",
-                    calculatedClickCount
+                    "§a✓ Dispenser ready! Can process §b%d §atimes §7(best possible: %d)",
+                    calculatedClickCount, craftsPerFill
                 )),
                 false
             );
@@ -286,8 +332,8 @@ public class MultiblockAutomationHandler {
                 true
             );
             
-            BapelSlimefunMod.LOGGER.info("[MultiblockAuto] ✓ Dispenser ready! Calculated {} clicks", 
-                calculatedClickCount);
+            BapelSlimefunMod.LOGGER.info("[MultiblockAuto] ✓ Dispenser ready! Calculated {} clicks, {} packets saved", 
+                calculatedClickCount, packetsSaved);
             
             hasShownReadyMessage = true;
             return false; // Stop filling
@@ -298,66 +344,29 @@ public class MultiblockAutomationHandler {
             hasShownReadyMessage = false;
         }
         
-        // ✅ FIXED ROUND-ROBIN: Process multiple slots per tick, evenly distributed
-        int actionsThisTick = 0;
-        int maxActionsPerTick = 5;
+        String[] targetIds = new String[9];
+        for (int i = 0; i < 9; i++) {
+            RecipeHandler.RecipeIngredient target = paddedInputs.get(i);
+            boolean empty = target.getItemId().equals("AIR") || target.getAmount() == 0;
+            targetIds[i] = empty ? null : target.getItemId();
+        }
         
-        for (int attempt = 0; attempt < 9 && actionsThisTick < maxActionsPerTick; attempt++) {
-            int slotIndex = (currentSlotIndex + attempt) % 9;
-            RecipeHandler.RecipeIngredient target = paddedInputs.get(slotIndex);
-            ItemStack currentStack = menu.getSlot(slotIndex).getItem();
-            String currentId = AutomationUtils.getItemId(currentStack);
-            
-            // CASE 1: Slot should be EMPTY (AIR)
-            if (target.getItemId().equals("AIR") || target.getAmount() == 0) {
-                if (!currentStack.isEmpty()) {
-                    // Remove wrong item
-                    mc.gameMode.handleInventoryMouseClick(menu.containerId, slotIndex, 0, 
-                                                         ClickType.QUICK_MOVE, player);
-                    
-                    actionsThisTick++;
-                    continue;
-                }
-                continue;
-            }
-            
-            // CASE 2: Slot needs a specific ITEM
-            boolean isSameItem = !currentStack.isEmpty() && currentId.equals(target.getItemId());
-            boolean needsRefill = currentStack.isEmpty() || 
-                                 (isSameItem && currentStack.getCount() < currentStack.getMaxStackSize());
-            
-            if (needsRefill) {
-                // A. If wrong item, remove it first
-                if (!currentStack.isEmpty() && !isSameItem) {
-                    mc.gameMode.handleInventoryMouseClick(menu.containerId, slotIndex, 0, 
-                                                         ClickType.QUICK_MOVE, player);
-                    actionsThisTick++;
-                    continue;
-                }
-                
-                // B. Find item in player inventory
-                int sourceSlot = findItemInPlayerInventory(menu, player, target.getItemId());
-                
-                if (sourceSlot != -1) {
-                    // Place 1 item at a time
-                    mc.gameMode.handleInventoryMouseClick(menu.containerId, sourceSlot, 0, 
-                                                         ClickType.PICKUP, player);
-                    mc.gameMode.handleInventoryMouseClick(menu.containerId, slotIndex, 1, 
-                                                         ClickType.PICKUP, player);
-                    mc.gameMode.handleInventoryMouseClick(menu.containerId, sourceSlot, 0, 
-                                                         ClickType.PICKUP, player);
-                    
-                    actionsThisTick++;
-                    continue;
-                }
-                
-                continue;
-            }
+        // ✅ Planned fill: whole layout in one short click sequence (drag / gather / swap),
+        // sent at most ClickPlanner.MAX_CLICKS_PER_TICK clicks per tick.
+        // Not even one craft available: still move misplaced / evict foreign items, load nothing
+        ClickPlanner.Plan plan = craftsPerFill == 0
+            ? ClickPlanner.planRelayout(menu, 9, player, targetIds)
+            : ClickPlanner.planFill(menu, 9, player, targetIds, targetCounts);
+        if (plan.isEmpty()) {
+            return false;
         }
         
-        currentSlotIndex = (currentSlotIndex + actionsThisTick) % 9;
+        ClickPlanner.execute(menu, plan);
+        if (craftsPerFill > 0) {
+            packetsSaved += plan.getPacketsSaved(); // relayout baseline assumes a refill
+        }
         
-        return actionsThisTick > 0;
+        return true;
     }
     
     /**
@@ -420,7 +429,8 @@ public class MultiblockAutomationHandler {
         return padded;
     }
     
-    private static boolean needsWorkOnSlot(ItemStack currentStack, RecipeHandler.RecipeIngredient target) {
+    private static boolean needsWorkOnSlot(ItemStack currentStack, RecipeHandler.RecipeIngredient target,
+                                           int targetCount) {
         String currentId = AutomationUtils.getItemId(currentStack);
         
         if ((target.getItemId().equals("AIR") || target.getAmount() == 0) && !currentStack.isEmpty()) {
@@ -436,7 +446,7 @@ public class MultiblockAutomationHandler {
                 return true;
             }
             
-            if (currentStack.getCount() < currentStack.getMaxStackSize()) {
+            if (currentStack.getCount() < targetCount) {
                 return true;
             }
         }
@@ -444,28 +454,9 @@ public class MultiblockAutomationHandler {
         return false;
     }
     
-    private static int findItemInPlayerInventory(AbstractContainerMenu menu, LocalPlayer player, 
-                                                 String targetItemId) {
-        int startSlot = 9;
-        int endSlot = menu.slots.size();
-        
-        for (int i = startSlot; i < endSlot; i++) {
-            Slot slot = menu.slots.get(i);
-            if (slot.hasItem()) {
-                ItemStack stack = slot.getItem();
-                String itemId = AutomationUtils.getItemId(stack);
-                
-                if (itemId.equals(targetItemId)) {
-                    return i;
-                }
-            }
-        }
-        
-        return -1;
-    }
-    
     private static void resetAutomationState() {
-        currentSlotIndex = 0;
+        packetsSaved = 0;
+        craftsPerFill = 0;
         emptySlotCount = 0;
         allSlotsFilled = false;
         calculatedClickCount = 0;
@@ -475,7 +466,6 @@ public class MultiblockAutomationHandler {
     public static void reset() {
         selectedRecipeId = null;
         currentMachineId = null;
-        lastProcessTime = 0;
         resetAutomationState();
     }
     
@@ -506,9 +496,9 @@ public class MultiblockAutomationHandler {
     }
     
     public static String getAutomationStatus() {
-        return String.format("Slot: %d/9 | Empty: %d | Filled: %s | Recipe: %s | Clicks: %d", 
-                           currentSlotIndex, emptySlotCount, allSlotsFilled, 
+        return String.format("Empty: %d | Filled: %s | Recipe: %s | Clicks: %d/%d | Saved: %d packets", 
+                           emptySlotCount, allSlotsFilled, 
                            selectedRecipeId != null ? selectedRecipeId : "NONE",
-                           calculatedClickCount);
+                           calculatedClickCount, craftsPerFill, packetsSaved);
     }
 }
\ No newline at end of file
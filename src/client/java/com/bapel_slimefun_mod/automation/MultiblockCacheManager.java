@@ -1,14 +1,21 @@
 package com.bapel_slimefun_mod.automation;
 
 import com.bapel_slimefun_mod.BapelSlimefunMod;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.bapel_slimefun_mod.automation.MultiblockMaterials.BlockMatcher;
+import com.bapel_slimefun_mod.config.PersistenceService;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
 
-import java.io.Reader;
-import java.io.Writer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -22,19 +29,281 @@ import com.bapel_slimefun_mod.debug.PerformanceMonitor;
  * Stores multiple multiblock machines with their positions
  * Automatically detects which machine user is near based on position
  * Persists across game sessions
+ * 
+ * LAYOUT:
+ * - Partitioned by WorldScope (server address + dimension), so equal
+ *   coordinates on different servers/dimensions never collide
+ * - Inside a partition machines are keyed by BlockPos.asLong() (O(1) lookup)
+ *   and bucketed by chunk for radius queries
+ * - Entries from the old unscoped file live in a "legacy" partition and are
+ *   adopted by the first world that detects the same machine at that position
+ * 
+ * PERSISTENCE:
+ * - multiblock_cache.json is a snapshot, multiblock_cache.journal an append-only
+ *   log of put/remove/clear records (one JSON object per line)
+ * - A mutation appends one record, so its disk cost does not grow with the cache
+ * - load() replays the journal over the snapshot; once the journal passes
+ *   COMPACT_THRESHOLD records a new snapshot is written in the background
+ * 
+ * VERIFICATION:
+ * - Entries loaded from disk (or whose chunk reloaded) start unverified
+ * - Verified entries register their footprint; a block update that breaks
+ *   any footprint block marks the entry dirty (see BlockUpdateMixin)
+ * - Unverified entries are re-checked in batches by MultiblockWorldScanner
+ *   or lazily via verifyNow() when their dispenser is opened
  */
 public class MultiblockCacheManager {
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final CachedMultiblockAdapter MACHINE_ADAPTER = new CachedMultiblockAdapter();
+    private static final JournalRecordAdapter RECORD_ADAPTER = new JournalRecordAdapter();
     private static final String CACHE_FILE = "multiblock_cache.json";
+    private static final String JOURNAL_FILE = "multiblock_cache.journal";
+    private static final int COMPACT_THRESHOLD = 512;
     // ✅ OPTIMIZED: Reduced detection radius for adjacent multiblock support
     // When exact position match fails, search within smaller radius
     // Old: 10 blocks - too large, caused confusion with distant multiblocks  
     // New: 3 blocks - only check immediate vicinity for better precision
     private static final int DETECTION_RADIUS = 3; // Blocks (for fallback only)
     
-    // Map: Position Key -> Cached Machine Data
-    private static final Map<String, CachedMultiblock> machineCache = new ConcurrentHashMap<>();
+    private static final int FILE_VERSION = 3;
+    private static final String LEGACY_SCOPE = "legacy";
+    
+    // Map: World scope -> partition
+    private static final Map<String, Partition> partitions = new ConcurrentHashMap<>();
     private static boolean isLoaded = false;
+    private static PersistenceService.Journal journal = null;
+    
+    private static final BlockMatcher DISPENSER_MATCHER = MultiblockMaterials.compile("DISPENSER");
+    
+    /**
+     * All machines of one world scope
+     */
+    private static final class Partition {
+        // Packed BlockPos -> machine
+        final Map<Long, CachedMultiblock> byPos = new ConcurrentHashMap<>();
+        // Packed ChunkPos -> machines whose dispenser is in that chunk (client thread only)
+        final Map<Long, List<CachedMultiblock>> byChunk = new HashMap<>();
+        // Packed BlockPos -> structure cells of verified machines (client thread only)
+        final Map<Long, List<FootprintCell>> footprintIndex = new HashMap<>();
+        
+        CachedMultiblock get(BlockPos pos) {
+            return byPos.get(pos.asLong());
+        }
+        
+        CachedMultiblock put(CachedMultiblock machine) {
+            CachedMultiblock previous = byPos.put(machine.getPosition().asLong(), machine);
+            if (previous != null) {
+                unbucket(previous);
+            }
+            byChunk.computeIfAbsent(chunkKey(machine.getPosition()), k -> new ArrayList<>(2)).add(machine);
+            return previous;
+        }
+        
+        CachedMultiblock remove(BlockPos pos) {
+            CachedMultiblock removed = byPos.remove(pos.asLong());
+            if (removed != null) {
+                unbucket(removed);
+            }
+            return removed;
+        }
+        
+        void clear() {
+            byPos.clear();
+            byChunk.clear();
+            footprintIndex.clear();
+        }
+        
+        private void unbucket(CachedMultiblock machine) {
+            long key = chunkKey(machine.getPosition());
+            List<CachedMultiblock> bucket = byChunk.get(key);
+            if (bucket == null) return;
+            bucket.remove(machine);
+            if (bucket.isEmpty()) {
+                byChunk.remove(key);
+            }
+        }
+    }
+    
+    /**
+     * One journal line. Records carry full values, so replaying them is idempotent.
+     */
+    private static final class JournalRecord {
+        static final String PUT = "put";
+        static final String REMOVE = "remove";
+        static final String CLEAR = "clear";
+        
+        String op;
+        String scope;
+        CachedMultiblock machine; // PUT
+        long pos;                 // REMOVE (BlockPos.asLong)
+    }
+    
+    /**
+     * Streaming format of one machine:
+     * {"id":"SMELTERY","name":"Smeltery","pos":[x,y,z],"time":123,"recipe":"..."}
+     * Also reads the old reflective layout (machineId/machineName/position/...),
+     * where the BlockPos object's field names depend on the mappings - its three
+     * ints are taken in declaration order (x, y, z).
+     */
+    private static final class CachedMultiblockAdapter extends TypeAdapter<CachedMultiblock> {
+        @Override
+        public void write(JsonWriter out, CachedMultiblock machine) throws IOException {
+            BlockPos pos = machine.getPosition();
+            out.beginObject();
+            out.name("id").value(machine.getMachineId());
+            out.name("name").value(machine.getMachineName());
+            out.name("pos").beginArray().value(pos.getX()).value(pos.getY()).value(pos.getZ()).endArray();
+            out.name("time").value(machine.getConstructedTime());
+            if (machine.getLastSelectedRecipe() != null) {
+                out.name("recipe").value(machine.getLastSelectedRecipe());
+            }
+            if (machine.triggerOffset != null) {
+                BlockPos trigger = machine.triggerOffset;
+                out.name("trigger").beginArray().value(trigger.getX()).value(trigger.getY()).value(trigger.getZ()).endArray();
+            }
+            if (machine.getOutputPos() != null) {
+                BlockPos output = machine.getOutputPos();
+                out.name("output").beginArray().value(output.getX()).value(output.getY()).value(output.getZ()).endArray();
+            }
+            out.endObject();
+        }
+        
+        @Override
+        public CachedMultiblock read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            
+            String machineId = null;
+            String machineName = null;
+            int[] xyz = null;
+            long time = 0L;
+            String recipe = null;
+            int[] output = null;
+            int[] trigger = null;
+            
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "id":
+                    case "machineId":
+                        machineId = in.nextString();
+                        break;
+                    case "name":
+                    case "machineName":
+                        machineName = in.nextString();
+                        break;
+                    case "pos":
+                    case "position":
+                        xyz = readPosition(in);
+                        break;
+                    case "time":
+                    case "constructedTime":
+                        time = in.nextLong();
+                        break;
+                    case "recipe":
+                    case "lastSelectedRecipe":
+                        recipe = in.nextString();
+                        break;
+                    case "output":
+                        output = readPosition(in);
+                        break;
+                    case "trigger":
+                        trigger = readPosition(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            
+            if (machineId == null || xyz == null) return null;
+            CachedMultiblock machine = new CachedMultiblock(machineId, machineName != null ? machineName : machineId,
+                new BlockPos(xyz[0], xyz[1], xyz[2]), time, recipe);
+            if (output != null) {
+                machine.outputPos = new BlockPos(output[0], output[1], output[2]);
+            }
+            if (trigger != null) {
+                machine.triggerOffset = new BlockPos(trigger[0], trigger[1], trigger[2]);
+            }
+            return machine;
+        }
+        
+        private static int[] readPosition(JsonReader in) throws IOException {
+            int[] xyz = new int[3];
+            int count = 0;
+            boolean object = in.peek() == JsonToken.BEGIN_OBJECT;
+            
+            if (object) in.beginObject(); else in.beginArray();
+            while (in.hasNext()) {
+                if (object) in.nextName();
+                if (count < 3 && in.peek() == JsonToken.NUMBER) {
+                    xyz[count++] = in.nextInt();
+                } else {
+                    in.skipValue();
+                }
+            }
+            if (object) in.endObject(); else in.endArray();
+            
+            return count == 3 ? xyz : null;
+        }
+    }
+    
+    /**
+     * Journal line: {"op":"put","scope":"...","machine":{...}} / {"op":"remove","scope":"...","pos":123}
+     */
+    private static final class JournalRecordAdapter extends TypeAdapter<JournalRecord> {
+        @Override
+        public void write(JsonWriter out, JournalRecord record) throws IOException {
+            out.beginObject();
+            out.name("op").value(record.op);
+            out.name("scope").value(record.scope);
+            if (record.machine != null) {
+                out.name("machine");
+                MACHINE_ADAPTER.write(out, record.machine);
+            }
+            if (JournalRecord.REMOVE.equals(record.op)) {
+                out.name("pos").value(record.pos);
+            }
+            out.endObject();
+        }
+        
+        @Override
+        public JournalRecord read(JsonReader in) throws IOException {
+            JournalRecord record = new JournalRecord();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "op": record.op = in.nextString(); break;
+                    case "scope": record.scope = in.nextString(); break;
+                    case "machine": record.machine = MACHINE_ADAPTER.read(in); break;
+                    case "pos": record.pos = in.nextLong(); break;
+                    default: in.skipValue(); break;
+                }
+            }
+            in.endObject();
+            return record;
+        }
+    }
+    
+    /**
+     * One block of a verified machine's footprint
+     */
+    private static final class FootprintCell {
+        final CachedMultiblock machine;
+        final BlockMatcher matcher;
+        
+        FootprintCell(CachedMultiblock machine, BlockMatcher matcher) {
+            this.machine = machine;
+            this.matcher = matcher;
+        }
+    }
     
     /**
      * Data class for cached multiblock
@@ -45,13 +314,25 @@ public class MultiblockCacheManager {
         private final BlockPos position;
         private final long constructedTime;
         private String lastSelectedRecipe;
+        private BlockPos outputPos; // learned output container next to the dispenser
+        private BlockPos triggerOffset; // block to right-click, relative to the dispenser
+        
+        // Runtime-only verification state (not persisted)
+        private transient boolean verified;
+        private transient MultiblockDetector.Template footprint;
+        private transient int changeCount;
         
         public CachedMultiblock(String machineId, String machineName, BlockPos position) {
+            this(machineId, machineName, position, System.currentTimeMillis(), null);
+        }
+        
+        private CachedMultiblock(String machineId, String machineName, BlockPos position,
+                                 long constructedTime, String lastSelectedRecipe) {
             this.machineId = machineId;
             this.machineName = machineName;
-            this.position = position;
-            this.constructedTime = System.currentTimeMillis();
-            this.lastSelectedRecipe = null;
+            this.position = position.immutable();
+            this.constructedTime = constructedTime;
+            this.lastSelectedRecipe = lastSelectedRecipe;
         }
         
         public String getMachineId() { 
@@ -78,6 +359,42 @@ public class MultiblockCacheManager {
             this.lastSelectedRecipe = recipeId;
         }
         
+        /**
+         * Absolute position of the block that runs the machine when right-clicked
+         * (null until the structure was matched against a template once)
+         */
+        public BlockPos getTriggerPos() {
+            return triggerOffset != null ? position.offset(triggerOffset) : null;
+        }
+        
+        /**
+         * Output container the machine drops its results into (null = not learned / none)
+         */
+        public BlockPos getOutputPos() {
+            return outputPos;
+        }
+        
+        /**
+         * True once the structure was confirmed in the current world and nothing in it changed since
+         */
+        public boolean isVerified() {
+            return verified;
+        }
+        
+        /**
+         * Template that matched during the last verification (null while unverified)
+         */
+        public MultiblockDetector.Template getFootprint() {
+            return footprint;
+        }
+        
+        /**
+         * Bumped every time the entry is invalidated; lets async verifications detect staleness
+         */
+        public int getChangeCount() {
+            return changeCount;
+        }
+        
         @Override
         public String toString() {
             return String.format("%s at [%d, %d, %d]", 
@@ -86,91 +403,325 @@ public class MultiblockCacheManager {
     }
     
     /**
-     * Load cache from file
+     * Load cache from file (understands the old unscoped "x,y,z" map)
      */
     public static void load() {
         Path cachePath = getCachePath();
         
         if (Files.exists(cachePath)) {
-            try (Reader reader = Files.newBufferedReader(cachePath)) {
-                Map<String, CachedMultiblock> loaded = GSON.fromJson(reader, 
-                    new TypeToken<Map<String, CachedMultiblock>>(){}.getType());
-                
-                if (loaded != null) {
-                    machineCache.putAll(loaded);
-                }
-                
-                isLoaded = true;
-                return;
+            try (JsonReader reader = new JsonReader(Files.newBufferedReader(cachePath))) {
+                readSnapshot(reader);
             } catch (Exception e) {
                 BapelSlimefunMod.LOGGER.error("[MultiblockCache] Failed to load cache", e);
             }
         }
         
+        int replayed = replayJournal();
+        journal = PersistenceService.journal(getJournalPath(), replayed);
         isLoaded = true;
+        
+        if (replayed >= COMPACT_THRESHOLD || partitions.containsKey(LEGACY_SCOPE)) {
+            save();
+        }
     }
     
     /**
-     * Save cache to file
+     * Snapshot: {"version":3,"partitions":{"scope":[machine,...]}}
+     * Any other top-level key is an entry of the old unscoped "x,y,z" → machine map.
      */
-    public static void save() {
-        if (!isLoaded) return;
+    private static void readSnapshot(JsonReader in) throws IOException {
+        int migrated = 0;
         
-        Path cachePath = getCachePath();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (name.equals("version")) {
+                in.skipValue();
+            } else if (name.equals("partitions") && in.peek() == JsonToken.BEGIN_OBJECT) {
+                in.beginObject();
+                while (in.hasNext()) {
+                    Partition partition = partition(in.nextName());
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        CachedMultiblock machine = MACHINE_ADAPTER.read(in);
+                        if (machine != null) {
+                            partition.put(machine);
+                        }
+                    }
+                    in.endArray();
+                }
+                in.endObject();
+            } else if (in.peek() == JsonToken.BEGIN_OBJECT) {
+                CachedMultiblock machine = MACHINE_ADAPTER.read(in);
+                if (machine != null) {
+                    partition(LEGACY_SCOPE).put(machine);
+                    migrated++;
+                }
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
         
-        try {
-            Files.createDirectories(cachePath.getParent());
-            
-            try (Writer writer = Files.newBufferedWriter(cachePath)) {
-                GSON.toJson(machineCache, writer);
+        if (migrated > 0) {
+            BapelSlimefunMod.LOGGER.info("[MultiblockCache] Migrated {} unscoped entries", migrated);
+        }
+    }
+    
+    /**
+     * Apply journal records written after the snapshot
+     * @return number of records applied
+     */
+    private static int replayJournal() {
+        Path journalPath = getJournalPath();
+        if (!Files.exists(journalPath)) return 0;
+        
+        int applied = 0;
+        try (BufferedReader reader = Files.newBufferedReader(journalPath)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                
+                JournalRecord record;
+                try {
+                    record = RECORD_ADAPTER.fromJson(line);
+                } catch (Exception e) {
+                    // Torn last line after a crash
+                    BapelSlimefunMod.LOGGER.warn("[MultiblockCache] Skipping unreadable journal record");
+                    continue;
+                }
+                
+                if (record != null && record.op != null && record.scope != null) {
+                    apply(record);
+                    applied++;
+                }
             }
         } catch (Exception e) {
-            BapelSlimefunMod.LOGGER.error("[MultiblockCache] Failed to save cache", e);
+            BapelSlimefunMod.LOGGER.error("[MultiblockCache] Failed to replay journal", e);
+        }
+        
+        if (applied > 0) {
+            BapelSlimefunMod.LOGGER.info("[MultiblockCache] Replayed {} journal records", applied);
+        }
+        return applied;
+    }
+    
+    private static void apply(JournalRecord record) {
+        switch (record.op) {
+            case JournalRecord.PUT:
+                if (record.machine != null) {
+                    partition(record.scope).put(record.machine);
+                }
+                break;
+            case JournalRecord.REMOVE: {
+                Partition partition = partitions.get(record.scope);
+                if (partition != null) {
+                    partition.remove(BlockPos.of(record.pos));
+                }
+                break;
+            }
+            case JournalRecord.CLEAR: {
+                Partition partition = partitions.get(record.scope);
+                if (partition != null) {
+                    partition.clear();
+                }
+                break;
+            }
+            default:
+                break;
+        }
+    }
+    
+    private static void recordPut(String scope, CachedMultiblock machine) {
+        JournalRecord record = new JournalRecord();
+        record.op = JournalRecord.PUT;
+        record.scope = scope;
+        record.machine = machine;
+        append(record);
+    }
+    
+    private static void recordRemove(String scope, BlockPos position) {
+        JournalRecord record = new JournalRecord();
+        record.op = JournalRecord.REMOVE;
+        record.scope = scope;
+        record.pos = position.asLong();
+        append(record);
+    }
+    
+    private static void recordClear(String scope) {
+        JournalRecord record = new JournalRecord();
+        record.op = JournalRecord.CLEAR;
+        record.scope = scope;
+        append(record);
+    }
+    
+    private static void append(JournalRecord record) {
+        if (journal == null) return;
+        
+        // Serialized now: the machine may change again before the writer runs
+        journal.append(RECORD_ADAPTER.toJson(record));
+        if (journal.size() >= COMPACT_THRESHOLD) {
+            save();
+        }
+    }
+    
+    /**
+     * Write a full snapshot and truncate the journal (background compaction).
+     * Single changes are persisted through journal records instead.
+     */
+    public static void save() {
+        if (!isLoaded || journal == null) return;
+        journal.compact(getCachePath(), MultiblockCacheManager::serialize);
+    }
+    
+    /**
+     * Runs on the persistence thread; byPos maps are concurrent
+     */
+    private static String serialize() {
+        StringWriter buffer = new StringWriter();
+        try (JsonWriter out = new JsonWriter(buffer)) {
+            out.beginObject();
+            out.name("version").value(FILE_VERSION);
+            out.name("partitions");
+            out.beginObject();
+            for (Map.Entry<String, Partition> entry : new TreeMap<>(partitions).entrySet()) {
+                if (entry.getValue().byPos.isEmpty()) continue;
+                
+                out.name(entry.getKey());
+                out.beginArray();
+                for (CachedMultiblock machine : entry.getValue().byPos.values()) {
+                    MACHINE_ADAPTER.write(out, machine);
+                }
+                out.endArray();
+            }
+            out.endObject();
+            out.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        return buffer.toString();
     }
     
     /**
      * Add machine to cache (called when "successfully constructed" appears)
      */
     public static void addMachine(SlimefunMachineData machine, BlockPos position) {
+        addMachine(machine, position, null);
+    }
+    
+    /**
+     * Add machine with the template it was just detected with (entry starts verified)
+     */
+    public static void addMachine(SlimefunMachineData machine, BlockPos position, MultiblockDetector.Template template) {
         if (!isLoaded) load();
         
-        String posKey = getPositionKey(position);
-        CachedMultiblock cached = new CachedMultiblock(
-            machine.getId(), 
-            machine.getName(), 
-            position
-        );
+        String scope = WorldScope.current();
+        if (scope == null) return;
         
-        machineCache.put(posKey, cached);
-        save();
+        Partition partition = partition(scope);
+        CachedMultiblock cached = newEntry(machine, position);
+        
+        CachedMultiblock previous = partition.put(cached);
+        if (previous != null) {
+            unregisterFootprint(partition, previous);
+        }
+        if (template != null) {
+            markVerified(partition, cached, template);
+        }
+        recordPut(scope, cached);
+    }
+    
+    /**
+     * Add several detected machines at once (background scanner).
+     * Positions that are already cached are left untouched.
+     * @param scope world scope the results were captured in
+     * @return number of machines actually added
+     */
+    public static int addMachines(String scope, Collection<MultiblockDetector.DetectionResult> results) {
+        if (!isLoaded) load();
+        if (scope == null) return 0;
+        
+        Partition partition = partition(scope);
+        int added = 0;
+        for (MultiblockDetector.DetectionResult result : results) {
+            SlimefunMachineData machine = SlimefunDataLoader.getMultiblockById(result.getMachineId());
+            if (machine == null) continue;
+            
+            BlockPos position = result.getDispenserPos();
+            if (partition.get(position) != null) continue;
+            
+            CachedMultiblock cached = newEntry(machine, position);
+            partition.put(cached);
+            if (result.getTemplate() != null) {
+                markVerified(partition, cached, result.getTemplate());
+            }
+            recordPut(scope, cached);
+            added++;
+        }
+        
+        return added;
+    }
+    
+    /**
+     * New entry for a freshly detected machine. If the unscoped legacy cache had the
+     * same machine at this position, its recipe and age are carried over.
+     */
+    private static CachedMultiblock newEntry(SlimefunMachineData machine, BlockPos position) {
+        Partition legacy = partitions.get(LEGACY_SCOPE);
+        if (legacy != null) {
+            CachedMultiblock old = legacy.get(position);
+            if (old != null && machine.getId().equals(old.getMachineId())) {
+                legacy.remove(position);
+                recordRemove(LEGACY_SCOPE, position);
+                if (legacy.byPos.isEmpty()) {
+                    partitions.remove(LEGACY_SCOPE);
+                }
+                return new CachedMultiblock(machine.getId(), machine.getName(), position,
+                    old.getConstructedTime(), old.getLastSelectedRecipe());
+            }
+        }
+        return new CachedMultiblock(machine.getId(), machine.getName(), position);
     }
     
     /**
      * ✅ IMPROVED: Find nearest machine with exact position priority
-     * First tries exact match, then searches within small radius
+     * First tries exact match, then searches the chunk buckets within a small radius
      */
     public static CachedMultiblock findNearestMachine(BlockPos playerPos) {
         if (!isLoaded) load();
         
+        Partition partition = currentPartition();
+        if (partition == null) return null;
+        
         // ✅ STEP 1: Try exact position match first (most accurate)
-        String exactKey = getPositionKey(playerPos);
-        CachedMultiblock exact = machineCache.get(exactKey);
+        CachedMultiblock exact = partition.get(playerPos);
         if (exact != null) {
             return exact;
         }
         
-        // ✅ STEP 2: Search within reduced radius (only immediate neighbors)
+        // ✅ STEP 2: Search within reduced radius (only buckets of neighbouring chunks)
         // This prevents confusion when multiple multiblocks are placed close together
         CachedMultiblock nearest = null;
         double nearestDistance = Double.MAX_VALUE;
         
-        for (CachedMultiblock machine : machineCache.values()) {
-            double distance = playerPos.distSqr(machine.getPosition());
-            
-            if (distance < nearestDistance && distance <= (DETECTION_RADIUS * DETECTION_RADIUS)) {
-                nearest = machine;
-                nearestDistance = distance;
+        int minChunkX = (playerPos.getX() - DETECTION_RADIUS) >> 4;
+        int maxChunkX = (playerPos.getX() + DETECTION_RADIUS) >> 4;
+        int minChunkZ = (playerPos.getZ() - DETECTION_RADIUS) >> 4;
+        int maxChunkZ = (playerPos.getZ() + DETECTION_RADIUS) >> 4;
+        
+        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+                List<CachedMultiblock> bucket = partition.byChunk.get(ChunkPos.asLong(cx, cz));
+                if (bucket == null) continue;
+                
+                for (CachedMultiblock machine : bucket) {
+                    double distance = playerPos.distSqr(machine.getPosition());
+                    
+                    if (distance < nearestDistance && distance <= (DETECTION_RADIUS * DETECTION_RADIUS)) {
+                        nearest = machine;
+                        nearestDistance = distance;
+                    }
+                }
             }
         }
         
@@ -183,27 +734,46 @@ public class MultiblockCacheManager {
     }
     
     /**
-     * Get machine at specific position (exact match)
+     * Get machine at specific position (exact match, current world)
      */
     public static CachedMultiblock getMachineAt(BlockPos position) {
+        return getMachineAt(WorldScope.current(), position);
+    }
+    
+    /**
+     * Get machine at specific position in a given world scope
+     */
+    public static CachedMultiblock getMachineAt(String scope, BlockPos position) {
         if (!isLoaded) load();
+        if (scope == null) return null;
         
-        String posKey = getPositionKey(position);
-        return machineCache.get(posKey);
+        Partition partition = partitions.get(scope);
+        return partition != null ? partition.get(position) : null;
     }
     
     /**
      * Update last selected recipe for a machine
      */
     public static void updateRecipe(BlockPos position, String recipeId) {
-        if (!isLoaded) load();
-        
-        String posKey = getPositionKey(position);
-        CachedMultiblock machine = machineCache.get(posKey);
+        String scope = WorldScope.current();
+        CachedMultiblock machine = getMachineAt(scope, position);
         
         if (machine != null) {
             machine.setLastSelectedRecipe(recipeId);
-            save();
+            recordPut(scope, machine);
+        }
+    }
+    
+    /**
+     * Remember (or forget, with null) the output container of a machine
+     */
+    public static void updateOutputPos(BlockPos position, BlockPos outputPos) {
+        String scope = WorldScope.current();
+        CachedMultiblock machine = getMachineAt(scope, position);
+        
+        if (machine != null && !Objects.equals(machine.outputPos, outputPos)) {
+            machine.outputPos = outputPos != null ? outputPos.immutable() : null;
+            recordPut(scope, machine);
         }
     }
     
@@ -211,43 +781,229 @@ public class MultiblockCacheManager {
      * Remove machine from cache
      */
     public static void removeMachine(BlockPos position) {
+        removeMachine(WorldScope.current(), position);
+    }
+    
+    private static void removeMachine(String scope, BlockPos position) {
         if (!isLoaded) load();
+        if (scope == null) return;
         
-        String posKey = getPositionKey(position);
-        CachedMultiblock removed = machineCache.remove(posKey);
+        Partition partition = partitions.get(scope);
+        if (partition == null) return;
+        
+        CachedMultiblock removed = partition.remove(position);
         
         if (removed != null) {
-            save();
+            unregisterFootprint(partition, removed);
+            recordRemove(scope, position);
         }
     }
     
     /**
-     * Clear all cached machines
+     * Clear all cached machines of the current world
      */
     public static void clearAll() {
         if (!isLoaded) load();
         
-        machineCache.clear();
-        save();
+        String scope = WorldScope.current();
+        Partition partition = scope != null ? partitions.get(scope) : null;
+        if (partition == null) return;
+        
+        partition.clear();
+        recordClear(scope);
+    }
+    
+    // ========================================
+    // VERIFICATION
+    // ========================================
+    
+    /**
+     * Block update from the server (client thread). Marks every verified machine
+     * whose footprint no longer accepts the new block as dirty.
+     */
+    public static void onBlockChanged(BlockPos pos, BlockState newState) {
+        Partition partition = currentPartition();
+        if (partition == null || partition.footprintIndex.isEmpty()) return;
+        
+        List<FootprintCell> cells = partition.footprintIndex.get(pos.asLong());
+        if (cells == null) return;
+        
+        // Copy: markDirty() mutates the index
+        for (FootprintCell cell : new ArrayList<>(cells)) {
+            if (!cell.matcher.matches(newState.getBlock())) {
+                markDirty(partition, cell.machine);
+                BapelSlimefunMod.LOGGER.info("[MultiblockCache] {} changed at {}, re-verify pending",
+                    cell.machine.getMachineName(), pos);
+            }
+        }
+    }
+    
+    /**
+     * Invalidate an entry of the current world; it will be re-verified before being trusted again
+     */
+    public static void markDirty(CachedMultiblock machine) {
+        Partition partition = currentPartition();
+        if (machine == null || partition == null) return;
+        markDirty(partition, machine);
+    }
+    
+    private static void markDirty(Partition partition, CachedMultiblock machine) {
+        unregisterFootprint(partition, machine);
+        machine.verified = false;
+        machine.changeCount++;
+    }
+    
+    /**
+     * Apply a detection result to the entry at {@code position} in {@code scope}.
+     * Same machine → verified, different machine → replaced, nothing → removed.
+     * @return the entry now cached at the position, or null
+     */
+    public static CachedMultiblock applyVerification(String scope, BlockPos position,
+                                                     MultiblockDetector.DetectionResult result) {
+        if (!isLoaded) load();
+        
+        Partition partition = scope != null ? partitions.get(scope) : null;
+        CachedMultiblock cached = partition != null ? partition.get(position) : null;
+        if (cached == null) return null;
+        
+        if (result == null) {
+            BapelSlimefunMod.LOGGER.info("[MultiblockCache] {} at {} no longer exists, removing",
+                cached.getMachineName(), position);
+            removeMachine(scope, position);
+            return null;
+        }
+        
+        if (!result.getMachineId().equals(cached.getMachineId())) {
+            SlimefunMachineData machine = SlimefunDataLoader.getMultiblockById(result.getMachineId());
+            if (machine == null) {
+                removeMachine(scope, position);
+                return null;
+            }
+            BapelSlimefunMod.LOGGER.info("[MultiblockCache] {} at {} is now {}",
+                cached.getMachineName(), position, machine.getName());
+            
+            CachedMultiblock replacement = new CachedMultiblock(machine.getId(), machine.getName(), position);
+            unregisterFootprint(partition, cached);
+            partition.put(replacement);
+            markVerified(partition, replacement, result.getTemplate());
+            recordPut(scope, replacement);
+            return replacement;
+        }
+        
+        if (markVerified(partition, cached, result.getTemplate())) {
+            recordPut(scope, cached); // trigger learned or moved
+        }
+        return cached;
+    }
+    
+    /**
+     * Synchronously re-detect an unverified entry (used when its dispenser is opened)
+     */
+    public static CachedMultiblock verifyNow(Level level, BlockPos position) {
+        String scope = WorldScope.current();
+        CachedMultiblock cached = getMachineAt(scope, position);
+        if (cached == null || cached.isVerified() || level == null) return cached;
+        
+        return applyVerification(scope, position, MultiblockDetector.detect(level, position));
+    }
+    
+    /**
+     * Block to right-click to run the machine at {@code position}. Verified entries
+     * answer from the stored offset; unverified ones are re-detected once first.
+     * @return null if no complete machine is cached there
+     */
+    public static BlockPos resolveTriggerPos(Level level, BlockPos position) {
+        CachedMultiblock cached = verifyNow(level, position);
+        return cached != null && cached.isVerified() ? cached.getTriggerPos() : null;
+    }
+    
+    /**
+     * Cached machines of the current world whose dispenser lies in the given chunk
+     */
+    public static List<CachedMultiblock> getMachinesInChunk(int chunkX, int chunkZ) {
+        if (!isLoaded) load();
+        
+        Partition partition = currentPartition();
+        if (partition == null) return Collections.emptyList();
+        
+        List<CachedMultiblock> bucket = partition.byChunk.get(ChunkPos.asLong(chunkX, chunkZ));
+        return bucket != null ? new ArrayList<>(bucket) : Collections.emptyList();
     }
     
     /**
-     * Get all cached machines
+     * @return true if the persisted trigger offset changed
+     */
+    private static boolean markVerified(Partition partition, CachedMultiblock machine, MultiblockDetector.Template template) {
+        unregisterFootprint(partition, machine);
+        machine.verified = true;
+        machine.footprint = template;
+        
+        if (template == null) return false;
+        
+        BlockPos trigger = template.getTriggerOffset();
+        boolean triggerChanged = trigger != null && !trigger.equals(machine.triggerOffset);
+        if (triggerChanged) {
+            machine.triggerOffset = trigger;
+        }
+        
+        BlockPos origin = machine.getPosition();
+        registerCell(partition, origin.asLong(), machine, DISPENSER_MATCHER);
+        for (int i = 0; i < template.getCellCount(); i++) {
+            long key = BlockPos.asLong(
+                origin.getX() + template.getDx(i),
+                origin.getY() + template.getDy(i),
+                origin.getZ() + template.getDz(i));
+            registerCell(partition, key, machine, template.getMatcher(i));
+        }
+        return triggerChanged;
+    }
+    
+    private static void registerCell(Partition partition, long key, CachedMultiblock machine, BlockMatcher matcher) {
+        partition.footprintIndex.computeIfAbsent(key, k -> new ArrayList<>(1)).add(new FootprintCell(machine, matcher));
+    }
+    
+    private static void unregisterFootprint(Partition partition, CachedMultiblock machine) {
+        MultiblockDetector.Template template = machine.footprint;
+        if (template == null) return;
+        machine.footprint = null;
+        
+        BlockPos origin = machine.getPosition();
+        unregisterCell(partition, origin.asLong(), machine);
+        for (int i = 0; i < template.getCellCount(); i++) {
+            unregisterCell(partition, BlockPos.asLong(
+                origin.getX() + template.getDx(i),
+                origin.getY() + template.getDy(i),
+                origin.getZ() + template.getDz(i)), machine);
+        }
+    }
+    
+    private static void unregisterCell(Partition partition, long key, CachedMultiblock machine) {
+        List<FootprintCell> cells = partition.footprintIndex.get(key);
+        if (cells == null) return;
+        cells.removeIf(cell -> cell.machine == machine);
+        if (cells.isEmpty()) {
+            partition.footprintIndex.remove(key);
+        }
+    }
+    
+    /**
+     * Get all cached machines of the current world
      */
     public static Collection<CachedMultiblock> getAllMachines() {
         if (!isLoaded) load();
-        return new ArrayList<>(machineCache.values());
+        Partition partition = currentPartition();
+        return partition != null ? new ArrayList<>(partition.byPos.values()) : new ArrayList<>();
     }
     
     /**
-     * Get cache statistics
+     * Get cache statistics (current world)
      */
     public static Map<String, Integer> getStatistics() {
         if (!isLoaded) load();
         
         Map<String, Integer> stats = new HashMap<>();
         
-        for (CachedMultiblock machine : machineCache.values()) {
+        for (CachedMultiblock machine : getAllMachines()) {
             stats.merge(machine.getMachineId(), 1, Integer::sum);
         }
         
@@ -255,18 +1011,37 @@ public class MultiblockCacheManager {
     }
     
     /**
-     * Get cache size
+     * Get cache size (current world)
      */
     public static int size() {
         if (!isLoaded) load();
-        return machineCache.size();
+        Partition partition = currentPartition();
+        return partition != null ? partition.byPos.size() : 0;
     }
     
     /**
-     * Convert BlockPos to unique string key
+     * Number of cached machines across every world
      */
-    private static String getPositionKey(BlockPos pos) {
-        return String.format("%d,%d,%d", pos.getX(), pos.getY(), pos.getZ());
+    public static int totalSize() {
+        if (!isLoaded) load();
+        int total = 0;
+        for (Partition partition : partitions.values()) {
+            total += partition.byPos.size();
+        }
+        return total;
+    }
+    
+    private static Partition currentPartition() {
+        String scope = WorldScope.current();
+        return scope != null ? partitions.get(scope) : null;
+    }
+    
+    private static Partition partition(String scope) {
+        return partitions.computeIfAbsent(scope, k -> new Partition());
+    }
+    
+    private static long chunkKey(BlockPos pos) {
+        return ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
     }
     
     /**
@@ -275,4 +1050,8 @@ public class MultiblockCacheManager {
     private static Path getCachePath() {
         return Paths.get("config", CACHE_FILE);
     }
-}
\ No newline at end of file
+    
+    private static Path getJournalPath() {
+        return Paths.get("config", JOURNAL_FILE);
+    }
+}
@@ -1,569 +1,497 @@
 package com.bapel_slimefun_mod.automation;
 
 import com.bapel_slimefun_mod.BapelSlimefunMod;
+import com.bapel_slimefun_mod.automation.MultiblockMaterials.BlockMatcher;
+import com.bapel_slimefun_mod.automation.MultiblockMaterials.Material;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
-import net.minecraft.world.level.block.state.BlockState;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
- * 🎯 ULTIMATE MULTIBLOCK DETECTOR v2 - 100% ACCURATE (Cleaned - No Debug Logs)
- * 
+ * 🎯 ULTIMATE MULTIBLOCK DETECTOR v3 - Compiled Templates
+ *
  * FEATURES:
- * 1. Sort machines by SIZE (9→5→4→3→2) to prevent early matches
- * 2. Support 9-block (3x3 grid) for PRESSURE_CHAMBER
- * 3. Fix ORE_WASHER (dispenser at index 0 = TOP, scan downward)
- * 4. Better NETHER_BRICK_FENCE fuzzy matching
- * 5. More precise pattern detection
+ * 1. Structures are compiled ONCE into rotation-expanded offset templates
+ * 2. Templates are ordered by SIZE (9→5→4→3→2) to prevent early matches
+ * 3. Discriminant index on the blocks directly above/below the dispenser
+ *    narrows the candidates to one or two templates
+ * 4. Every world position is read at most once (BlockSnapshot)
+ * 5. Block checks go through MultiblockMaterials (identity lookup, no string work)
+ *
+ * LAYOUTS (same rules as the old hand-written matchers):
+ * - 2 blocks: other block above (dispenser at index 1) or below (index 0)
+ * - 3 blocks: vertical line, or horizontal line in 4 directions
+ * - 4 blocks: vertical line, or cross [top, left, dispenser, right]
+ * - 5 blocks: SMELTERY shape [fence, brick, dispenser, brick, fire(-1 or -2)], else vertical
+ * - 9 blocks: 3x3 vertical grid with the dispenser top-center (PRESSURE_CHAMBER)
+ *
+ * TRIGGER (block the auto-clicker right-clicks):
+ * - a structure entry marked "trigger": true in slimefun_machines.json, else
+ * - the block directly above the dispenser, else directly below, else the first
+ *   horizontal neighbour
  */
 public class MultiblockDetector {
-    
+
     // Cardinal directions for horizontal scanning
     private static final Direction[] HORIZONTAL_DIRS = {
         Direction.NORTH, Direction.SOUTH, Direction.EAST, Direction.WEST
     };
-    
+
+    private static final int MATERIAL_COUNT = Material.values().length;
+
+    // Compiled templates + index, swapped atomically on (re)compile
+    private static volatile TemplateIndex compiled = null;
+
     public static class DetectionResult {
         private final String machineId;
         private final BlockPos dispenserPos;
         private final double confidence;
-        
+        private final Template template;
+
         public DetectionResult(String machineId, BlockPos dispenserPos, double confidence) {
+            this(machineId, dispenserPos, confidence, null);
+        }
+
+        public DetectionResult(String machineId, BlockPos dispenserPos, double confidence, Template template) {
             this.machineId = machineId;
             this.dispenserPos = dispenserPos;
             this.confidence = confidence;
+            this.template = template;
         }
-        
+
         public String getMachineId() { return machineId; }
         public BlockPos getDispenserPos() { return dispenserPos; }
         public double getConfidence() { return confidence; }
+        public Template getTemplate() { return template; }
     }
-    
+
     /**
-     * Main detection entry point
+     * One concrete placement of a machine structure: a list of (offset, matcher)
+     * cells relative to the dispenser. The dispenser cell itself is not included.
      */
-    public static DetectionResult detect(Level level, BlockPos dispenserPos) {
-        // Validate dispenser
-        if (level.getBlockState(dispenserPos).getBlock() != Blocks.DISPENSER) {
-            return null;
+    public static final class Template {
+        private final String machineId;
+        private final String layout;
+        private final int structureSize;
+        private final int[] dx;
+        private final int[] dy;
+        private final int[] dz;
+        private final int[] structureIndex;
+        private final BlockMatcher[] matchers;
+        private int triggerCell = -1; // set once in compile(), before the index is published
+
+        private Template(String machineId, String layout, int structureSize, List<int[]> cells,
+                         BlockMatcher[] structure) {
+            this.machineId = machineId;
+            this.layout = layout;
+            this.structureSize = structureSize;
+
+            int n = cells.size();
+            this.dx = new int[n];
+            this.dy = new int[n];
+            this.dz = new int[n];
+            this.structureIndex = new int[n];
+            this.matchers = new BlockMatcher[n];
+
+            for (int i = 0; i < n; i++) {
+                int[] cell = cells.get(i);
+                dx[i] = cell[0];
+                dy[i] = cell[1];
+                dz[i] = cell[2];
+                structureIndex[i] = cell[3];
+                matchers[i] = structure[cell[3]];
+            }
         }
-        
-        // Get all machine definitions and SORT BY SIZE (largest first!)
-        Map<String, SlimefunMachineData> machines = SlimefunDataLoader.getAllMachines();
-        List<SlimefunMachineData> sortedMachines = machines.values().stream()
-            .filter(m -> m.isMultiblock() && m.getStructure() != null && !m.getStructure().isEmpty())
-            .sorted((a, b) -> Integer.compare(b.getStructure().size(), a.getStructure().size())) // DESC
-            .collect(Collectors.toList());
-        
-        // Try each machine definition (largest to smallest)
-        for (SlimefunMachineData machine : sortedMachines) {
-            List<SlimefunMachineData.MultiblockStructure> structure = machine.getStructure();
-            
-            // Try to match this machine
-            if (tryMatchMachine(level, dispenserPos, machine, structure)) {
-                return new DetectionResult(machine.getId(), dispenserPos, 1.0);
+
+        /**
+         * Check every cell against the snapshot
+         */
+        boolean matches(BlockSnapshot snapshot) {
+            for (int i = 0; i < matchers.length; i++) {
+                if (!matchers[i].matches(snapshot.get(dx[i], dy[i], dz[i]))) {
+                    return false;
+                }
             }
+            return true;
         }
-        
-        return null;
-    }
-    
-    /**
-     * Try to match a specific machine at the dispenser position
-     */
-    private static boolean tryMatchMachine(Level level, BlockPos dispenserPos, 
-                                          SlimefunMachineData machine, 
-                                          List<SlimefunMachineData.MultiblockStructure> structure) {
-        
-        // Find dispenser index in structure
-        int dispenserIndex = findDispenserIndex(structure);
-        if (dispenserIndex == -1) {
-            return false;
+
+        /**
+         * Matcher constraining the given offset, or null if the template leaves it free
+         */
+        BlockMatcher matcherAt(int x, int y, int z) {
+            for (int i = 0; i < matchers.length; i++) {
+                if (dx[i] == x && dy[i] == y && dz[i] == z) {
+                    return matchers[i];
+                }
+            }
+            return null;
         }
-        
-        // Match based on structure size and pattern
-        switch (structure.size()) {
-            case 2:
-                return match2BlockPattern(level, dispenserPos, structure, dispenserIndex);
-            case 3:
-                return match3BlockPattern(level, dispenserPos, structure, dispenserIndex);
-            case 4:
-                return match4BlockPattern(level, dispenserPos, structure, dispenserIndex);
-            case 5:
-                return match5BlockPattern(level, dispenserPos, structure, dispenserIndex);
-            case 9:
-                return match9BlockPattern(level, dispenserPos, structure, dispenserIndex);
-            default:
-                return false;
+
+        /**
+         * Offset of the trigger block from the dispenser, or null if the template has none
+         */
+        public BlockPos getTriggerOffset() {
+            return triggerCell >= 0 ? new BlockPos(dx[triggerCell], dy[triggerCell], dz[triggerCell]) : null;
         }
-    }
-    
-    /**
-     * Find dispenser position in structure array
-     */
-    private static int findDispenserIndex(List<SlimefunMachineData.MultiblockStructure> structure) {
-        for (int i = 0; i < structure.size(); i++) {
-            String mat = normalizeMaterial(structure.get(i).getMaterial());
-            if ("DISPENSER".equals(mat)) {
-                return i;
+
+        private void resolveTrigger(int markedIndex) {
+            int above = -1, below = -1, side = -1;
+            for (int i = 0; i < matchers.length; i++) {
+                if (structureIndex[i] == markedIndex) {
+                    triggerCell = i;
+                    return;
+                }
+                boolean centered = dx[i] == 0 && dz[i] == 0;
+                if (centered && dy[i] == 1) above = i;
+                else if (centered && dy[i] == -1) below = i;
+                else if (side == -1 && dy[i] == 0 && Math.abs(dx[i]) + Math.abs(dz[i]) == 1) side = i;
             }
+            triggerCell = above >= 0 ? above : below >= 0 ? below : side;
         }
-        return -1;
-    }
-    
-    /**
-     * Match 2-block vertical patterns
-     * Examples: GRIND_STONE [FENCE, DISPENSER], ENHANCED_CRAFTING_TABLE [CRAFTING_TABLE, DISPENSER]
-     * Pattern: Block on top, Dispenser below (or vice versa)
-     */
-    private static boolean match2BlockPattern(Level level, BlockPos dispenserPos,
-                                             List<SlimefunMachineData.MultiblockStructure> structure,
-                                             int dispenserIndex) {
-        
-        // Get the other block (not dispenser)
-        int otherIndex = (dispenserIndex == 0) ? 1 : 0;
-        String expectedMaterial = normalizeMaterial(structure.get(otherIndex).getMaterial());
-        
-        // Try both vertical directions
-        BlockPos checkPos;
-        if (dispenserIndex == 1) {
-            // Dispenser is second → other block should be above
-            checkPos = dispenserPos.above();
-        } else {
-            // Dispenser is first → other block should be below
-            checkPos = dispenserPos.below();
+
+        String signature() {
+            StringBuilder sb = new StringBuilder(machineId);
+            for (int i = 0; i < matchers.length; i++) {
+                sb.append('|').append(dx[i]).append(',').append(dy[i]).append(',').append(dz[i])
+                  .append('=').append(matchers[i].getSource());
+            }
+            return sb.toString();
         }
-        
-        String actualMaterial = normalizeBlockId(level.getBlockState(checkPos).getBlock());
-        return blockMatches(actualMaterial, expectedMaterial);
-    }
-    
-    /**
-     * Match 3-block patterns (line - horizontal or vertical)
-     * SPECIAL CASE: If dispenser at index 0 → it's at TOP, scan DOWNWARD (like ORE_WASHER)
-     */
-    private static boolean match3BlockPattern(Level level, BlockPos dispenserPos,
-                                             List<SlimefunMachineData.MultiblockStructure> structure,
-                                             int dispenserIndex) {
-        
-        // Try vertical first (most common for 3-block)
-        if (tryVertical3Block(level, dispenserPos, structure, dispenserIndex)) {
-            return true;
+
+        public String getMachineId() { return machineId; }
+        public String getLayout() { return layout; }
+        public int getStructureSize() { return structureSize; }
+        public int getCellCount() { return matchers.length; }
+        public int getDx(int cell) { return dx[cell]; }
+        public int getDy(int cell) { return dy[cell]; }
+        public int getDz(int cell) { return dz[cell]; }
+        public int getStructureIndex(int cell) { return structureIndex[cell]; }
+        public BlockMatcher getMatcher(int cell) { return matchers[cell]; }
+
+        @Override
+        public String toString() {
+            return machineId + "[" + layout + "]";
         }
-        
-        // Try horizontal (4 directions)
-        return tryHorizontal3Block(level, dispenserPos, structure, dispenserIndex);
     }
-    
+
     /**
-     * Try vertical 3-block pattern
-     * IMPORTANT: dispenser index determines scan direction!
+     * All templates plus the (above, below) discriminant index
      */
-    private static boolean tryVertical3Block(Level level, BlockPos dispenserPos,
-                                            List<SlimefunMachineData.MultiblockStructure> structure,
-                                            int dispenserIndex) {
-        
-        BlockPos[] positions = new BlockPos[3];
-        
-        // Calculate positions based on dispenser index
-        // If dispenser is at index 0: [dispenser, +1Y below, +2Y below] (scan DOWN)
-        // If dispenser is at index 1: [-1Y above, dispenser, +1Y below]
-        // If dispenser is at index 2: [-2Y above, -1Y above, dispenser]
-        
-        for (int i = 0; i < 3; i++) {
-            int offset = i - dispenserIndex;
-            positions[i] = dispenserPos.offset(0, -offset, 0); // NOTE: NEGATIVE for downward
-        }
-        
-        // Check all positions
-        for (int i = 0; i < 3; i++) {
-            String expected = normalizeMaterial(structure.get(i).getMaterial());
-            String actual = normalizeBlockId(level.getBlockState(positions[i]).getBlock());
-            
-            if (!blockMatches(actual, expected)) {
-                return false;
-            }
+    private static final class TemplateIndex {
+        final List<Template> templates;
+        final List<Template>[] byDiscriminant;
+        final BlockSnapshot.Bounds bounds;
+
+        TemplateIndex(List<Template> templates, List<Template>[] byDiscriminant, BlockSnapshot.Bounds bounds) {
+            this.templates = templates;
+            this.byDiscriminant = byDiscriminant;
+            this.bounds = bounds;
         }
-        
-        return true;
     }
-    
+
     /**
-     * Try horizontal 3-block pattern (all 4 directions)
+     * Main detection entry point
      */
-    private static boolean tryHorizontal3Block(Level level, BlockPos dispenserPos,
-                                              List<SlimefunMachineData.MultiblockStructure> structure,
-                                              int dispenserIndex) {
-        
-        for (Direction dir : HORIZONTAL_DIRS) {
-            if (tryHorizontal3BlockDirection(level, dispenserPos, structure, dispenserIndex, dir)) {
-                return true;
-            }
-        }
-        return false;
+    public static DetectionResult detect(Level level, BlockPos dispenserPos) {
+        TemplateIndex index = getIndex();
+        return detect(BlockSnapshot.lazy(level, dispenserPos, index.bounds));
     }
-    
+
     /**
-     * Try horizontal 3-block in specific direction
+     * Detect against a snapshot centered on the dispenser
      */
-    private static boolean tryHorizontal3BlockDirection(Level level, BlockPos dispenserPos,
-                                                       List<SlimefunMachineData.MultiblockStructure> structure,
-                                                       int dispenserIndex, Direction dir) {
-        
-        BlockPos[] positions = new BlockPos[3];
-        
-        // Calculate positions based on direction and dispenser index
-        for (int i = 0; i < 3; i++) {
-            int offset = i - dispenserIndex;
-            positions[i] = dispenserPos.relative(dir, offset);
+    public static DetectionResult detect(BlockSnapshot snapshot) {
+        // Validate dispenser
+        if (snapshot.get(0, 0, 0) != Blocks.DISPENSER) {
+            return null;
         }
-        
-        // Check all positions
-        for (int i = 0; i < 3; i++) {
-            String expected = normalizeMaterial(structure.get(i).getMaterial());
-            String actual = normalizeBlockId(level.getBlockState(positions[i]).getBlock());
-            
-            if (!blockMatches(actual, expected)) {
-                return false;
+
+        TemplateIndex index = getIndex();
+        Material above = MultiblockMaterials.materialOf(snapshot.get(0, 1, 0));
+        Material below = MultiblockMaterials.materialOf(snapshot.get(0, -1, 0));
+
+        List<Template> candidates = index.byDiscriminant[above.ordinal() * MATERIAL_COUNT + below.ordinal()];
+
+        // Candidates are already in priority order (largest structure first)
+        for (Template template : candidates) {
+            if (template.matches(snapshot)) {
+                return new DetectionResult(template.getMachineId(), snapshot.getOrigin(), 1.0, template);
             }
         }
-        
-        return true;
+
+        return null;
     }
-    
+
     /**
-     * Match 4-block patterns (cross or line)
+     * Offset box every template fits in (for snapshotting)
      */
-    private static boolean match4BlockPattern(Level level, BlockPos dispenserPos,
-                                             List<SlimefunMachineData.MultiblockStructure> structure,
-                                             int dispenserIndex) {
-        
-        // Try vertical line first
-        if (tryVertical4Block(level, dispenserPos, structure, dispenserIndex)) {
-            return true;
-        }
-        
-        // Try cross pattern (fence above, dispenser center, blocks on sides)
-        return tryCross4Block(level, dispenserPos, structure, dispenserIndex);
+    public static BlockSnapshot.Bounds getBounds() {
+        return getIndex().bounds;
     }
-    
+
     /**
-     * Try vertical 4-block line
+     * Templates compiled for a machine, in match order
      */
-    private static boolean tryVertical4Block(Level level, BlockPos dispenserPos,
-                                            List<SlimefunMachineData.MultiblockStructure> structure,
-                                            int dispenserIndex) {
-        
-        BlockPos[] positions = new BlockPos[4];
-        
-        for (int i = 0; i < 4; i++) {
-            int offset = i - dispenserIndex;
-            positions[i] = dispenserPos.offset(0, -offset, 0);
-        }
-        
-        for (int i = 0; i < 4; i++) {
-            String expected = normalizeMaterial(structure.get(i).getMaterial());
-            String actual = normalizeBlockId(level.getBlockState(positions[i]).getBlock());
-            
-            if (!blockMatches(actual, expected)) {
-                return false;
+    public static List<Template> getTemplates(String machineId) {
+        List<Template> result = new ArrayList<>();
+        for (Template template : getIndex().templates) {
+            if (template.getMachineId().equals(machineId)) {
+                result.add(template);
             }
         }
-        
-        return true;
+        return result;
     }
-    
+
     /**
-     * Try cross pattern for 4 blocks
-     * Pattern: [top, left, center/dispenser, right]
+     * Drop compiled structures (call after machine data is reloaded)
      */
-    private static boolean tryCross4Block(Level level, BlockPos dispenserPos,
-                                         List<SlimefunMachineData.MultiblockStructure> structure,
-                                         int dispenserIndex) {
-        
-        if (dispenserIndex != 2) return false; // Dispenser must be at index 2 for cross pattern
-        
-        // Try all 4 horizontal directions
-        for (Direction dir : HORIZONTAL_DIRS) {
-            BlockPos top = dispenserPos.above();
-            BlockPos left = dispenserPos.relative(dir.getOpposite());
-            BlockPos right = dispenserPos.relative(dir);
-            
-            String expected0 = normalizeMaterial(structure.get(0).getMaterial());
-            String expected1 = normalizeMaterial(structure.get(1).getMaterial());
-            String expected3 = normalizeMaterial(structure.get(3).getMaterial());
-            
-            String actualTop = normalizeBlockId(level.getBlockState(top).getBlock());
-            String actualLeft = normalizeBlockId(level.getBlockState(left).getBlock());
-            String actualRight = normalizeBlockId(level.getBlockState(right).getBlock());
-            
-            if (blockMatches(actualTop, expected0) && 
-                blockMatches(actualLeft, expected1) && 
-                blockMatches(actualRight, expected3)) {
-                return true;
+    public static void invalidate() {
+        compiled = null;
+    }
+
+    private static TemplateIndex getIndex() {
+        TemplateIndex index = compiled;
+        if (index == null) {
+            synchronized (MultiblockDetector.class) {
+                index = compiled;
+                if (index == null) {
+                    index = compile();
+                    compiled = index;
+                }
             }
         }
-        
-        return false;
+        return index;
     }
-    
-    /**
-     * Match 5-block patterns (complex 3D like SMELTERY)
-     */
-    private static boolean match5BlockPattern(Level level, BlockPos dispenserPos,
-                                             List<SlimefunMachineData.MultiblockStructure> structure,
-                                             int dispenserIndex) {
-        
-        if (dispenserIndex != 2) {
-            // Try vertical line as fallback
-            return tryVertical5Block(level, dispenserPos, structure, dispenserIndex);
+
+    // ========================================
+    // TEMPLATE COMPILATION (runs once)
+    // ========================================
+
+    private static TemplateIndex compile() {
+        // Distinct multiblock machines (MACHINES holds each one under title and ID)
+        Map<String, SlimefunMachineData> machines = new TreeMap<>();
+        for (SlimefunMachineData machine : SlimefunDataLoader.getAllMachines().values()) {
+            if (machine.isMultiblock() && machine.getStructure() != null && !machine.getStructure().isEmpty()) {
+                machines.putIfAbsent(machine.getId(), machine);
+            }
         }
-        
-        // SMELTERY / MAKESHIFT_SMELTERY pattern:
-        // [FENCE, BRICK, DISPENSER, BRICK, FIRE]
-        
-        String expectedFence = normalizeMaterial(structure.get(0).getMaterial());
-        String expectedBrick = normalizeMaterial(structure.get(1).getMaterial());
-        String expectedFire = normalizeMaterial(structure.get(4).getMaterial());
-        
-        // Try all 4 horizontal directions
-        for (Direction dir : HORIZONTAL_DIRS) {
-            BlockPos fencePos = dispenserPos.above();
-            BlockPos brick1Pos = dispenserPos.relative(dir.getOpposite());
-            BlockPos brick2Pos = dispenserPos.relative(dir);
-            
-            // Check fire position (offset 1 for standard, offset 2 for makeshift)
-            BlockPos firePos1 = dispenserPos.below();
-            BlockPos firePos2 = dispenserPos.below(2);
-            
-            boolean fenceMatch = blockMatches(normalizeBlockId(level.getBlockState(fencePos).getBlock()), expectedFence);
-            boolean brick1Match = blockMatches(normalizeBlockId(level.getBlockState(brick1Pos).getBlock()), expectedBrick);
-            boolean brick2Match = blockMatches(normalizeBlockId(level.getBlockState(brick2Pos).getBlock()), expectedBrick);
-            
-            boolean fireMatch = blockMatches(normalizeBlockId(level.getBlockState(firePos1).getBlock()), expectedFire) ||
-                                blockMatches(normalizeBlockId(level.getBlockState(firePos2).getBlock()), expectedFire);
-            
-            if (fenceMatch && brick1Match && brick2Match && fireMatch) {
-                return true;
+
+        List<SlimefunMachineData> sorted = new ArrayList<>(machines.values());
+        sorted.sort((a, b) -> Integer.compare(b.getStructure().size(), a.getStructure().size())); // DESC
+
+        List<Template> templates = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        for (SlimefunMachineData machine : sorted) {
+            BlockMatcher[] structure = MultiblockMaterials.compile(machine.getStructure());
+            int markedTrigger = findMarkedTrigger(machine.getStructure());
+            for (Template template : expand(machine.getId(), structure)) {
+                // Symmetric structures produce identical rotations
+                if (seen.add(template.signature())) {
+                    template.resolveTrigger(markedTrigger);
+                    templates.add(template);
+                }
             }
         }
-        
-        return false;
+
+        TemplateIndex index = new TemplateIndex(templates, buildDiscriminantIndex(templates), computeBounds(templates));
+
+        BapelSlimefunMod.LOGGER.info("[Detector] Compiled {} templates for {} multiblocks",
+            templates.size(), sorted.size());
+        return index;
     }
-    
+
     /**
-     * Try vertical 5-block line (fallback)
+     * Expand one structure into all placements the layout rules allow
      */
-    private static boolean tryVertical5Block(Level level, BlockPos dispenserPos,
-                                            List<SlimefunMachineData.MultiblockStructure> structure,
-                                            int dispenserIndex) {
-        
-        BlockPos[] positions = new BlockPos[5];
-        
-        for (int i = 0; i < 5; i++) {
-            int offset = i - dispenserIndex;
-            positions[i] = dispenserPos.offset(0, -offset, 0);
+    private static List<Template> expand(String machineId, BlockMatcher[] structure) {
+        List<Template> result = new ArrayList<>();
+
+        int d = findDispenserIndex(structure);
+        if (d == -1) {
+            return result;
         }
-        
-        for (int i = 0; i < 5; i++) {
-            String expected = normalizeMaterial(structure.get(i).getMaterial());
-            String actual = normalizeBlockId(level.getBlockState(positions[i]).getBlock());
-            
-            if (!blockMatches(actual, expected)) {
-                return false;
-            }
+
+        int size = structure.length;
+        switch (size) {
+            case 2:
+                // Dispenser second → other block above, dispenser first → below
+                result.add(template(machineId, "vertical", structure,
+                    cell(0, d == 1 ? 1 : -1, 0, d == 0 ? 1 : 0)));
+                break;
+
+            case 3:
+                result.add(vertical(machineId, structure, d));
+                for (Direction dir : HORIZONTAL_DIRS) {
+                    List<int[]> cells = new ArrayList<>();
+                    for (int i = 0; i < 3; i++) {
+                        if (i == d) continue;
+                        int offset = i - d;
+                        cells.add(cell(dir.getStepX() * offset, 0, dir.getStepZ() * offset, i));
+                    }
+                    result.add(new Template(machineId, "horizontal:" + dir.getName(), size, cells, structure));
+                }
+                break;
+
+            case 4:
+                result.add(vertical(machineId, structure, d));
+                if (d == 2) {
+                    // Cross: [top, left, dispenser, right]
+                    for (Direction dir : HORIZONTAL_DIRS) {
+                        Direction left = dir.getOpposite();
+                        result.add(template(machineId, "cross:" + dir.getName(), structure,
+                            cell(0, 1, 0, 0),
+                            cell(left.getStepX(), 0, left.getStepZ(), 1),
+                            cell(dir.getStepX(), 0, dir.getStepZ(), 3)));
+                    }
+                }
+                break;
+
+            case 5:
+                if (d != 2) {
+                    result.add(vertical(machineId, structure, d));
+                    break;
+                }
+                // SMELTERY / MAKESHIFT_SMELTERY: fire one or two blocks below the dispenser
+                for (int fireDepth = 1; fireDepth <= 2; fireDepth++) {
+                    for (Direction dir : HORIZONTAL_DIRS) {
+                        Direction left = dir.getOpposite();
+                        result.add(template(machineId, "smeltery:" + dir.getName() + ":fire-" + fireDepth, structure,
+                            cell(0, 1, 0, 0),
+                            cell(left.getStepX(), 0, left.getStepZ(), 1),
+                            cell(dir.getStepX(), 0, dir.getStepZ(), 3),
+                            cell(0, -fireDepth, 0, 4)));
+                    }
+                }
+                break;
+
+            case 9:
+                // PRESSURE_CHAMBER: dispenser top-center, rows at y, y-1, y-2
+                if (d == 1) {
+                    for (Direction dir : HORIZONTAL_DIRS) {
+                        Direction left = dir.getCounterClockWise();
+                        Direction right = dir.getClockWise();
+                        List<int[]> cells = new ArrayList<>();
+                        for (int row = 0; row < 3; row++) {
+                            int base = row * 3;
+                            cells.add(cell(left.getStepX(), -row, left.getStepZ(), base));
+                            if (row > 0) {
+                                cells.add(cell(0, -row, 0, base + 1));
+                            }
+                            cells.add(cell(right.getStepX(), -row, right.getStepZ(), base + 2));
+                        }
+                        result.add(new Template(machineId, "grid:" + dir.getName(), size, cells, structure));
+                    }
+                }
+                break;
+
+            default:
+                break;
         }
-        
-        return true;
+
+        return result;
     }
-    
+
     /**
-     * Match 9-block patterns (3x3 grid like PRESSURE_CHAMBER)
+     * Vertical line: index 0 is the top block
      */
-    private static boolean match9BlockPattern(Level level, BlockPos dispenserPos,
-                                             List<SlimefunMachineData.MultiblockStructure> structure,
-                                             int dispenserIndex) {
-        
-        // PRESSURE_CHAMBER: Dispenser is at Index 1 (Top Row, Center)
-        if (dispenserIndex == 1) {
-            for (Direction dir : HORIZONTAL_DIRS) {
-                if (try3x3Grid(level, dispenserPos, structure, dir)) {
-                    return true;
-                }
+    private static Template vertical(String machineId, BlockMatcher[] structure, int d) {
+        List<int[]> cells = new ArrayList<>();
+        for (int i = 0; i < structure.length; i++) {
+            if (i != d) {
+                cells.add(cell(0, -(i - d), 0, i));
             }
         }
-        
-        return false;
+        return new Template(machineId, "vertical", structure.length, cells, structure);
     }
 
-    /**
-     * Checks the Pressure Chamber layout (Vertical Stack).
-     * Row 0 = Top Layer (Dispenser)
-     * Row 1 = Middle Layer (Glass)
-     * Row 2 = Bottom Layer (Cauldron)
-     */
-    private static boolean try3x3Grid(Level level, BlockPos dispenserPos,
-                                     List<SlimefunMachineData.MultiblockStructure> structure,
-                                     Direction dir) {
-        
-        // Direction determines Left/Right orientation
-        Direction left = dir.getCounterClockWise();
-        Direction right = dir.getClockWise();
-        
-        BlockPos[] positions = new BlockPos[9];
-        
-        // --- Layer 1: TOP (Y) ---
-        // JSON Index 0, 1, 2 -> [Slab, Dispenser, Slab]
-        positions[0] = dispenserPos.relative(left);   // Index 0: Slab (Left of Dispenser)
-        positions[1] = dispenserPos;                  // Index 1: Dispenser (Center)
-        positions[2] = dispenserPos.relative(right);  // Index 2: Slab (Right of Dispenser)
-        
-        // --- Layer 2: MIDDLE (Y-1) ---
-        // JSON Index 3, 4, 5 -> [Piston, Glass, Piston]
-        BlockPos midPos = dispenserPos.below();
-        positions[3] = midPos.relative(left);         // Index 3: Piston (Left of Glass)
-        positions[4] = midPos;                        // Index 4: Glass (Below Dispenser)
-        positions[5] = midPos.relative(right);        // Index 5: Piston (Right of Glass)
-        
-        // --- Layer 3: BOTTOM (Y-2) ---
-        // JSON Index 6, 7, 8 -> [Piston, Cauldron, Piston]
-        BlockPos botPos = dispenserPos.below(2);
-        positions[6] = botPos.relative(left);         // Index 6: Piston (Left of Cauldron)
-        positions[7] = botPos;                        // Index 7: Cauldron (Below Glass)
-        positions[8] = botPos.relative(right);        // Index 8: Piston (Right of Cauldron)
-        
-        return checkPositions(level, positions, structure);
+    private static Template template(String machineId, String layout, BlockMatcher[] structure, int[]... cells) {
+        return new Template(machineId, layout, structure.length, Arrays.asList(cells), structure);
     }
 
-    /**
-     * Helper to check all 9 positions against the structure definition
-     */
-    private static boolean checkPositions(Level level, BlockPos[] positions, 
-                                         List<SlimefunMachineData.MultiblockStructure> structure) {
-        for (int i = 0; i < 9; i++) {
-            String expected = normalizeMaterial(structure.get(i).getMaterial());
-            String actual = normalizeBlockId(level.getBlockState(positions[i]).getBlock());
-            
-            if (!blockMatches(actual, expected)) {
-                return false;
+    private static int[] cell(int x, int y, int z, int structureIndex) {
+        return new int[] {x, y, z, structureIndex};
+    }
+
+    private static int findMarkedTrigger(List<SlimefunMachineData.MultiblockStructure> structure) {
+        for (int i = 0; i < structure.size(); i++) {
+            if (structure.get(i).isTrigger()) {
+                return i;
             }
         }
-        
-        return true;
+        return -1;
     }
-    
+
     /**
-     * Check if actual block matches expected (with fuzzy variants)
+     * Find dispenser position in structure array
      */
-    private static boolean blockMatches(String actual, String expected) {
-        if (actual.equals(expected)) return true;
-        
-        // Fuzzy matching for variants
-        if (expected.equals("FENCE")) {
-            // Regular fence (not nether brick)
-            return actual.contains("FENCE") && !actual.contains("NETHER_BRICK");
-        }
-        if (expected.equals("NETHER_BRICK_FENCE") || expected.equals("NETHER_BRICK")) {
-            // Nether brick fence or block
-            return actual.contains("NETHER_BRICK");
+    private static int findDispenserIndex(BlockMatcher[] structure) {
+        for (int i = 0; i < structure.length; i++) {
+            if (structure[i].getMaterial() == Material.DISPENSER) {
+                return i;
+            }
         }
-        if (expected.equals("GLASS") && (actual.equals("GLASS") || actual.contains("STAINED_GLASS"))) return true;
-        if (expected.equals("ANVIL") && actual.contains("ANVIL")) return true;
-        if (expected.equals("CAULDRON") && actual.contains("CAULDRON")) return true;
-        if (expected.equals("PISTON") && actual.contains("PISTON")) return true;
-        if (expected.equals("TRAP_DOOR") && actual.contains("TRAPDOOR")) return true;
-        if (expected.equals("FURNACE") && actual.contains("FURNACE")) return true;
-        if (expected.equals("BRICK_BLOCK") && actual.equals("BRICKS")) return true;
-        
-        return false;
-    }
-    
-    /**
-     * Normalize block ID from Minecraft block
-     */
-    private static String normalizeBlockId(Block block) {
-        return normalizeMaterial(block.toString());
+        return -1;
     }
-    
+
     /**
-     * Normalize material name from JSON
+     * Register every template under each (above, below) material pair it can accept.
+     * A free position accepts every material.
      */
-    private static String normalizeMaterial(String material) {
-        material = material.replace("Block{minecraft:", "")
-                         .replace("}", "")
-                         .toUpperCase();
-        
-        Map<String, String> mappings = new HashMap<>();
-        
-        // Core blocks
-        mappings.put("CRAFTING_TABLE", "CRAFTING_TABLE");
-        mappings.put("BOOKSHELF", "BOOKSHELF");
-        mappings.put("DISPENSER", "DISPENSER");
-        mappings.put("ANVIL", "ANVIL");
-        mappings.put("CHIPPED_ANVIL", "ANVIL");
-        mappings.put("DAMAGED_ANVIL", "ANVIL");
-        
-        // Fences - map all wood fences to FENCE (but keep NETHER_BRICK separate!)
-        String[] fenceTypes = {"OAK", "SPRUCE", "BIRCH", "JUNGLE", "ACACIA", "DARK_OAK", 
-                               "MANGROVE", "CHERRY", "BAMBOO", "CRIMSON", "WARPED"};
-        for (String type : fenceTypes) {
-            mappings.put(type + "_FENCE", "FENCE");
+    @SuppressWarnings("unchecked")
+    private static List<Template>[] buildDiscriminantIndex(List<Template> templates) {
+        List<Template>[] index = new List[MATERIAL_COUNT * MATERIAL_COUNT];
+        for (int i = 0; i < index.length; i++) {
+            index[i] = new ArrayList<>();
+        }
+
+        for (Template template : templates) {
+            boolean[] aboveOk = acceptedMaterials(template.matcherAt(0, 1, 0));
+            boolean[] belowOk = acceptedMaterials(template.matcherAt(0, -1, 0));
+
+            for (int a = 0; a < MATERIAL_COUNT; a++) {
+                if (!aboveOk[a]) continue;
+                for (int b = 0; b < MATERIAL_COUNT; b++) {
+                    if (belowOk[b]) {
+                        index[a * MATERIAL_COUNT + b].add(template);
+                    }
+                }
+            }
         }
-        
-        // Nether brick - keep separate from regular fence!
-        mappings.put("NETHER_BRICK_FENCE", "NETHER_BRICK_FENCE");
-        mappings.put("NETHER_BRICK_WALL", "NETHER_BRICK_FENCE");
-        mappings.put("NETHER_BRICKS", "NETHER_BRICK");
-        
-        // Iron Bars
-        mappings.put("IRON_BARS", "IRON_BARS");
-        
-        // Glass
-        String[] glassColors = {"WHITE", "ORANGE", "MAGENTA", "LIGHT_BLUE", "YELLOW", "LIME", 
-                                "PINK", "CYAN", "PURPLE", "BLUE", "BROWN", "GREEN", "RED", 
-                                "BLACK", "GRAY", "LIGHT_GRAY"};
-        for (String color : glassColors) {
-            mappings.put(color + "_STAINED_GLASS", "GLASS");
+
+        for (int i = 0; i < index.length; i++) {
+            index[i] = index[i].isEmpty() ? Collections.emptyList() : List.copyOf(index[i]);
         }
-        mappings.put("GLASS", "GLASS");
-        
-        // Pistons
-        mappings.put("PISTON", "PISTON");
-        mappings.put("STICKY_PISTON", "PISTON");
-        
-        // Cauldron
-        mappings.put("CAULDRON", "CAULDRON");
-        mappings.put("WATER_CAULDRON", "CAULDRON");
-        mappings.put("LAVA_CAULDRON", "CAULDRON");
-        mappings.put("POWDER_SNOW_CAULDRON", "CAULDRON");
-        
-        // Furnace
-        mappings.put("FURNACE", "FURNACE");
-        mappings.put("BLAST_FURNACE", "FURNACE");
-        mappings.put("SMOKER", "FURNACE");
-        
-        // Bricks
-        mappings.put("BRICKS", "BRICK_BLOCK");
-        
-        // Trapdoor
-        String[] trapdoorTypes = {"OAK", "SPRUCE", "BIRCH", "JUNGLE", "ACACIA", "DARK_OAK",
-                                  "MANGROVE", "CHERRY", "BAMBOO", "CRIMSON", "WARPED", "IRON"};
-        for (String type : trapdoorTypes) {
-            mappings.put(type + "_TRAPDOOR", "TRAP_DOOR");
+        return index;
+    }
+
+    private static boolean[] acceptedMaterials(BlockMatcher matcher) {
+        boolean[] ok = new boolean[MATERIAL_COUNT];
+        for (Material material : Material.values()) {
+            ok[material.ordinal()] = matcher == null
+                || (matcher.getMaterial() == Material.OTHER
+                    ? material == Material.OTHER
+                    : matcher.getMaterial().accepts(material));
+        }
+        return ok;
+    }
+
+    private static BlockSnapshot.Bounds computeBounds(List<Template> templates) {
+        // Always cover the dispenser and the two discriminant positions
+        int minX = 0, minY = -1, minZ = 0, maxX = 0, maxY = 1, maxZ = 0;
+        for (Template t : templates) {
+            for (int i = 0; i < t.getCellCount(); i++) {
+                minX = Math.min(minX, t.dx[i]);
+                minY = Math.min(minY, t.dy[i]);
+                minZ = Math.min(minZ, t.dz[i]);
+                maxX = Math.max(maxX, t.dx[i]);
+                maxY = Math.max(maxY, t.dy[i]);
+                maxZ = Math.max(maxZ, t.dz[i]);
+            }
         }
-        
-        // Stone
-        mappings.put("SMOOTH_STONE_SLAB", "SMOOTH_STONE_SLAB");
-        
-        // Fire
-        mappings.put("FIRE", "FIRE");
-        mappings.put("SOUL_FIRE", "FIRE");
-        
-        return mappings.getOrDefault(material, material);
+        return new BlockSnapshot.Bounds(minX, minY, minZ, maxX, maxY, maxZ);
     }
-}
\ No newline at end of file
+}
@@ -33,18 +33,18 @@ public class MultiblockEventHandler {
     // Status flags
     private static boolean dispenserFull = false;
     private static boolean inventoryEmpty = false;
-    private static long lastCheckTime = 0;
-    private static final long CHECK_INTERVAL = 500; // Check setiap 0.5 detik
+    private static long lastCheckTick = 0;
+    private static final long CHECK_INTERVAL_TICKS = 10; // Check setiap 0.5 detik (TickScheduler tick)
     
     /**
      * EVENT: Cek perubahan inventory - dipanggil setiap tick
      */
     public static void checkInventoryChanges() {
-        long now = System.currentTimeMillis();
-        if (now - lastCheckTime < CHECK_INTERVAL) {
+        long now = TickScheduler.getCurrentTick();
+        if (now - lastCheckTick < CHECK_INTERVAL_TICKS) {
             return;
         }
-        lastCheckTime = now;
+        lastCheckTick = now;
         
         Minecraft mc = Minecraft.getInstance();
         LocalPlayer player = mc.player;
@@ -267,7 +267,7 @@ public class MultiblockEventHandler {
         previousInventoryState.clear();
         dispenserFull = false;
         inventoryEmpty = false;
-        lastCheckTime = 0;
+        lastCheckTick = 0;
     }
     
     /**
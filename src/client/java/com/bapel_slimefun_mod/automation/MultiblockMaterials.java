@@ -0,0 +1,199 @@
+package com.bapel_slimefun_mod.automation;
+
+import com.bapel_slimefun_mod.BapelSlimefunMod;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.level.block.Block;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Canonical material table for multiblock detection.
+ *
+ * Every registered Block is classified ONCE into a {@link Material} family
+ * (all wood fences → FENCE, stained glass → GLASS, cauldron variants → CAULDRON, ...).
+ * Structure materials from slimefun_machines.json are compiled into {@link BlockMatcher}s,
+ * so a block check during detection is an identity-map lookup plus an enum compare.
+ */
+public final class MultiblockMaterials {
+
+    /**
+     * Material families understood by the detector.
+     * OTHER means "no family" - such blocks are matched by exact Block identity.
+     */
+    public enum Material {
+        DISPENSER,
+        CRAFTING_TABLE,
+        BOOKSHELF,
+        ANVIL,
+        FENCE,
+        NETHER_BRICK_FENCE(true),
+        NETHER_BRICK(true),
+        IRON_BARS,
+        GLASS,
+        PISTON,
+        CAULDRON,
+        FURNACE,
+        BRICK_BLOCK,
+        TRAP_DOOR,
+        SMOOTH_STONE_SLAB,
+        FIRE,
+        OTHER;
+
+        private final boolean netherBrick;
+
+        Material() {
+            this(false);
+        }
+
+        Material(boolean netherBrick) {
+            this.netherBrick = netherBrick;
+        }
+
+        /**
+         * Whether a block of family {@code actual} satisfies this expected family.
+         * Nether brick fences, walls and bricks are interchangeable.
+         */
+        public boolean accepts(Material actual) {
+            return this == actual || (netherBrick && actual.netherBrick);
+        }
+    }
+
+    /**
+     * Compiled expectation for one structure element
+     */
+    public static final class BlockMatcher {
+        private final Material material;
+        private final Block exactBlock;
+        private final String source;
+
+        private BlockMatcher(Material material, Block exactBlock, String source) {
+            this.material = material;
+            this.exactBlock = exactBlock;
+            this.source = source;
+        }
+
+        public boolean matches(Block block) {
+            if (block == null) return false;
+            if (material != Material.OTHER) {
+                return material.accepts(materialOf(block));
+            }
+            return block == exactBlock;
+        }
+
+        public Material getMaterial() { return material; }
+        public Block getExactBlock() { return exactBlock; }
+        public String getSource() { return source; }
+
+        @Override
+        public String toString() {
+            return source;
+        }
+    }
+
+    private static final Map<Block, Material> MATERIAL_BY_BLOCK = new IdentityHashMap<>();
+    private static final Map<String, Block> BLOCK_BY_NAME = new HashMap<>();
+    private static final Map<String, Material> EXACT_NAMES = new HashMap<>();
+    private static volatile boolean initialized = false;
+
+    static {
+        EXACT_NAMES.put("DISPENSER", Material.DISPENSER);
+        EXACT_NAMES.put("CRAFTING_TABLE", Material.CRAFTING_TABLE);
+        EXACT_NAMES.put("BOOKSHELF", Material.BOOKSHELF);
+        EXACT_NAMES.put("IRON_BARS", Material.IRON_BARS);
+        EXACT_NAMES.put("GLASS", Material.GLASS);
+        EXACT_NAMES.put("SMOKER", Material.FURNACE);
+        EXACT_NAMES.put("BRICKS", Material.BRICK_BLOCK);
+        EXACT_NAMES.put("BRICK_BLOCK", Material.BRICK_BLOCK);
+        EXACT_NAMES.put("TRAP_DOOR", Material.TRAP_DOOR);
+        EXACT_NAMES.put("FENCE", Material.FENCE);
+        EXACT_NAMES.put("SMOOTH_STONE_SLAB", Material.SMOOTH_STONE_SLAB);
+        EXACT_NAMES.put("FIRE", Material.FIRE);
+        EXACT_NAMES.put("SOUL_FIRE", Material.FIRE);
+    }
+
+    private MultiblockMaterials() {}
+
+    /**
+     * Build the Block → Material table from the block registry (once)
+     */
+    public static synchronized void initialize() {
+        if (initialized) return;
+
+        try {
+            for (Block block : BuiltInRegistries.BLOCK) {
+                String name = BuiltInRegistries.BLOCK.getKey(block).getPath().toUpperCase();
+                MATERIAL_BY_BLOCK.put(block, classify(name));
+                BLOCK_BY_NAME.putIfAbsent(name, block);
+            }
+
+            BapelSlimefunMod.LOGGER.info("[Materials] Classified {} blocks", MATERIAL_BY_BLOCK.size());
+        } catch (Exception e) {
+            BapelSlimefunMod.LOGGER.error("[Materials] Failed to build material table", e);
+        }
+
+        initialized = true;
+    }
+
+    /**
+     * Canonical family of a block (identity lookup, no allocation)
+     */
+    public static Material materialOf(Block block) {
+        if (!initialized) initialize();
+        Material material = MATERIAL_BY_BLOCK.get(block);
+        return material != null ? material : Material.OTHER;
+    }
+
+    /**
+     * Compile a structure material name (e.g. "OAK_FENCE", "NETHER_BRICKS") into a matcher
+     */
+    public static BlockMatcher compile(String materialName) {
+        if (!initialized) initialize();
+
+        String name = materialName == null ? "" : materialName.trim().toUpperCase();
+        Material material = classify(name);
+        Block exact = material == Material.OTHER ? BLOCK_BY_NAME.get(name) : null;
+
+        if (material == Material.OTHER && exact == null) {
+            BapelSlimefunMod.LOGGER.warn("[Materials] Unknown structure material: {}", materialName);
+        }
+
+        return new BlockMatcher(material, exact, name);
+    }
+
+    /**
+     * Compile a whole structure definition, index-aligned with the JSON array
+     */
+    public static BlockMatcher[] compile(List<SlimefunMachineData.MultiblockStructure> structure) {
+        BlockMatcher[] matchers = new BlockMatcher[structure.size()];
+        for (int i = 0; i < matchers.length; i++) {
+            matchers[i] = compile(structure.get(i).getMaterial());
+        }
+        return matchers;
+    }
+
+    /**
+     * Name → family rules. Only used while building the tables, never during detection.
+     */
+    private static Material classify(String name) {
+        Material exact = EXACT_NAMES.get(name);
+        if (exact != null) return exact;
+
+        if (name.contains("NETHER_BRICK")) {
+            return (name.endsWith("_FENCE") || name.endsWith("_WALL"))
+                ? Material.NETHER_BRICK_FENCE
+                : Material.NETHER_BRICK;
+        }
+        if (name.contains("FENCE")) return Material.FENCE;
+        if (name.contains("STAINED_GLASS")) return Material.GLASS;
+        if (name.contains("ANVIL")) return Material.ANVIL;
+        if (name.contains("CAULDRON")) return Material.CAULDRON;
+        if (name.contains("PISTON")) return Material.PISTON;
+        if (name.contains("TRAPDOOR")) return Material.TRAP_DOOR;
+        if (name.contains("FURNACE")) return Material.FURNACE;
+
+        return Material.OTHER;
+    }
+}
@@ -0,0 +1,329 @@
+package com.bapel_slimefun_mod.automation;
+
+import com.bapel_slimefun_mod.BapelSlimefunMod;
+import com.bapel_slimefun_mod.config.ModConfig;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientChunkEvents;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background multiblock discovery and cache verification
+ *
+ * Flow:
+ * 1. CHUNK_LOAD → cached machines in the chunk are marked dirty and queued for
+ *    verification (always); other dispenser block entities are queued for
+ *    discovery (opt-in via ModConfig.backgroundScanEnabled). Chunks that are
+ *    already loaded go through the same path on world join and when the scan
+ *    is switched on (enqueueLoadedChunks)
+ * 2. tick() → a few queued dispensers per tick are copied into immutable BlockSnapshots
+ * 3. Worker pool → MultiblockDetector.detect(snapshot)
+ * 4. tick() → results are applied to MultiblockCacheManager in one batch
+ *
+ * Walking into a workshop pre-populates the cache, so opening a dispenser is a cache hit.
+ * The worker threads are daemons and the pool is shut down on CLIENT_STOPPING.
+ */
+public class MultiblockWorldScanner {
+    private static final int MAX_CAPTURES_PER_TICK = 16;
+    private static final int MAX_CAPTURE_RETRIES = 40; // ~2s waiting for neighbour chunks
+    private static final int WORKER_THREADS = 2;
+
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(WORKER_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "Bapel-Multiblock-Scanner-" + THREAD_ID.incrementAndGet());
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    // Client-thread state
+    private static final Queue<BlockPos> pending = new ArrayDeque<>();
+    private static final Set<BlockPos> queued = new HashSet<>();
+    private static final Map<BlockPos, Integer> retries = new HashMap<>();
+    // Positions queued to re-verify an existing cache entry → entry change count at queue time
+    private static final Map<BlockPos, Integer> verifications = new HashMap<>();
+
+    // Worker → client thread hand-off
+    private static final Queue<Discovery> discovered = new ConcurrentLinkedQueue<>();
+
+    // Bumped on disconnect so late worker results from the old world are dropped
+    private static final AtomicInteger generation = new AtomicInteger();
+
+    private static ModConfig config;
+    private static boolean registered = false;
+
+    private static final class Discovery {
+        final int generation;
+        final String scope;
+        final BlockPos pos;
+        final boolean verification;
+        final int changeCount;
+        final MultiblockDetector.DetectionResult result;
+
+        Discovery(int generation, String scope, BlockPos pos, boolean verification, int changeCount,
+                  MultiblockDetector.DetectionResult result) {
+            this.generation = generation;
+            this.scope = scope;
+            this.pos = pos;
+            this.verification = verification;
+            this.changeCount = changeCount;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Hook chunk/connection events (once)
+     */
+    public static void register(ModConfig modConfig) {
+        config = modConfig;
+        if (registered) return;
+        registered = true;
+
+        ClientChunkEvents.CHUNK_LOAD.register(MultiblockWorldScanner::onChunkLoad);
+        ClientPlayConnectionEvents.JOIN.register((handler, sender, client) -> enqueueLoadedChunks());
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> reset());
+        ClientLifecycleEvents.CLIENT_STOPPING.register(client -> shutdown());
+    }
+
+    public static boolean isEnabled() {
+        return config != null && config.isBackgroundScanEnabled();
+    }
+
+    /**
+     * Queue cached machines (verification) and, if enabled, every dispenser (discovery)
+     * in a freshly loaded chunk
+     */
+    private static void onChunkLoad(ClientLevel level, LevelChunk chunk) {
+        try {
+            // Blocks may have changed while the chunk was away
+            for (MultiblockCacheManager.CachedMultiblock cached :
+                    MultiblockCacheManager.getMachinesInChunk(chunk.getPos().x, chunk.getPos().z)) {
+                requestVerification(cached);
+            }
+
+            if (!isEnabled()) return;
+
+            for (BlockEntity blockEntity : chunk.getBlockEntities().values()) {
+                if (blockEntity.getBlockState().is(Blocks.DISPENSER)) {
+                    enqueue(blockEntity.getBlockPos());
+                }
+            }
+        } catch (Exception e) {
+            BapelSlimefunMod.LOGGER.error("[Scanner] Error queueing chunk {}", chunk.getPos(), e);
+        }
+    }
+
+    /**
+     * Queue every chunk that is already loaded around the player, as if it had
+     * just arrived (scan switched on / world joined)
+     */
+    public static void enqueueLoadedChunks() {
+        Minecraft mc = Minecraft.getInstance();
+        ClientLevel level = mc.level;
+        if (level == null || mc.player == null) return;
+
+        ChunkPos center = mc.player.chunkPosition();
+        int radius = mc.options.getEffectiveRenderDistance() + 1;
+        int chunks = 0;
+
+        for (int x = center.x - radius; x <= center.x + radius; x++) {
+            for (int z = center.z - radius; z <= center.z + radius; z++) {
+                if (level.hasChunk(x, z)) {
+                    onChunkLoad(level, level.getChunk(x, z));
+                    chunks++;
+                }
+            }
+        }
+
+        BapelSlimefunMod.LOGGER.info("[Scanner] Queued {} loaded chunk(s), {} position(s) pending",
+            chunks, pending.size());
+    }
+
+    /**
+     * Mark a cache entry dirty and re-check it in the next batches
+     */
+    public static void requestVerification(MultiblockCacheManager.CachedMultiblock cached) {
+        MultiblockCacheManager.markDirty(cached);
+        BlockPos pos = cached.getPosition().immutable();
+        verifications.put(pos, cached.getChangeCount());
+        enqueue(pos);
+    }
+
+    private static void enqueue(BlockPos pos) {
+        BlockPos immutable = pos.immutable();
+        if (queued.add(immutable)) {
+            pending.add(immutable);
+        }
+    }
+
+    /**
+     * Capture queued snapshots and publish finished detections (client thread)
+     */
+    public static void tick() {
+        publishDiscoveries();
+
+        if (pending.isEmpty()) return;
+
+        Minecraft mc = Minecraft.getInstance();
+        ClientLevel level = mc.level;
+        if (level == null) {
+            reset();
+            return;
+        }
+
+        // Results are written back into the world they were captured in
+        String scope = WorldScope.current();
+        BlockSnapshot.Bounds bounds = MultiblockDetector.getBounds();
+        int budget = MAX_CAPTURES_PER_TICK;
+        int currentGeneration = generation.get();
+
+        // Each queued position is looked at once per tick at most
+        int inspect = pending.size();
+
+        for (int i = 0; i < inspect && budget > 0; i++) {
+            BlockPos pos = pending.poll();
+            Integer changeCount = verifications.get(pos);
+            boolean verification = changeCount != null;
+
+            // Discovery only cares about unknown dispensers (and only while enabled)
+            if (!verification && (!isEnabled() || MultiblockCacheManager.getMachineAt(pos) != null)) {
+                forget(pos);
+                continue;
+            }
+
+            BlockSnapshot snapshot = BlockSnapshot.capture(level, pos, bounds);
+            if (snapshot == null) {
+                // Part of the structure is in a chunk that hasn't arrived yet
+                int attempt = retries.merge(pos, 1, Integer::sum);
+                if (attempt < MAX_CAPTURE_RETRIES) {
+                    pending.add(pos);
+                } else {
+                    // Give up; an unverified entry is still checked lazily when opened
+                    forget(pos);
+                }
+                continue;
+            }
+
+            budget--;
+            forget(pos);
+            int expectedChanges = verification ? changeCount : 0;
+            try {
+                WORKERS.execute(() -> detect(snapshot, currentGeneration, scope, verification, expectedChanges));
+            } catch (RejectedExecutionException e) {
+                return; // pool shut down, client is stopping
+            }
+        }
+    }
+    
+    /**
+     * Worker-side detection
+     */
+    private static void detect(BlockSnapshot snapshot, int scanGeneration, String scope,
+                               boolean verification, int changeCount) {
+        try {
+            MultiblockDetector.DetectionResult result = MultiblockDetector.detect(snapshot);
+            // Verifications report "nothing found" too - that removes the entry
+            if (result != null || verification) {
+                discovered.add(new Discovery(scanGeneration, scope, snapshot.getOrigin(), verification, changeCount, result));
+            }
+        } catch (Exception e) {
+            BapelSlimefunMod.LOGGER.error("[Scanner] Detection failed at {}", snapshot.getOrigin(), e);
+        }
+    }
+
+    /**
+     * Move worker results into the cache in one batch
+     */
+    private static void publishDiscoveries() {
+        if (discovered.isEmpty()) return;
+
+        Map<String, List<MultiblockDetector.DetectionResult>> batches = new HashMap<>();
+        int currentGeneration = generation.get();
+        int verified = 0;
+        int removed = 0;
+
+        Discovery discovery;
+        while ((discovery = discovered.poll()) != null) {
+            if (discovery.generation != currentGeneration) continue;
+
+            if (!discovery.verification) {
+                batches.computeIfAbsent(discovery.scope, k -> new ArrayList<>()).add(discovery.result);
+                continue;
+            }
+
+            MultiblockCacheManager.CachedMultiblock cached = MultiblockCacheManager.getMachineAt(discovery.scope, discovery.pos);
+            // Entry gone, or invalidated again after the snapshot was taken
+            if (cached == null || cached.getChangeCount() != discovery.changeCount) continue;
+
+            if (MultiblockCacheManager.applyVerification(discovery.scope, discovery.pos, discovery.result) != null) {
+                verified++;
+            } else {
+                removed++;
+            }
+        }
+
+        if (verified > 0 || removed > 0) {
+            BapelSlimefunMod.LOGGER.info("[Scanner] Verified {} cached multiblock(s), removed {}", verified, removed);
+        }
+
+        for (Map.Entry<String, List<MultiblockDetector.DetectionResult>> batch : batches.entrySet()) {
+            int added = MultiblockCacheManager.addMachines(batch.getKey(), batch.getValue());
+            if (added > 0) {
+                BapelSlimefunMod.LOGGER.info("[Scanner] Cached {} multiblock(s) from loaded chunks", added);
+            }
+        }
+    }
+
+    private static void forget(BlockPos pos) {
+        queued.remove(pos);
+        retries.remove(pos);
+        verifications.remove(pos);
+    }
+
+    /**
+     * Drop all queued work (disconnect / world change)
+     */
+    public static void reset() {
+        generation.incrementAndGet();
+        pending.clear();
+        queued.clear();
+        retries.clear();
+        verifications.clear();
+        discovered.clear();
+    }
+
+    /**
+     * Stop the worker pool (client stopping); queued detections are dropped
+     */
+    public static void shutdown() {
+        reset();
+        WORKERS.shutdownNow();
+    }
+
+    /**
+     * Queue size for debug output
+     */
+    public static int getPendingCount() {
+        return pending.size();
+    }
+}
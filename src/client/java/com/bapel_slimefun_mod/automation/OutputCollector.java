@@ -0,0 +1,192 @@
+package com.bapel_slimefun_mod.automation;
+
+import com.bapel_slimefun_mod.BapelSlimefunMod;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.player.LocalPlayer;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.ClickType;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BaseContainerBlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.DispenserBlockEntity;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.Vec3;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Empties the output container of a multiblock into the player inventory
+ *
+ * Slimefun puts multiblock results into a container touching the dispenser
+ * (checked in UP, DOWN, NORTH, EAST, SOUTH, WEST order) and falls back to the
+ * dispenser itself. learn() picks the same neighbour and stores it on the
+ * cached machine; collection opens it, quick-moves every slot and closes it.
+ *
+ * Nothing is read before the container contents arrived (menu state id set, or
+ * CONTENT_WAIT_TICKS after opening), and at most ClickPlanner.MAX_CLICKS_PER_TICK
+ * quick-moves are sent per tick, so servers with click-rate checks see the same
+ * pace as the dispenser filler.
+ *
+ * Driven by ProductionLoop: begin() once, then tick() until it is no longer RUNNING.
+ */
+public class OutputCollector {
+
+    public enum Status { RUNNING, DONE, INVENTORY_FULL, FAILED }
+
+    private static final Direction[] OUTPUT_FACES = {
+        Direction.UP, Direction.DOWN, Direction.NORTH, Direction.EAST, Direction.SOUTH, Direction.WEST
+    };
+    private static final long OPEN_TIMEOUT = 2000;
+    private static final int PLAYER_SLOTS = 36; // main inventory + hotbar at the end of every container menu
+    private static final int CONTENT_WAIT_TICKS = 10; // fallback if the state id never changes
+
+    private static BlockPos outputPos = null;
+    private static boolean opened = false;
+    private static long openedAt = 0;
+    private static long openedTick = 0;
+    private static int nextSlot = 0;
+
+    // itemId -> items collected since the counters were reset
+    private static final Map<String, Integer> collected = new LinkedHashMap<>();
+    private static int totalCollected = 0;
+
+    /**
+     * Find (or re-check) the output container of a cached machine.
+     * @return the container position, or null if results go into the dispenser itself
+     */
+    public static BlockPos learn(Level level, MultiblockCacheManager.CachedMultiblock machine) {
+        if (level == null || machine == null) return null;
+
+        BlockPos known = machine.getOutputPos();
+        if (known != null && isOutputContainer(level, known)) {
+            return known;
+        }
+
+        BlockPos found = null;
+        for (Direction face : OUTPUT_FACES) {
+            BlockPos candidate = machine.getPosition().relative(face);
+            if (isOutputContainer(level, candidate)) {
+                found = candidate.immutable();
+                break;
+            }
+        }
+
+        if (found != null || known != null) {
+            MultiblockCacheManager.updateOutputPos(machine.getPosition(), found);
+            BapelSlimefunMod.LOGGER.info("[OutputCollector] {} output: {}",
+                machine.getMachineName(), found != null ? found : "dispenser");
+        }
+        return found;
+    }
+
+    private static boolean isOutputContainer(Level level, BlockPos pos) {
+        BlockEntity entity = level.getBlockEntity(pos);
+        return entity instanceof BaseContainerBlockEntity && !(entity instanceof DispenserBlockEntity);
+    }
+
+    /**
+     * Start collecting from {@code pos}; the caller must have no screen open
+     */
+    public static void begin(BlockPos pos) {
+        outputPos = pos.immutable();
+        opened = false;
+        openedAt = System.currentTimeMillis();
+        nextSlot = 0;
+
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.player == null || mc.gameMode == null) return;
+
+        BlockHitResult hit = new BlockHitResult(Vec3.atCenterOf(outputPos), Direction.UP, outputPos, false);
+        mc.gameMode.useItemOn(mc.player, InteractionHand.MAIN_HAND, hit);
+    }
+
+    public static Status tick() {
+        Minecraft mc = Minecraft.getInstance();
+        LocalPlayer player = mc.player;
+        if (player == null || mc.gameMode == null || outputPos == null) {
+            return Status.FAILED;
+        }
+
+        if (!outputPos.equals(InteractionTracker.getOpenedBlockPos())) {
+            if (opened) {
+                // Closed under us (player or server)
+                outputPos = null;
+                return Status.DONE;
+            }
+            if (System.currentTimeMillis() - openedAt >= OPEN_TIMEOUT) {
+                outputPos = null;
+                return Status.FAILED;
+            }
+            return Status.RUNNING;
+        }
+        if (!opened) {
+            opened = true;
+            openedTick = TickScheduler.getCurrentTick();
+        }
+
+        AbstractContainerMenu menu = player.containerMenu;
+
+        // Contents packet not handled yet: every slot would look empty
+        if (menu.getStateId() == 0 && TickScheduler.getCurrentTick() - openedTick < CONTENT_WAIT_TICKS) {
+            return Status.RUNNING;
+        }
+
+        int containerSize = menu.slots.size() - PLAYER_SLOTS;
+        boolean full = false;
+        int clicks = 0;
+
+        // Quick-move is predicted locally, so the menu already shows what moved
+        for (; nextSlot < containerSize; nextSlot++) {
+            ItemStack before = menu.getSlot(nextSlot).getItem();
+            if (before.isEmpty()) continue;
+            if (clicks >= ClickPlanner.MAX_CLICKS_PER_TICK) {
+                return Status.RUNNING; // continue from this slot next tick
+            }
+
+            String itemId = AutomationUtils.getItemId(before);
+            int countBefore = before.getCount();
+
+            mc.gameMode.handleInventoryMouseClick(menu.containerId, nextSlot, 0, ClickType.QUICK_MOVE, player);
+            clicks++;
+
+            ItemStack after = menu.getSlot(nextSlot).getItem();
+            int moved = countBefore - (after.isEmpty() ? 0 : after.getCount());
+            if (moved > 0) {
+                collected.merge(itemId, moved, Integer::sum);
+                totalCollected += moved;
+            }
+            if (!after.isEmpty()) {
+                full = true;
+                break;
+            }
+        }
+
+        player.closeContainer();
+        outputPos = null;
+
+        if (full) {
+            BapelSlimefunMod.LOGGER.info("[OutputCollector] Inventory full, {} items collected so far", totalCollected);
+            return Status.INVENTORY_FULL;
+        }
+        return Status.DONE;
+    }
+
+    public static int getTotalCollected() {
+        return totalCollected;
+    }
+
+    public static Map<String, Integer> getCollected() {
+        return Collections.unmodifiableMap(collected);
+    }
+
+    public static void resetCounters() {
+        collected.clear();
+        totalCollected = 0;
+    }
+}
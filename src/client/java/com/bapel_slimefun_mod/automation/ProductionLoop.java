@@ -0,0 +1,433 @@
+package com.bapel_slimefun_mod.automation;
+
+import com.bapel_slimefun_mod.BapelSlimefunMod;
+import com.bapel_slimefun_mod.config.ModConfig;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.player.LocalPlayer;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.inventory.DispenserMenu;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * Closed-loop multiblock production
+ *
+ * Cycle: OPENING (use the dispenser) -> FILLING (MultiblockAutomationHandler fills it)
+ * -> CLOSING (close GUI, onContainerClose starts the auto-clicker) -> CLICKING
+ * (wait for the clicker) -> [COLLECTING every few cycles] -> OPENING ...
+ *
+ * If the machine has an output container (see OutputCollector) it is emptied
+ * every COLLECT_EVERY_CYCLES cycles and once more before the loop stops, so a
+ * full output chest never blocks the next craft.
+ *
+ * Stops when the inventory can no longer fill one craft, the configured target
+ * is reached, automation is turned off, or the player leaves reach / interferes.
+ */
+public class ProductionLoop {
+
+    private enum State { IDLE, OPENING, FILLING, CLOSING, CLICKING, COLLECTING, COOLDOWN }
+
+    private static final long OPEN_TIMEOUT = 2000;
+    private static final int MAX_OPEN_ATTEMPTS = 3;
+    private static final long FILL_TIMEOUT = 5000;
+    private static final long CLICK_TIMEOUT = 60000;
+    private static final long COOLDOWN = 250;        // let the server process the last click
+    private static final double MAX_REACH_SQR = 4.5 * 4.5;
+    private static final int COLLECT_EVERY_CYCLES = 4;
+
+    private static State state = State.IDLE;
+    private static long stateSince = 0;
+    private static int openAttempts = 0;
+
+    private static BlockPos dispenserPos = null;
+    private static String machineId = null;
+    private static String recipeId = null;
+    private static int targetItems = 0; // 0 = until materials run out
+    private static BlockPos outputPos = null; // null = results stay in the dispenser
+    private static String pendingStopReason = null; // stop once the final collection is done
+
+    // Dispenser the player closed last (start point when O is pressed in the world)
+    private static BlockPos lastDispenserPos = null;
+    private static String lastMachineId = null;
+
+    // Metrics
+    private static long startTime = 0;
+    private static long cycleStart = 0;
+    private static int cycles = 0;
+    private static int crafts = 0;
+    private static long totalCycleMs = 0;
+
+    /**
+     * O key: start on the open / last used dispenser, or stop a running loop
+     */
+    public static void toggle() {
+        if (isRunning()) {
+            stop("Stopped by user");
+        } else {
+            start();
+        }
+    }
+
+    public static void start() {
+        Minecraft mc = Minecraft.getInstance();
+        LocalPlayer player = mc.player;
+        if (player == null) return;
+
+        if (!UnifiedAutomationManager.isAutomationEnabled()) {
+            message(player, "§c✗ Enable automation first (K)");
+            return;
+        }
+
+        String recipe = MultiblockAutomationHandler.getSelectedRecipe();
+        if (recipe == null) {
+            message(player, "§c✗ Select a multiblock recipe first (R)");
+            return;
+        }
+
+        boolean dispenserOpen = player.containerMenu instanceof DispenserMenu
+            && UnifiedAutomationManager.getCurrentDispenserPos() != null;
+
+        BlockPos pos = dispenserOpen ? UnifiedAutomationManager.getCurrentDispenserPos() : lastDispenserPos;
+        String machine = dispenserOpen && UnifiedAutomationManager.getCurrentMachine() != null
+            ? UnifiedAutomationManager.getCurrentMachine().getId()
+            : lastMachineId;
+
+        if (pos == null || machine == null) {
+            message(player, "§c✗ Open the multiblock's dispenser once first");
+            return;
+        }
+
+        RecipeData data = RecipeDatabase.getRecipe(recipe);
+        if (data == null || !machine.equals(data.getMachineId())) {
+            message(player, "§c✗ Selected recipe does not belong to this machine");
+            return;
+        }
+
+        dispenserPos = pos.immutable();
+        machineId = machine;
+        recipeId = recipe;
+        outputPos = OutputCollector.learn(mc.level, MultiblockCacheManager.getMachineAt(dispenserPos));
+        pendingStopReason = null;
+        OutputCollector.resetCounters();
+
+        ModConfig config = BapelSlimefunMod.getConfig();
+        targetItems = config != null ? config.getProductionTargetItems() : 0;
+
+        startTime = System.currentTimeMillis();
+        cycleStart = startTime;
+        cycles = 0;
+        crafts = 0;
+        totalCycleMs = 0;
+        openAttempts = 0;
+
+        setState(dispenserOpen ? State.FILLING : State.OPENING);
+
+        BapelSlimefunMod.LOGGER.info("[Production] Started {} at {} (recipe {}, target {})",
+            machineId, dispenserPos, recipeId, targetItems > 0 ? targetItems : "unlimited");
+        player.displayClientMessage(Component.literal(String.format(
+            "§a▶ Production loop STARTED §7(target: %s)",
+            targetItems > 0 ? targetItems + " items" : "until materials run out")), false);
+    }
+
+    public static void stop(String reason) {
+        if (state == State.IDLE) return;
+
+        state = State.IDLE;
+        MultiblockAutoClicker.disable(dispenserPos);
+        MultiblockAutomationHandler.setCraftLimit(0);
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+        BapelSlimefunMod.LOGGER.info("[Production] Stopped ({}) - {} cycles, {} items in {}s, {} items/h, {} collected",
+            reason, cycles, getItemsProduced(), elapsed / 1000, getItemsPerHour(), OutputCollector.getTotalCollected());
+
+        Minecraft mc = Minecraft.getInstance();
+        if (mc.player != null) {
+            mc.player.displayClientMessage(Component.literal(String.format(
+                "§c■ Production loop STOPPED - %s §7(%d cycles, %d items, %d items/h, %d collected)",
+                reason, cycles, getItemsProduced(), getItemsPerHour(), OutputCollector.getTotalCollected())), false);
+        }
+    }
+
+    /**
+     * Dispenser GUI closed (any close, ours or the player's)
+     */
+    public static void onDispenserClosed(BlockPos pos, String machine) {
+        if (pos == null || machine == null) return;
+        lastDispenserPos = pos.immutable();
+        lastMachineId = machine;
+    }
+
+    /**
+     * Called from UnifiedAutomationManager.tick (throttled to 50ms)
+     */
+    public static void tick() {
+        if (state == State.IDLE) return;
+
+        Minecraft mc = Minecraft.getInstance();
+        LocalPlayer player = mc.player;
+        if (player == null || mc.level == null || mc.gameMode == null) {
+            stop("Left world");
+            return;
+        }
+
+        if (!UnifiedAutomationManager.isAutomationEnabled()) {
+            stop("Automation disabled");
+            return;
+        }
+        if (!recipeId.equals(MultiblockAutomationHandler.getSelectedRecipe())) {
+            stop("Recipe changed");
+            return;
+        }
+        if (player.distanceToSqr(Vec3.atCenterOf(dispenserPos)) > MAX_REACH_SQR) {
+            stop("Out of reach");
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long inState = now - stateSince;
+
+        switch (state) {
+            case OPENING: {
+                if (isOurDispenserOpen(player)) {
+                    setState(State.FILLING);
+                    return;
+                }
+                if (mc.screen != null) {
+                    // Player is in another GUI - wait, don't click through it, but not forever
+                    if (inState >= OPEN_TIMEOUT) {
+                        stop("Blocked by another GUI");
+                    }
+                    return;
+                }
+                if (openAttempts == 0 || inState >= OPEN_TIMEOUT) {
+                    if (openAttempts >= MAX_OPEN_ATTEMPTS) {
+                        stop("Dispenser did not open");
+                        return;
+                    }
+                    openAttempts++;
+                    stateSince = now;
+                    useDispenser(mc, player);
+                }
+                return;
+            }
+
+            case FILLING: {
+                if (!isOurDispenserOpen(player)) {
+                    stop("Dispenser closed during fill");
+                    return;
+                }
+                // Wait for a fill evaluation made after the GUI opened
+                if (MultiblockAutomationHandler.getLastEvaluationTime() < stateSince) {
+                    return;
+                }
+                if (MultiblockAutomationHandler.getCraftsPerFill() == 0
+                        && MultiblockAutomationHandler.getCalculatedClickCount() == 0) {
+                    player.closeContainer();
+                    finish("Out of materials");
+                    return;
+                }
+                if (MultiblockAutomationHandler.isDispenserReady()) {
+                    setState(State.CLOSING);
+                    player.closeContainer(); // onContainerClose() starts the auto-clicker
+                    return;
+                }
+                if (inState >= FILL_TIMEOUT) {
+                    player.closeContainer();
+                    stop("Fill did not complete");
+                }
+                return;
+            }
+
+            case CLOSING: {
+                if (MultiblockAutoClicker.isRunningAt(dispenserPos)) {
+                    setState(State.CLICKING);
+                } else if (inState >= OPEN_TIMEOUT) {
+                    stop("Auto-click did not start");
+                }
+                return;
+            }
+
+            case CLICKING: {
+                if (MultiblockAutoClicker.isRunningAt(dispenserPos)) {
+                    if (inState >= CLICK_TIMEOUT) {
+                        stop("Auto-click timed out");
+                    }
+                    return;
+                }
+                if (!MultiblockAutoClicker.wasLastRunCompleted(dispenserPos)) {
+                    stop("Auto-click interrupted");
+                    return;
+                }
+                finishCycle(player, now);
+                return;
+            }
+
+            case COLLECTING: {
+                OutputCollector.Status status = OutputCollector.tick();
+                if (status == OutputCollector.Status.RUNNING) {
+                    return;
+                }
+                if (status == OutputCollector.Status.INVENTORY_FULL) {
+                    stop("Inventory full");
+                    return;
+                }
+                if (status == OutputCollector.Status.FAILED) {
+                    BapelSlimefunMod.LOGGER.warn("[Production] Output container at {} did not open", outputPos);
+                }
+                if (pendingStopReason != null) {
+                    stop(pendingStopReason);
+                    return;
+                }
+                setState(State.COOLDOWN);
+                return;
+            }
+
+            case COOLDOWN: {
+                if (inState >= COOLDOWN) {
+                    openAttempts = 0;
+                    setState(State.OPENING);
+                }
+                return;
+            }
+
+            default:
+                break;
+        }
+    }
+
+    private static void finishCycle(LocalPlayer player, long now) {
+        cycles++;
+        crafts += MultiblockAutoClicker.getLastRunClicks(dispenserPos);
+        long cycleMs = now - cycleStart;
+        totalCycleMs += cycleMs;
+        cycleStart = now;
+
+        BapelSlimefunMod.LOGGER.info("[Production] Cycle {} done in {}ms - {} items total, {} items/h",
+            cycles, cycleMs, getItemsProduced(), getItemsPerHour());
+        player.displayClientMessage(Component.literal(String.format(
+            "§a⟳ Cycle %d §7| %d items | %.1fs/cycle | %d items/h",
+            cycles, getItemsProduced(), getAverageCycleMs() / 1000.0, getItemsPerHour())), true);
+
+        if (targetItems > 0 && getItemsProduced() >= targetItems) {
+            finish("Target reached");
+            return;
+        }
+        if (outputPos != null && cycles % COLLECT_EVERY_CYCLES == 0) {
+            collect();
+            return;
+        }
+        setState(State.COOLDOWN);
+    }
+
+    /**
+     * Stop after a last collection (if the machine has an output container)
+     */
+    private static void finish(String reason) {
+        if (outputPos == null) {
+            stop(reason);
+            return;
+        }
+        pendingStopReason = reason;
+        collect();
+    }
+
+    private static void collect() {
+        setState(State.COLLECTING);
+        OutputCollector.begin(outputPos);
+    }
+
+    private static void useDispenser(Minecraft mc, LocalPlayer player) {
+        if (mc.level.getBlockState(dispenserPos).getBlock() != Blocks.DISPENSER) {
+            stop("Dispenser missing");
+            return;
+        }
+        BlockHitResult hit = new BlockHitResult(Vec3.atCenterOf(dispenserPos), Direction.UP, dispenserPos, false);
+        mc.gameMode.useItemOn(player, InteractionHand.MAIN_HAND, hit);
+    }
+
+    private static boolean isOurDispenserOpen(LocalPlayer player) {
+        return player.containerMenu instanceof DispenserMenu
+            && dispenserPos.equals(InteractionTracker.getOpenedBlockPos());
+    }
+
+    private static void setState(State next) {
+        if (next == State.FILLING) {
+            MultiblockAutomationHandler.setCraftLimit(getRemainingCrafts());
+        }
+        state = next;
+        stateSince = System.currentTimeMillis();
+    }
+
+    /**
+     * Crafts still needed for the target (rounded up), 0 = no target
+     */
+    private static int getRemainingCrafts() {
+        if (targetItems <= 0) return 0;
+        int remaining = targetItems - getItemsProduced();
+        return Math.max(1, (remaining + getItemsPerCraft() - 1) / getItemsPerCraft());
+    }
+
+    private static void message(LocalPlayer player, String text) {
+        player.displayClientMessage(Component.literal(text), true);
+    }
+
+    // ========================================
+    // METRICS
+    // ========================================
+
+    public static boolean isRunning() {
+        return state != State.IDLE;
+    }
+
+    /**
+     * Crafts done times the primary output amount of the recipe
+     */
+    public static int getItemsProduced() {
+        return crafts * getItemsPerCraft();
+    }
+
+    private static int getItemsPerCraft() {
+        RecipeData recipe = recipeId != null ? RecipeDatabase.getRecipe(recipeId) : null;
+        return recipe != null && recipe.getPrimaryOutput() != null
+            ? Math.max(1, recipe.getPrimaryOutput().getAmount())
+            : 1;
+    }
+
+    public static int getItemsPerHour() {
+        long elapsed = System.currentTimeMillis() - startTime;
+        if (startTime == 0 || elapsed <= 0) return 0;
+        return (int) (getItemsProduced() * 3_600_000L / elapsed);
+    }
+
+    public static long getAverageCycleMs() {
+        return cycles > 0 ? totalCycleMs / cycles : 0;
+    }
+
+    public static String getStatus() {
+        if (!isRunning()) {
+            return "§7Idle";
+        }
+        return String.format("§a%s §7| Cycles: §b%d §7| Items: §b%d§7%s | §b%d §7items/h | Collected: §b%d",
+            state, cycles, getItemsProduced(),
+            targetItems > 0 ? "/" + targetItems : "", getItemsPerHour(), OutputCollector.getTotalCollected());
+    }
+
+    /**
+     * Forget everything (disconnect)
+     */
+    public static void reset() {
+        state = State.IDLE;
+        MultiblockAutomationHandler.setCraftLimit(0);
+        dispenserPos = null;
+        machineId = null;
+        recipeId = null;
+        outputPos = null;
+        pendingStopReason = null;
+        lastDispenserPos = null;
+        lastMachineId = null;
+    }
+}
@@ -26,8 +26,7 @@ public class RecipeDatabase {
     private static final Map<String, Set<String>> RECIPES_BY_INPUT = new ConcurrentHashMap<>();
     
     private static final Map<String, List<RecipeData>> CRAFTABLE_CACHE = new ConcurrentHashMap<>();
-    private static long lastCacheClear = 0;
-    private static final long CACHE_CLEAR_INTERVAL = 5000;
+    public static final int CACHE_CLEAR_TICKS = 100; // 5s, cleared by a TickScheduler task
     
     private static boolean initialized = false;
     
@@ -267,8 +266,6 @@ public class RecipeDatabase {
     
     public static List<RecipeData> getCraftableRecipes(String machineId, 
                                                        List<net.minecraft.world.item.ItemStack> inventory) {
-        clearCacheIfNeeded();
-        
         String cacheKey = machineId + "_" + getInventoryHash(inventory);
         
         List<RecipeData> cached = CRAFTABLE_CACHE.get(cacheKey);
@@ -304,12 +301,8 @@ public class RecipeDatabase {
         return hash;
     }
     
-    private static void clearCacheIfNeeded() {
-        long now = System.currentTimeMillis();
-        if (now - lastCacheClear > CACHE_CLEAR_INTERVAL) {
-            CRAFTABLE_CACHE.clear();
-            lastCacheClear = now;
-        }
+    public static void clearCraftableCache() {
+        CRAFTABLE_CACHE.clear();
     }
     
     public static List<RecipeData> getRecipesSortedByCompletion(String machineId,
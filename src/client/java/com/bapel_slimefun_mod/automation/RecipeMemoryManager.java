@@ -1,16 +1,21 @@
 package com.bapel_slimefun_mod.automation;
 
 import com.bapel_slimefun_mod.BapelSlimefunMod;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.bapel_slimefun_mod.config.PersistenceService;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.Reader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.TreeMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import com.bapel_slimefun_mod.debug.PerformanceMonitor;
 
 /**
@@ -18,11 +23,14 @@ import com.bapel_slimefun_mod.debug.PerformanceMonitor;
  * Digunakan untuk Auto Mode - menyimpan recipe history per machine
  */
 public class RecipeMemoryManager {
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final PerformanceMonitor.Timer TIMER_REMEMBER_RECIPE = PerformanceMonitor.timer("Memory.rememberRecipe");
+    
     private static final String MEMORY_FILE = "recipe_memory.json";
+    private static final int SCHEMA_VERSION = 1;
+    private static final MemoryAdapter ADAPTER = new MemoryAdapter();
     
-    // Map: machineId -> recipeId
-    private static Map<String, String> recipeMemory = new HashMap<>();
+    // Map: machineId -> recipeId (concurrent: serialized on the persistence thread)
+    private static Map<String, String> recipeMemory = new ConcurrentHashMap<>();
     private static boolean isLoaded = false;
     
     /**
@@ -33,11 +41,11 @@ public class RecipeMemoryManager {
         
         if (Files.exists(memoryPath)) {
             try (Reader reader = Files.newBufferedReader(memoryPath)) {
-                recipeMemory = GSON.fromJson(reader, 
-                    new TypeToken<Map<String, String>>(){}.getType());
+                Map<String, String> loaded = ADAPTER.read(new JsonReader(reader));
                 
-                if (recipeMemory == null) {
-                    recipeMemory = new HashMap<>();
+                recipeMemory = new ConcurrentHashMap<>();
+                if (loaded != null) {
+                    recipeMemory.putAll(loaded);
                 }
                 
                 isLoaded = true;
@@ -48,12 +56,12 @@ public class RecipeMemoryManager {
         }
         
         // Create empty memory
-        recipeMemory = new HashMap<>();
+        recipeMemory = new ConcurrentHashMap<>();
         isLoaded = true;
     }
     
     /**
-     * Save recipe memory to file
+     * Save recipe memory to file (write-behind, see PersistenceService)
      */
     public static void save() {
         if (!isLoaded) {
@@ -61,18 +69,63 @@ public class RecipeMemoryManager {
             return;
         }
         
-        Path memoryPath = getMemoryPath();
+        Map<String, String> memory = recipeMemory;
+        PersistenceService.schedule(getMemoryPath(), () -> ADAPTER.toJson(new TreeMap<>(memory)));
+    }
+    
+    /**
+     * Streaming format: {"version":1,"recipes":{"MACHINE_ID":"RECIPE_ID",...}}
+     * Also reads the old flat {"MACHINE_ID":"RECIPE_ID"} map.
+     */
+    private static final class MemoryAdapter extends TypeAdapter<Map<String, String>> {
+        @Override
+        public void write(JsonWriter out, Map<String, String> memory) throws IOException {
+            out.beginObject();
+            out.name("version").value(SCHEMA_VERSION);
+            out.name("recipes");
+            out.beginObject();
+            for (Map.Entry<String, String> entry : memory.entrySet()) {
+                out.name(entry.getKey()).value(entry.getValue());
+            }
+            out.endObject();
+            out.endObject();
+        }
         
-        try {
-            // Create parent directories if they don't exist
-            Files.createDirectories(memoryPath.getParent());
+        @Override
+        public Map<String, String> read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
             
-            // Write memory to file
-            try (Writer writer = Files.newBufferedWriter(memoryPath)) {
-                GSON.toJson(recipeMemory, writer);
+            Map<String, String> memory = new HashMap<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (name.equals("recipes") && in.peek() == JsonToken.BEGIN_OBJECT) {
+                    readEntries(in, memory);
+                } else if (in.peek() == JsonToken.STRING) {
+                    // Old flat format
+                    memory.put(name, in.nextString());
+                } else {
+                    in.skipValue(); // "version"
+                }
+            }
+            in.endObject();
+            return memory;
+        }
+        
+        private static void readEntries(JsonReader in, Map<String, String> memory) throws IOException {
+            in.beginObject();
+            while (in.hasNext()) {
+                String machineId = in.nextName();
+                if (in.peek() == JsonToken.STRING) {
+                    memory.put(machineId, in.nextString());
+                } else {
+                    in.skipValue();
+                }
             }
-        } catch (Exception e) {
-            BapelSlimefunMod.LOGGER.error("[RecipeMemory] Failed to save memory", e);
+            in.endObject();
         }
     }
     
@@ -82,7 +135,7 @@ public class RecipeMemoryManager {
      * @param recipeId ID dari recipe yang dipilih
      */
     public static void rememberRecipe(String machineId, String recipeId) {
-        PerformanceMonitor.start("Memory.rememberRecipe");
+        TIMER_REMEMBER_RECIPE.start();
         try {
         if (!isLoaded) {
             load();
@@ -97,7 +150,7 @@ public class RecipeMemoryManager {
         save();
     
         } finally {
-            PerformanceMonitor.end("Memory.rememberRecipe");
+            TIMER_REMEMBER_RECIPE.end();
         }}
     
     /**
@@ -5,6 +5,8 @@ import org.lwjgl.glfw.GLFW;
 import com.bapel_slimefun_mod.debug.PerformanceMonitor;
 
 public class RecipeOverlayInputHandler {
+    private static final PerformanceMonitor.Timer TIMER_HANDLE_KEY_PRESS = PerformanceMonitor.timer("InputHandler.handleKeyPress");
+    private static final PerformanceMonitor.Timer TIMER_HANDLE_MOUSE_SCROLL = PerformanceMonitor.timer("InputHandler.handleMouseScroll");
     
     private static long lastInputTime = 0;
     private static final long INPUT_COOLDOWN = 50;
@@ -12,7 +14,7 @@ public class RecipeOverlayInputHandler {
     private static final long TOGGLE_COOLDOWN = 200;
     
     public static boolean handleKeyPress(int key, int scancode, int action, int modifiers) {
-        PerformanceMonitor.start("InputHandler.handleKeyPress");
+        TIMER_HANDLE_KEY_PRESS.start();
         try {
             if (action != GLFW.GLFW_PRESS && action != GLFW.GLFW_REPEAT) {
                 return false;
@@ -141,7 +143,7 @@ public class RecipeOverlayInputHandler {
             
             return handled;
         } finally {
-            PerformanceMonitor.end("InputHandler.handleKeyPress");
+            TIMER_HANDLE_KEY_PRESS.end();
         }
     }
     
@@ -163,7 +165,7 @@ public class RecipeOverlayInputHandler {
     }
     
     public static boolean handleMouseScroll(double scrollDelta) {
-        PerformanceMonitor.start("InputHandler.handleMouseScroll");
+        TIMER_HANDLE_MOUSE_SCROLL.start();
         try {
             if (!RecipeOverlayRenderer.isVisible()) {
                 return false;
@@ -179,7 +181,7 @@ public class RecipeOverlayInputHandler {
             
             return false;
         } finally {
-            PerformanceMonitor.end("InputHandler.handleMouseScroll");
+            TIMER_HANDLE_MOUSE_SCROLL.end();
         }
     }
     
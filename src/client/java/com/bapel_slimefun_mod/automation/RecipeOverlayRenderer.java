@@ -14,9 +14,15 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class RecipeOverlayRenderer {
+    private static final PerformanceMonitor.Timer TIMER_SHOW = PerformanceMonitor.timer("RecipeOverlay.show");
+    private static final PerformanceMonitor.Timer TIMER_SHOW_GLOBAL = PerformanceMonitor.timer("RecipeOverlay.showGlobal");
+    private static final PerformanceMonitor.Timer TIMER_FILTER = PerformanceMonitor.timer("RecipeOverlay.filter");
+    private static final PerformanceMonitor.Timer TIMER_REFRESH_SCORES = PerformanceMonitor.timer("RecipeOverlay.refreshScores");
+    private static final PerformanceMonitor.Timer TIMER_RENDER = PerformanceMonitor.timer("RecipeOverlay.render");
+    private static final PerformanceMonitor.Timer TIMER_REBUILD_VIEW = PerformanceMonitor.timer("RecipeOverlay.rebuildView");
+    
     private static final Gson GSON = new Gson();
     
     // State
@@ -27,8 +33,16 @@ public class RecipeOverlayRenderer {
     private static int scrollOffset = 0;
     private static SlimefunMachineData currentMachine = null;
     
+    // ✅ Global "what can I make" mode: recipes of every machine, from CraftableLookup
+    private static boolean globalMode = false;
+    private static int globalLoadedVersion = -1;
+    private static final Map<RecipeData, String> globalMachineNames = new IdentityHashMap<>();
+    // Position of each recipe's machine group in the lookup order (primary sort key)
+    private static final Map<RecipeData, Integer> globalGroupIndex = new IdentityHashMap<>();
+    
     // Search state
     private static String searchQuery = "";
+    private static RecipeSearchIndex searchIndex = null;
     private static boolean searchMode = false;
     private static long lastSearchInput = 0;
     
@@ -69,10 +83,40 @@ public class RecipeOverlayRenderer {
     private static long lastAlphaCalc = 0;
     private static final long ALPHA_CALC_INTERVAL = 16;
     
-    // Inventory cache (100ms)
+    // Inventory cache, rebuilt when Inventory.getTimesChanged() moves
     private static List<ItemStack> cachedInventory = null;
-    private static long lastInventoryCache = 0;
-    private static final long INVENTORY_CACHE_DURATION = 100;
+    private static int cachedInventoryVersion = -1;
+    
+    // ✅ Sort keys: one RecipeSummary per recipe per inventory version
+    private static final Map<RecipeData, RecipeScore> recipeScores = new IdentityHashMap<>();
+    private static int scoredInventoryVersion = -1;
+    
+    private record RecipeScore(float completion, boolean craftable) {}
+    
+    // ✅ View-model: pre-formatted text, colors and widths, rebuilt only when marked dirty
+    private static boolean viewDirty = true;
+    private static String titleText = "";
+    private static String countText = "";
+    private static String compactText = "";
+    private static int compactColor, compactBgColor, compactWidth;
+    private static String sortText = "";
+    private static int sortWidth;
+    private static String noResultsText = "";
+    private static int totalHeight;
+    private static final List<EntryView> visibleEntries = new ArrayList<>();
+    
+    private record EntryView(String name, int nameColor, int nameWidth, 
+                             ItemStack outputIcon, List<ItemIcon> inputIcons, 
+                             String moreInputs, int inputsColor, 
+                             String completion, int completionColor, int completionWidth, 
+                             boolean selected) {}
+    
+    // Ingredient icon with its pre-formatted amount (null = 1, no label)
+    private record ItemIcon(ItemStack stack, String amount) {}
+    
+    private static final int ICON_SIZE = 16;
+    private static final int ICON_STEP = 18;
+    private static final int MAX_INPUT_ICONS = 8;
     
     // Color cache
     private static int bgColor, borderColor, selectedBgColor, searchBgColor;
@@ -196,12 +240,16 @@ public class RecipeOverlayRenderer {
     }
     
     public static void show(SlimefunMachineData machine) {
-        PerformanceMonitor.start("RecipeOverlay.show");
+        TIMER_SHOW.start();
         try {
             if (machine == null) return;
             
             currentMachine = machine;
+            globalMode = false;
+            globalMachineNames.clear();
+            globalGroupIndex.clear();
             loadRecipesForMachine(machine);
+            invalidateScores();
             
             if (availableRecipes.isEmpty()) {
                 sendPlayerMessage("§c[Slimefun] No recipes for: " + machine.getName());
@@ -224,7 +272,100 @@ public class RecipeOverlayRenderer {
             cachedAlpha = 0;
             lastAlphaCalc = 0;
         } finally {
-            PerformanceMonitor.end("RecipeOverlay.show");
+            TIMER_SHOW.end();
+        }
+    }
+    
+    /**
+     * ✅ Show craftable / near-craftable recipes of all machines for the current inventory
+     */
+    public static void showGlobal() {
+        TIMER_SHOW_GLOBAL.start();
+        try {
+            currentMachine = null;
+            globalMode = true;
+            searchQuery = "";
+            searchMode = false;
+            selectedIndex = 0;
+            scrollOffset = 0;
+            
+            loadGlobalRecipes();
+            applyFilterAndSort();
+            
+            overlayVisible = true;
+            fadeStartTime = System.currentTimeMillis();
+            fadingIn = true;
+            
+            cachedInventory = null;
+            cachedAlpha = 0;
+            lastAlphaCalc = 0;
+            
+            if (availableRecipes.isEmpty()) {
+                sendPlayerMessage("§e[Slimefun] Nothing craftable with this inventory yet");
+            }
+        } finally {
+            TIMER_SHOW_GLOBAL.end();
+        }
+    }
+    
+    /**
+     * ✅ G: switch between the open machine's recipes and the global view
+     */
+    public static void toggleGlobal() {
+        if (overlayVisible && globalMode) {
+            SlimefunMachineData machine = UnifiedAutomationManager.getCurrentMachine();
+            if (machine != null) {
+                show(machine);
+            } else {
+                hide();
+            }
+        } else {
+            showGlobal();
+        }
+    }
+    
+    private static void loadGlobalRecipes() {
+        List<CraftableLookup.MachineGroup> groups = CraftableLookup.refresh();
+        
+        List<RecipeData> recipes = new ArrayList<>();
+        globalMachineNames.clear();
+        globalGroupIndex.clear();
+        recipeScores.clear();
+        
+        for (int g = 0; g < groups.size(); g++) {
+            CraftableLookup.MachineGroup group = groups.get(g);
+            for (CraftableLookup.Match match : group.matches()) {
+                recipes.add(match.recipe());
+                globalMachineNames.put(match.recipe(), group.machineName());
+                globalGroupIndex.put(match.recipe(), g);
+                recipeScores.put(match.recipe(), new RecipeScore(match.completion(), match.craftable()));
+            }
+        }
+        
+        // Scores come straight from the lookup, same inventory version
+        scoredInventoryVersion = CraftableLookup.getVersion();
+        globalLoadedVersion = CraftableLookup.getVersion();
+        viewDirty = true;
+        
+        availableRecipes = recipes;
+        searchIndex = new RecipeSearchIndex(recipes);
+    }
+    
+    /**
+     * ✅ Live refresh of the global view when the inventory changes, keeping the selection
+     */
+    private static void refreshGlobalIfInventoryChanged() {
+        CraftableLookup.refresh();
+        if (CraftableLookup.getVersion() == globalLoadedVersion) return;
+        
+        RecipeData selected = selectedIndex < filteredRecipes.size() ? filteredRecipes.get(selectedIndex) : null;
+        loadGlobalRecipes();
+        applyFilterAndSort();
+        
+        if (selected != null) {
+            int index = filteredRecipes.indexOf(selected);
+            if (index >= 0) selectedIndex = index;
+            updateScrollOffset();
         }
     }
     
@@ -233,8 +374,13 @@ public class RecipeOverlayRenderer {
         
         overlayVisible = false;
         currentMachine = null;
+        globalMode = false;
+        globalMachineNames.clear();
+        globalGroupIndex.clear();
         availableRecipes = new ArrayList<>();
         filteredRecipes = new ArrayList<>();
+        searchIndex = null;
+        invalidateScores();
         
         searchQuery = "";
         searchMode = false;
@@ -266,6 +412,7 @@ public class RecipeOverlayRenderer {
         searchMode = !searchMode;
         if (searchMode) {
             searchQuery = "";
+            viewDirty = true;
             sendPlayerMessage("§e[Search] Type to filter recipes...");
         } else {
             searchQuery = "";
@@ -333,47 +480,52 @@ public class RecipeOverlayRenderer {
     }
     
     private static void applyFilterAndSort() {
-        filteredRecipes = new ArrayList<>(availableRecipes);
-        
-        if (!searchQuery.isEmpty()) {
-            String query = searchQuery.toLowerCase();
-            filteredRecipes = filteredRecipes.stream()
-                .filter(recipe -> {
-                    String displayName = recipe.getDisplayString().toLowerCase();
-                    return displayName.contains(query);
-                })
-                .collect(Collectors.toList());
+        TIMER_FILTER.start();
+        try {
+            if (searchQuery.isEmpty() || searchIndex == null) {
+                filteredRecipes = new ArrayList<>(availableRecipes);
+            } else {
+                // ✅ Narrows the previous matches when the query was extended
+                filteredRecipes = searchIndex.search(searchQuery);
+            }
+            
+            sortFiltered();
+        } finally {
+            TIMER_FILTER.end();
         }
         
-        Minecraft mc = Minecraft.getInstance();
-        LocalPlayer player = mc.player;
-        List<ItemStack> inventory = (player != null) ? getCachedPlayerInventory(player) : new ArrayList<>();
+        if (selectedIndex >= filteredRecipes.size()) {
+            selectedIndex = Math.max(0, filteredRecipes.size() - 1);
+        }
         
+        updateScrollOffset();
+    }
+    
+    /**
+     * ✅ Sort filteredRecipes with the cached scores - no inventory scans here
+     */
+    private static void sortFiltered() {
         switch (sortMode) {
             case NAME:
                 filteredRecipes.sort(Comparator.comparing(r -> r.getDisplayString()));
                 break;
                 
             case COMPLETION:
-                filteredRecipes.sort((a, b) -> {
-                    RecipeHandler.RecipeSummary summaryA = new RecipeHandler.RecipeSummary(inventory, a.getInputs());
-                    RecipeHandler.RecipeSummary summaryB = new RecipeHandler.RecipeSummary(inventory, b.getInputs());
-                    return Float.compare(summaryB.getCompletionPercentage(), summaryA.getCompletionPercentage());
-                });
+                refreshScores();
+                filteredRecipes.sort((a, b) -> 
+                    Float.compare(getScore(b).completion(), getScore(a).completion()));
                 break;
                 
             case CRAFTABLE:
+                refreshScores();
                 filteredRecipes.sort((a, b) -> {
-                    RecipeHandler.RecipeSummary summaryA = new RecipeHandler.RecipeSummary(inventory, a.getInputs());
-                    RecipeHandler.RecipeSummary summaryB = new RecipeHandler.RecipeSummary(inventory, b.getInputs());
-                    
-                    boolean canCraftA = summaryA.canCraft();
-                    boolean canCraftB = summaryB.canCraft();
+                    RecipeScore scoreA = getScore(a);
+                    RecipeScore scoreB = getScore(b);
                     
-                    if (canCraftA && !canCraftB) return -1;
-                    if (!canCraftA && canCraftB) return 1;
+                    if (scoreA.craftable() && !scoreB.craftable()) return -1;
+                    if (!scoreA.craftable() && scoreB.craftable()) return 1;
                     
-                    return Float.compare(summaryB.getCompletionPercentage(), summaryA.getCompletionPercentage());
+                    return Float.compare(scoreB.completion(), scoreA.completion());
                 });
                 break;
                 
@@ -382,10 +534,71 @@ public class RecipeOverlayRenderer {
                 break;
         }
         
-        if (selectedIndex >= filteredRecipes.size()) {
-            selectedIndex = Math.max(0, filteredRecipes.size() - 1);
+        // ✅ While searching, fuzzy relevance comes first (stable sort keeps the mode order for ties)
+        if (!searchQuery.isEmpty() && searchIndex != null) {
+            filteredRecipes.sort((a, b) -> Integer.compare(searchIndex.getScore(b), searchIndex.getScore(a)));
+        }
+        
+        // ✅ Global mode: machine groups stay together in lookup order, the above sorts apply within each group
+        if (globalMode) {
+            filteredRecipes.sort(Comparator.comparingInt(r -> globalGroupIndex.getOrDefault(r, Integer.MAX_VALUE)));
+        }
+    }
+    
+    /**
+     * ✅ Recompute every recipe's score if the inventory changed since the last pass
+     * @return true if scores were recomputed
+     */
+    private static boolean refreshScores() {
+        LocalPlayer player = Minecraft.getInstance().player;
+        int version = player != null ? player.getInventory().getTimesChanged() : -1;
+        
+        if (version == scoredInventoryVersion && !recipeScores.isEmpty()) {
+            return false;
         }
         
+        TIMER_REFRESH_SCORES.start();
+        try {
+            List<ItemStack> inventory = (player != null) ? getCachedPlayerInventory(player) : new ArrayList<>();
+            
+            recipeScores.clear();
+            for (RecipeData recipe : availableRecipes) {
+                RecipeHandler.RecipeSummary summary = new RecipeHandler.RecipeSummary(inventory, recipe.getInputs());
+                recipeScores.put(recipe, new RecipeScore(summary.getCompletionPercentage(), summary.canCraft()));
+            }
+            scoredInventoryVersion = version;
+            viewDirty = true;
+            return true;
+        } finally {
+            TIMER_REFRESH_SCORES.end();
+        }
+    }
+    
+    private static RecipeScore getScore(RecipeData recipe) {
+        RecipeScore score = recipeScores.get(recipe);
+        return score != null ? score : new RecipeScore(0f, false);
+    }
+    
+    private static void invalidateScores() {
+        recipeScores.clear();
+        scoredInventoryVersion = -1;
+        viewDirty = true;
+    }
+    
+    /**
+     * ✅ Re-rank after an inventory change, keeping the selected recipe selected
+     */
+    private static void rerankIfInventoryChanged() {
+        if (!refreshScores()) return;
+        if (sortMode != SortMode.COMPLETION && sortMode != SortMode.CRAFTABLE) return;
+        
+        RecipeData selected = selectedIndex < filteredRecipes.size() ? filteredRecipes.get(selectedIndex) : null;
+        sortFiltered();
+        
+        if (selected != null) {
+            int index = filteredRecipes.indexOf(selected);
+            if (index >= 0) selectedIndex = index;
+        }
         updateScrollOffset();
     }
     
@@ -421,10 +634,11 @@ public class RecipeOverlayRenderer {
         } catch (Exception ignored) {}
         
         availableRecipes = newRecipes;
+        searchIndex = new RecipeSearchIndex(newRecipes);
     }
     
     public static void render(GuiGraphics graphics, float partialTicks) {
-        PerformanceMonitor.start("RecipeOverlay.render");
+        TIMER_RENDER.start();
         try {
             Minecraft mc = Minecraft.getInstance();
             if (mc.screen == null) {
@@ -433,13 +647,17 @@ public class RecipeOverlayRenderer {
             }
             
             // Allow overlay to show even with empty results (for search mode)
-            if (!overlayVisible || currentMachine == null) {
+            if (!overlayVisible || (currentMachine == null && !globalMode)) {
                 return;
             }
             
             int alpha = getCachedAlpha();
             if (alpha <= 0) return;
             
+            if (globalMode) refreshGlobalIfInventoryChanged();
+            rerankIfInventoryChanged();
+            if (viewDirty) rebuildView();
+            
             try {
                 int yPos = posY;
                 
@@ -456,7 +674,7 @@ public class RecipeOverlayRenderer {
                 
             } catch (Exception ignored) {}
         } finally {
-            PerformanceMonitor.end("RecipeOverlay.render");
+            TIMER_RENDER.end();
         }
     }
     
@@ -502,11 +720,6 @@ public class RecipeOverlayRenderer {
             currentX = posX + 4;
             
             // Compact button
-            String compactText = compactMode ? "Compact" : "Normal";
-            int compactColor = compactMode ? 0xFF00FF00 : 0xFF888888;
-            int compactBgColor = compactMode ? 0xE0003030 : 0xE0202020;
-            int compactWidth = mc.font.width(compactText) + 12;
-            
             graphics.fill(currentX, buttonY, currentX + compactWidth, buttonY + buttonHeight, 
                          applyAlpha(compactBgColor, alpha));
             graphics.drawString(mc.font, compactText, currentX + 6, buttonY + 6, compactColor);
@@ -514,18 +727,13 @@ public class RecipeOverlayRenderer {
             currentX += compactWidth + buttonSpacing;
             
             // Sort button
-            String sortText = sortMode.getDisplayName();
-            int sortWidth = mc.font.width(sortText) + 12;
-            int sortBgColor = 0xE0202020;
-            
             graphics.fill(currentX, buttonY, currentX + sortWidth, buttonY + buttonHeight,
-                         applyAlpha(sortBgColor, alpha));
+                         applyAlpha(0xE0202020, alpha));
             graphics.drawString(mc.font, sortText, currentX + 6, buttonY + 6, 0xFF5599FF);
             
             currentX += sortWidth + buttonSpacing;
             
             // Recipe count
-            String countText = "(" + filteredRecipes.size() + "/" + availableRecipes.size() + ")";
             graphics.drawString(mc.font, countText, currentX, buttonY + 6, 0xFF888888);
             
             return buttonY + buttonHeight;
@@ -560,7 +768,6 @@ public class RecipeOverlayRenderer {
     
     private static void renderBackground(GuiGraphics graphics, int yPos, int alpha) {
         try {
-            int totalHeight = calculateTotalHeight();
             int bgAlpha = Math.max(220, alpha);
             
             int finalBgColor = applyAlpha(bgColor, bgAlpha);
@@ -585,11 +792,10 @@ public class RecipeOverlayRenderer {
     private static int renderTitle(GuiGraphics graphics, int yPos, int alpha) {
         try {
             Minecraft mc = Minecraft.getInstance();
-            String title = currentMachine.getName() + " Recipes";
             int titleColor = 0xFFFFFF00;
             
-            graphics.drawCenteredString(mc.font, title, posX + width / 2 + 1, yPos + 1, 0xFF000000);
-            graphics.drawCenteredString(mc.font, title, posX + width / 2, yPos, titleColor);
+            graphics.drawCenteredString(mc.font, titleText, posX + width / 2 + 1, yPos + 1, 0xFF000000);
+            graphics.drawCenteredString(mc.font, titleText, posX + width / 2, yPos, titleColor);
             
             return yPos + mc.font.lineHeight + spacing;
         } catch (Exception e) { 
@@ -598,28 +804,15 @@ public class RecipeOverlayRenderer {
     }
     
     private static int renderRecipeList(GuiGraphics graphics, int yPos, int alpha) {
-        if (filteredRecipes == null || filteredRecipes.isEmpty()) {
+        if (visibleEntries.isEmpty()) {
             Minecraft mc = Minecraft.getInstance();
-            String noResults = searchQuery.isEmpty() ? "No recipes available" : "No recipes match: " + searchQuery;
-            graphics.drawCenteredString(mc.font, noResults, posX + width / 2, yPos + 20, 0xFFFF5555);
+            graphics.drawCenteredString(mc.font, noResultsText, posX + width / 2, yPos + 20, 0xFFFF5555);
             return yPos + 40;
         }
         
         try {
-            Minecraft mc = Minecraft.getInstance();
-            LocalPlayer player = mc.player;
-            List<ItemStack> inventory = (player != null) ? getCachedPlayerInventory(player) : new ArrayList<>();
-            
-            int visibleCount = Math.min(maxVisible, filteredRecipes.size() - scrollOffset);
-            
-            for (int i = 0; i < visibleCount; i++) {
-                int recipeIndex = scrollOffset + i;
-                if (recipeIndex >= filteredRecipes.size()) break;
-                
-                RecipeData recipe = filteredRecipes.get(recipeIndex);
-                boolean isSelected = (recipeIndex == selectedIndex);
-                
-                yPos = renderRecipeEntry(graphics, yPos, recipe, isSelected, alpha, inventory);
+            for (EntryView entry : visibleEntries) {
+                yPos = renderRecipeEntry(graphics, yPos, entry, alpha);
                 yPos += spacing;
             }
             
@@ -630,9 +823,9 @@ public class RecipeOverlayRenderer {
     }
     
     private static List<ItemStack> getCachedPlayerInventory(LocalPlayer player) {
-        long now = System.currentTimeMillis();
+        int version = player.getInventory().getTimesChanged();
         
-        if (cachedInventory != null && now - lastInventoryCache < INVENTORY_CACHE_DURATION) {
+        if (cachedInventory != null && version == cachedInventoryVersion) {
             return cachedInventory;
         }
         
@@ -648,66 +841,51 @@ public class RecipeOverlayRenderer {
             cachedInventory = new ArrayList<>();
         }
         
-        lastInventoryCache = now;
+        cachedInventoryVersion = version;
         return cachedInventory;
     }
     
-    private static int renderRecipeEntry(GuiGraphics graphics, int yPos, RecipeData recipe, 
-                                        boolean isSelected, int alpha, List<ItemStack> inventory) {
+    /**
+     * ✅ Per-frame path: draw calls only, everything else comes from the view-model
+     */
+    private static int renderRecipeEntry(GuiGraphics graphics, int yPos, EntryView entry, int alpha) {
         try {
             Minecraft mc = Minecraft.getInstance();
             
-            int entryBg = isSelected ? applyAlpha(selectedBgColor, alpha) : applyAlpha(bgColor, alpha);
+            int entryBg = entry.selected() ? applyAlpha(selectedBgColor, alpha) : applyAlpha(bgColor, alpha);
             graphics.fill(posX + 4, yPos, posX + width - 4, yPos + entryHeight, entryBg);
             
-            int textX = posX + 8;
-            int textY = yPos + 4;
-            
-            String displayName = recipe.getDisplayString();
+            // Output icon on the left, text next to it
+            int iconY = compactMode ? yPos + (entryHeight - ICON_SIZE) / 2 : yPos + 4;
+            graphics.renderItem(entry.outputIcon(), posX + 8, iconY);
             
-            if (!searchQuery.isEmpty() && displayName.toLowerCase().contains(searchQuery.toLowerCase())) {
-                displayName = highlightMatch(displayName, searchQuery);
-            }
+            int textX = posX + 8 + ICON_SIZE + 4;
+            int textY = compactMode ? yPos + (entryHeight - mc.font.lineHeight) / 2 + 1 : yPos + 4;
             
-            int nameColor = isSelected ? 0xFFFFFF00 : 0xFFFFFFFF;
-            graphics.drawString(mc.font, displayName, textX, textY, nameColor);
-            textY += mc.font.lineHeight;
+            graphics.drawString(mc.font, entry.name(), textX, textY, entry.nameColor());
             
-            if (!compactMode && showInputCount) {
-                Map<String, Integer> inputs = recipe.getGroupedInputs();
-                StringBuilder inputStr = new StringBuilder();
-                int count = 0;
-                
-                for (Map.Entry<String, Integer> entry : inputs.entrySet()) {
-                    if (count > 0) inputStr.append(" + ");
-                    inputStr.append(formatItemName(entry.getKey()));
-                    if (entry.getValue() > 1) {
-                        inputStr.append(" x").append(entry.getValue());
-                    }
-                    count++;
-                    if (count >= 3 && inputs.size() > 3) { 
-                        inputStr.append("..."); 
-                        break; 
-                    }
+            if (entry.completion() != null) {
+                if (compactMode) {
+                    graphics.drawString(mc.font, entry.completion(), textX + entry.nameWidth() + 8, textY, entry.completionColor());
+                } else {
+                    int rightX = posX + width - 8 - entry.completionWidth();
+                    graphics.drawString(mc.font, entry.completion(), rightX, textY, entry.completionColor());
                 }
-                
-                int grayColor = isSelected ? 0xFFAAAAAA : 0xFF888888;
-                graphics.drawString(mc.font, inputStr.toString(), textX + 10, textY, grayColor);
-                textY += mc.font.lineHeight;
             }
             
-            if (showCompletion) {
-                RecipeHandler.RecipeSummary summary = new RecipeHandler.RecipeSummary(inventory, recipe.getInputs());
-                float completion = summary.getCompletionPercentage();
+            // Ingredient icons with amounts
+            if (entry.inputIcons() != null) {
+                int iconX = textX;
+                int rowY = textY + mc.font.lineHeight + 1;
                 
-                int completionColor = completion >= 1.0f ? 0xFF00FF00 : 0xFFFF5555;
-                String completionText = String.format("%.0f%%", completion * 100);
+                for (ItemIcon icon : entry.inputIcons()) {
+                    graphics.renderItem(icon.stack(), iconX, rowY);
+                    graphics.renderItemDecorations(mc.font, icon.stack(), iconX, rowY, icon.amount());
+                    iconX += ICON_STEP;
+                }
                 
-                if (compactMode) {
-                    int textWidth = mc.font.width(displayName);
-                    graphics.drawString(mc.font, completionText, textX + textWidth + 8, yPos + 4, completionColor);
-                } else {
-                    graphics.drawString(mc.font, completionText, textX + 10, textY, completionColor);
+                if (entry.moreInputs() != null) {
+                    graphics.drawString(mc.font, entry.moreInputs(), iconX + 2, rowY + 4, entry.inputsColor());
                 }
             }
             
@@ -717,6 +895,102 @@ public class RecipeOverlayRenderer {
         }
     }
     
+    /**
+     * ✅ Rebuild the view-model after recipes, filter, sort, selection, scroll,
+     * view mode or inventory version changed
+     */
+    private static void rebuildView() {
+        TIMER_REBUILD_VIEW.start();
+        try {
+            Minecraft mc = Minecraft.getInstance();
+            
+            if (globalMode) {
+                titleText = "What can I make";
+            } else {
+                titleText = currentMachine != null ? currentMachine.getName() + " Recipes" : "";
+            }
+            countText = "(" + filteredRecipes.size() + "/" + availableRecipes.size() + ")";
+            
+            compactText = compactMode ? "Compact" : "Normal";
+            compactColor = compactMode ? 0xFF00FF00 : 0xFF888888;
+            compactBgColor = compactMode ? 0xE0003030 : 0xE0202020;
+            compactWidth = mc.font.width(compactText) + 12;
+            
+            sortText = sortMode.getDisplayName();
+            sortWidth = mc.font.width(sortText) + 12;
+            
+            if (searchQuery.isEmpty()) {
+                noResultsText = globalMode ? "Nothing craftable yet" : "No recipes available";
+            } else {
+                noResultsText = "No recipes match: " + searchQuery;
+            }
+            
+            visibleEntries.clear();
+            int visibleCount = Math.min(maxVisible, filteredRecipes.size() - scrollOffset);
+            for (int i = 0; i < visibleCount; i++) {
+                int recipeIndex = scrollOffset + i;
+                visibleEntries.add(buildEntry(mc, filteredRecipes.get(recipeIndex), recipeIndex == selectedIndex));
+            }
+            
+            totalHeight = calculateTotalHeight();
+            viewDirty = false;
+        } finally {
+            TIMER_REBUILD_VIEW.end();
+        }
+    }
+    
+    private static EntryView buildEntry(Minecraft mc, RecipeData recipe, boolean isSelected) {
+        String displayName = recipe.getDisplayString();
+        
+        if (!searchQuery.isEmpty() && displayName.toLowerCase().contains(searchQuery.toLowerCase())) {
+            displayName = highlightMatch(displayName, searchQuery);
+        }
+        
+        if (globalMode) {
+            String machineName = globalMachineNames.get(recipe);
+            if (machineName != null) {
+                displayName = "§7[" + machineName + "]§r " + displayName;
+            }
+        }
+        
+        int nameColor = isSelected ? 0xFFFFFF00 : 0xFFFFFFFF;
+        
+        // Icons are resolved (and cached) here, never in the per-frame path
+        RecipeData.RecipeOutput primary = recipe.getPrimaryOutput();
+        ItemStack outputIcon = ItemStackResolver.resolve(primary != null ? primary.getItemId() : null);
+        
+        List<ItemIcon> inputIcons = null;
+        String moreInputs = null;
+        if (!compactMode && showInputCount) {
+            Map<String, Integer> grouped = recipe.getGroupedInputs();
+            inputIcons = new ArrayList<>(Math.min(grouped.size(), MAX_INPUT_ICONS));
+            
+            for (Map.Entry<String, Integer> entry : grouped.entrySet()) {
+                if (inputIcons.size() >= MAX_INPUT_ICONS) {
+                    moreInputs = "+" + (grouped.size() - MAX_INPUT_ICONS);
+                    break;
+                }
+                String amount = entry.getValue() > 1 ? String.valueOf(entry.getValue()) : null;
+                inputIcons.add(new ItemIcon(ItemStackResolver.resolve(entry.getKey()), amount));
+            }
+        }
+        int inputsColor = isSelected ? 0xFFAAAAAA : 0xFF888888;
+        
+        String completionText = null;
+        int completionColor = 0;
+        if (showCompletion) {
+            float completion = getScore(recipe).completion();
+            completionColor = completion >= 1.0f ? 0xFF00FF00 : 0xFFFF5555;
+            completionText = String.format("%.0f%%", completion * 100);
+        }
+        
+        int completionWidth = completionText != null ? mc.font.width(completionText) : 0;
+        
+        return new EntryView(displayName, nameColor, mc.font.width(displayName),
+            outputIcon, inputIcons, moreInputs, inputsColor, 
+            completionText, completionColor, completionWidth, isSelected);
+    }
+    
     private static String highlightMatch(String text, String query) {
         int index = text.toLowerCase().indexOf(query.toLowerCase());
         if (index >= 0) {
@@ -746,40 +1020,6 @@ public class RecipeOverlayRenderer {
         }
     }
     
-    private static final Map<String, String> formattedNames = new HashMap<>();
-    
-    private static String formatItemName(String itemId) {
-        if (itemId == null) return "Unknown";
-        
-        String cached = formattedNames.get(itemId);
-        if (cached != null) return cached;
-        
-        String formatted = itemId.replace("minecraft:", "")
-                                 .replace("_", " ")
-                                 .toLowerCase();
-        
-        String[] words = formatted.split(" ");
-        StringBuilder result = new StringBuilder();
-        
-        for (String word : words) {
-            if (result.length() > 0) result.append(" ");
-            if (word.length() > 0) {
-                result.append(Character.toUpperCase(word.charAt(0)));
-                if (word.length() > 1) {
-                    result.append(word.substring(1));
-                }
-            }
-        }
-        
-        String finalName = result.toString();
-        
-        if (formattedNames.size() < 1000) {
-            formattedNames.put(itemId, finalName);
-        }
-        
-        return finalName;
-    }
-    
     public static void moveUp() {
         if (filteredRecipes == null || filteredRecipes.isEmpty()) return;
         selectedIndex--;
@@ -799,6 +1039,8 @@ public class RecipeOverlayRenderer {
     }
     
     private static void updateScrollOffset() {
+        viewDirty = true;
+        
         if (filteredRecipes == null || filteredRecipes.isEmpty()) { 
             scrollOffset = 0; 
             return; 
@@ -825,6 +1067,17 @@ public class RecipeOverlayRenderer {
         }
         
         RecipeData selected = filteredRecipes.get(selectedIndex);
+        
+        // Global view: only recipes of the machine that is open can be selected
+        if (globalMode) {
+            SlimefunMachineData open = UnifiedAutomationManager.getCurrentMachine();
+            if (open == null || !open.getId().equals(selected.getMachineId())) {
+                String machineName = globalMachineNames.getOrDefault(selected, selected.getMachineId());
+                sendPlayerMessage("§e[Slimefun] Make this in: §f" + machineName);
+                return;
+            }
+        }
+        
         UnifiedAutomationManager.setSelectedRecipe(selected.getRecipeId());
         
         try {
@@ -839,6 +1092,7 @@ public class RecipeOverlayRenderer {
     
     // Getters
     public static boolean isVisible() { return overlayVisible; }
+    public static boolean isGlobalMode() { return globalMode; }
     public static int getSelectedIndex() { return selectedIndex; }
     public static List<RecipeData> getAvailableRecipes() { 
         return availableRecipes == null ? new ArrayList<>() : new ArrayList<>(availableRecipes); 
@@ -0,0 +1,146 @@
+package com.bapel_slimefun_mod.automation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fuzzy recipe search for the overlay
+ *
+ * Every recipe gets its lowercase keys once: the display string, and one key per
+ * output / ingredient (ItemRegistry display name plus the raw id). A query matches
+ * if its characters appear in order within a single key (subsequence), never
+ * spread over several items; the best key counts. Contiguous runs, word starts and
+ * prefix hits score higher, and name hits beat ingredient hits.
+ *
+ * Extending the query can only drop matches, so search() narrows the previous
+ * result set instead of rescanning every recipe.
+ */
+public class RecipeSearchIndex {
+
+    private static final int NAME_WEIGHT = 2;
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    // Last query and the entries that matched it
+    private String lastQuery = "";
+    private List<Entry> lastMatches;
+
+    // Scores of the last search, for ranking
+    private final Map<RecipeData, Integer> scores = new IdentityHashMap<>();
+
+    private static final class Entry {
+        final RecipeData recipe;
+        final String name;
+        final List<String> items;
+
+        Entry(RecipeData recipe, String name, List<String> items) {
+            this.recipe = recipe;
+            this.name = name;
+            this.items = items;
+        }
+    }
+
+    public RecipeSearchIndex(List<RecipeData> recipes) {
+        for (RecipeData recipe : recipes) {
+            entries.add(new Entry(recipe, recipe.getDisplayString().toLowerCase(Locale.ROOT), buildItemKeys(recipe)));
+        }
+        lastMatches = entries;
+    }
+
+    private static List<String> buildItemKeys(RecipeData recipe) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (RecipeData.RecipeOutput output : recipe.getOutputs()) {
+            addItemKey(keys, output.getItemId());
+        }
+        for (String itemId : recipe.getGroupedInputs().keySet()) {
+            addItemKey(keys, itemId);
+        }
+        return new ArrayList<>(keys);
+    }
+
+    private static void addItemKey(Set<String> keys, String itemId) {
+        if (itemId == null) return;
+        String key = ItemRegistry.getDisplayName(itemId) + " " + itemId.replace('_', ' ');
+        keys.add(key.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Recipes matching {@code query} in index order (use getScore() to rank them)
+     */
+    public List<RecipeData> search(String query) {
+        String q = query.toLowerCase(Locale.ROOT);
+        scores.clear();
+
+        List<Entry> candidates = !lastQuery.isEmpty() && q.startsWith(lastQuery) ? lastMatches : entries;
+        List<Entry> matches = new ArrayList<>(candidates.size());
+        List<RecipeData> result = new ArrayList<>(candidates.size());
+
+        for (Entry entry : candidates) {
+            int score = score(entry, q);
+            if (score > 0) {
+                matches.add(entry);
+                result.add(entry.recipe);
+                scores.put(entry.recipe, score);
+            }
+        }
+
+        lastQuery = q;
+        lastMatches = matches;
+        return result;
+    }
+
+    /**
+     * Score of {@code recipe} in the last search (0 = no match)
+     */
+    public int getScore(RecipeData recipe) {
+        Integer score = scores.get(recipe);
+        return score != null ? score : 0;
+    }
+
+    private static int score(Entry entry, String query) {
+        if (query.isEmpty()) return 1;
+
+        int best = fuzzyScore(entry.name, query) * NAME_WEIGHT;
+        for (String item : entry.items) {
+            best = Math.max(best, fuzzyScore(item, query));
+        }
+        return best;
+    }
+
+    /**
+     * Subsequence score of {@code query} in {@code text}, 0 if it does not match
+     */
+    static int fuzzyScore(String text, String query) {
+        int score = 0;
+        int run = 0;
+        int ti = 0;
+
+        for (int qi = 0; qi < query.length(); qi++) {
+            char c = query.charAt(qi);
+            int found = text.indexOf(c, ti);
+            if (found < 0) return 0;
+
+            if (found == ti && qi > 0) {
+                run++;
+                score += 2 + run;              // contiguous run
+            } else {
+                run = 0;
+                score += 1;
+            }
+            if (found == 0 || text.charAt(found - 1) == ' ') {
+                score += 3;                    // word start
+            }
+            ti = found + 1;
+        }
+
+        if (text.startsWith(query)) {
+            score += 10;
+        }
+        return score;
+    }
+}
@@ -163,7 +163,8 @@ public class SlimefunDataLoader {
                 JsonObject block = elem.getAsJsonObject();
                 String material = block.get("material").getAsString();
                 String name = block.get("name").getAsString();
-                structure.add(new SlimefunMachineData.MultiblockStructure(material, name));
+                boolean trigger = block.has("trigger") && block.get("trigger").getAsBoolean();
+                structure.add(new SlimefunMachineData.MultiblockStructure(material, name, trigger));
             }
         }
         
@@ -281,6 +282,13 @@ public class SlimefunDataLoader {
         return null;
     }
     
+    /**
+     * Get any machine by ID directly (no title matching)
+     */
+    public static SlimefunMachineData getMachineById(String machineId) {
+        return machineId != null ? MACHINES.get(machineId) : null;
+    }
+    
     /**
      * Get multiblock machine by ID directly
      */
@@ -320,5 +328,6 @@ public class SlimefunDataLoader {
         MACHINES.clear();
         loaded = false;
         loadData();
+        MultiblockDetector.invalidate();
     }
 }
\ No newline at end of file
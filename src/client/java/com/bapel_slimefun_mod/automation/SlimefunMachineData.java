@@ -97,13 +97,25 @@ public class SlimefunMachineData {
     public static class MultiblockStructure {
         private final String material;
         private final String name;
+        private final boolean trigger;
         
         public MultiblockStructure(String material, String name) {
+            this(material, name, false);
+        }
+        
+        public MultiblockStructure(String material, String name, boolean trigger) {
             this.material = material;
             this.name = name;
+            this.trigger = trigger;
         }
         
         public String getMaterial() { return material; }
         public String getName() { return name; }
+        
+        /**
+         * Explicitly marked as the block the player clicks to run the machine
+         * ("trigger": true); unmarked structures use MultiblockDetector's default rule
+         */
+        public boolean isTrigger() { return trigger; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,156 @@
+package com.bapel_slimefun_mod.automation;
+
+import com.bapel_slimefun_mod.BapelSlimefunMod;
+import com.bapel_slimefun_mod.debug.PerformanceMonitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * One scheduler for all per-tick automation work
+ *
+ * Tasks are due at a client tick and sit in a priority queue ordered by
+ * (due tick, priority, insertion). runTick() is called once per END_CLIENT_TICK
+ * and works through the due tasks under a nanosecond budget:
+ * - CRITICAL tasks always run (auto-clicker timing, anything the player waits on)
+ * - NORMAL tasks run while budget is left; one deferred MAX_DEFER_TICKS ticks runs anyway
+ * - DEFERRABLE tasks (background detection, cache upkeep) only run while budget is
+ *   left and otherwise spill into later ticks
+ *
+ * When the previous tick arrived late (frame under pressure) the budget is halved.
+ * Recurring tasks are re-queued {@code period} ticks after they ran.
+ * All methods run on the client thread.
+ */
+public final class TickScheduler {
+
+    public enum Priority { CRITICAL, NORMAL, DEFERRABLE }
+
+    private static final long BUDGET_NS = 2_000_000L;          // 2ms of a ~16ms frame
+    private static final long LATE_TICK_NS = 100_000_000L;     // 2 ticks apart = under pressure
+    private static final int MAX_DEFER_TICKS = 5;
+
+    private static final PriorityQueue<Task> queue = new PriorityQueue<>();
+    private static long currentTick = 0;
+    private static long sequence = 0;
+    private static long lastTickNanos = 0;
+
+    private TickScheduler() {}
+
+    /**
+     * Handle to a scheduled task
+     */
+    public static final class Task implements Comparable<Task> {
+        private final String name;
+        private final PerformanceMonitor.Timer timer; // distinct from the task's own timers
+        private final Priority priority;
+        private final int period; // 0 = one-shot
+        private final Runnable action;
+        private long dueTick;
+        private long order;
+        private boolean cancelled;
+
+        private Task(String name, Priority priority, int period, Runnable action) {
+            this.name = name;
+            this.timer = PerformanceMonitor.timer("Task." + name);
+            this.priority = priority;
+            this.period = period;
+            this.action = action;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (dueTick != other.dueTick) return Long.compare(dueTick, other.dueTick);
+            if (priority != other.priority) return priority.compareTo(other.priority);
+            return Long.compare(order, other.order);
+        }
+    }
+
+    /**
+     * Run {@code action} once, {@code delayTicks} ticks from now (0 = this/next tick)
+     */
+    public static Task schedule(String name, Priority priority, int delayTicks, Runnable action) {
+        Task task = new Task(name, priority, 0, action);
+        enqueue(task, currentTick + Math.max(0, delayTicks));
+        return task;
+    }
+
+    /**
+     * Run {@code action} every {@code periodTicks} ticks until cancelled
+     */
+    public static Task scheduleRepeating(String name, Priority priority, int periodTicks, Runnable action) {
+        Task task = new Task(name, priority, Math.max(1, periodTicks), action);
+        enqueue(task, currentTick);
+        return task;
+    }
+
+    private static void enqueue(Task task, long dueTick) {
+        task.dueTick = dueTick;
+        task.order = sequence++;
+        queue.add(task);
+    }
+
+    /**
+     * Called once per client tick
+     */
+    public static void runTick() {
+        currentTick++;
+
+        long start = System.nanoTime();
+        long budget = lastTickNanos != 0 && start - lastTickNanos > LATE_TICK_NS ? BUDGET_NS / 2 : BUDGET_NS;
+        lastTickNanos = start;
+
+        List<Task> deferred = new ArrayList<>();
+
+        while (!queue.isEmpty() && queue.peek().dueTick <= currentTick) {
+            Task task = queue.poll();
+            if (task.cancelled) continue;
+
+            boolean overBudget = System.nanoTime() - start >= budget;
+            boolean mustRun = task.priority == Priority.CRITICAL
+                || task.priority == Priority.NORMAL && currentTick - task.dueTick >= MAX_DEFER_TICKS;
+
+            if (overBudget && !mustRun) {
+                deferred.add(task);
+                continue;
+            }
+
+            run(task);
+
+            if (task.period > 0 && !task.cancelled) {
+                enqueue(task, currentTick + task.period);
+            }
+        }
+
+        // Keep their original due tick: they sort first next tick and age towards MAX_DEFER_TICKS
+        queue.addAll(deferred);
+
+        PerformanceMonitor.recordScheduler(System.nanoTime() - start, deferred.size(), queue.size());
+    }
+
+    private static void run(Task task) {
+        task.timer.start();
+        try {
+            task.action.run();
+        } catch (Exception e) {
+            BapelSlimefunMod.LOGGER.error("[Scheduler] Task {} failed", task.name, e);
+        } finally {
+            task.timer.end();
+        }
+    }
+
+    /**
+     * Client ticks since start (the time base for tick-based throttles)
+     */
+    public static long getCurrentTick() {
+        return currentTick;
+    }
+}
@@ -9,40 +9,35 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Blocks;
-import net.minecraft.world.phys.BlockHitResult;
-import net.minecraft.world.phys.HitResult;
 
 /**
  * ✅ PERFORMANCE OPTIMIZED VERSION
  * 
  * KEY OPTIMIZATIONS:
  * 1. Smart tick throttling - different intervals for different operations
- * 2. Cached dispenser position - avoid repeated raycasts
+ * 2. Exact dispenser position from the use-item packet (InteractionTracker) - no raycasts
  * 3. Early exit patterns - skip unnecessary work
  * 4. Lazy detection - only detect when needed
  * 5. Reduced logging - only log important events
  * 6. State tracking - avoid redundant operations
  */
 public class UnifiedAutomationManager {
+    private static final PerformanceMonitor.Timer TIMER_ON_MACHINE_OPEN = PerformanceMonitor.timer("UnifiedAuto.onMachineOpen");
+    private static final PerformanceMonitor.Timer TIMER_AUTO_DETECT = PerformanceMonitor.timer("AutoDetect.handle");
+    private static final PerformanceMonitor.Timer TIMER_ON_CONTAINER_CLOSE = PerformanceMonitor.timer("UnifiedAuto.onContainerClose");
+    private static final PerformanceMonitor.Timer TIMER_TICK = PerformanceMonitor.timer("UnifiedAuto.tick");
+    private static final PerformanceMonitor.Timer TIMER_SET_SELECTED_RECIPE = PerformanceMonitor.timer("UnifiedAuto.setSelectedRecipe");
     
     private static ModConfig config;
     private static SlimefunMachineData currentMachine = null;
     private static boolean automationEnabled = false;
     
-    // ✅ OPTIMIZATION: Separate tick intervals for different operations
-    private static long lastTickTime = 0;
-    private static long lastAutoClickerCheck = 0;
-    private static long lastMachineCheck = 0;
-    private static final long MIN_TICK_INTERVAL = 50;           // 50ms = 20 TPS
-    private static final long AUTO_CLICKER_CHECK_INTERVAL = 100; // 100ms = 10 TPS
-    private static final long MACHINE_CHECK_INTERVAL = 100;      // 200ms = 5 TPS
+    // ✅ OPTIMIZATION: Separate tick intervals for different operations (in client ticks, see TickScheduler)
+    public static final int MACHINE_CHECK_TICKS = 2;            // 100ms = 10 TPS
     
     // Cache
     private static MultiblockCacheManager.CachedMultiblock currentCachedMachine = null;
     private static BlockPos currentDispenserPos = null;
-    private static BlockPos cachedDispenserPos = null;
-    private static long lastDispenserPosCache = 0;
-    private static final long DISPENSER_CACHE_DURATION = 1000; // 1 second
     
     // State tracking
     private static boolean needsTick = false;
@@ -104,7 +99,7 @@ public class UnifiedAutomationManager {
      * ✅ OPTIMIZED: Reduced redundant checks and logging
      */
     public static void onMachineOpen(String title) {
-        PerformanceMonitor.start("UnifiedAuto.onMachineOpen");
+        TIMER_ON_MACHINE_OPEN.start();
         try {
             if (title == null) return;
             
@@ -113,7 +108,7 @@ public class UnifiedAutomationManager {
             
             try {
                 // ✅ CRITICAL: Detect machine change
-                SlimefunMachineData newMachine = SlimefunDataLoader.getMachineByTitle(title);
+                SlimefunMachineData newMachine = resolveOpenedMachine(title);
                 
                 boolean isDifferentMachine = false;
                 if (newMachine != null) {
@@ -131,11 +126,6 @@ public class UnifiedAutomationManager {
                         lastMachineId, newMachine != null ? newMachine.getId() : "null");
                 }
                 
-                // ✅ Stop auto-clicker if machine changed
-                if (isDifferentMachine && MultiblockAutoClicker.isEnabled()) {
-                    MultiblockAutoClicker.forceStop();
-                }
-                
                 // ✅ Update current machine FIRST
                 currentMachine = newMachine;
                 if (newMachine != null) {
@@ -156,13 +146,13 @@ public class UnifiedAutomationManager {
                     }
                 }
                 
-                // ✅ Handle auto-clicker for SAME machine
+                // ✅ Dispenser of a machine that is being auto-clicked: leave it running
+                // (other machines keep their own clicker jobs and recipes)
                 if (MultiblockAutoClicker.isEnabled() && !isDifferentMachine) {
                     if ("Dispenser".equalsIgnoreCase(title) || title.contains("Dispenser")) {
-                        BlockPos dispenserPos = getCachedDispenserPosition();
+                        BlockPos dispenserPos = getOpenedDispenserPosition();
                         
-                        if (dispenserPos != null && dispenserPos.equals(currentDispenserPos)) {
-                            // Same dispenser, keep auto-clicker running
+                        if (MultiblockAutoClicker.isRunningAt(dispenserPos)) {
                             return;
                         }
                     }
@@ -187,8 +177,23 @@ if (currentMachine != null) {
                 isProcessingMachineOpen = false;
             }
         } finally {
-            PerformanceMonitor.end("UnifiedAuto.onMachineOpen");
+            TIMER_ON_MACHINE_OPEN.end();
+        }
+    }
+    
+    /**
+     * ✅ Machine behind the opened container: per-position registry for placed
+     * machines, title matching only for unknown ones
+     */
+    private static SlimefunMachineData resolveOpenedMachine(String title) {
+        BlockPos openedPos = InteractionTracker.getOpenedBlockPos();
+        if (openedPos != null && InteractionTracker.getOpenedBlock() != Blocks.DISPENSER) {
+            MachineInstanceRegistry.MachineInstance instance = MachineInstanceRegistry.resolve(openedPos, title);
+            if (instance != null) {
+                return instance.getMachine();
+            }
         }
+        return SlimefunDataLoader.getMachineByTitle(title);
     }
     
     /**
@@ -208,7 +213,7 @@ if (currentMachine != null) {
      * ✅ OPTIMIZED: Lazy detection with caching
      */
     private static void handleDispenserOpenWithAutoDetect() {
-        PerformanceMonitor.start("AutoDetect.handle");
+        TIMER_AUTO_DETECT.start();
         try {
             Minecraft mc = Minecraft.getInstance();
             LocalPlayer player = mc.player;
@@ -216,8 +221,8 @@ if (currentMachine != null) {
             
             if (player == null || level == null) return;
             
-            // ✅ Use cached position if available
-            BlockPos dispenserPos = getCachedDispenserPosition();
+            // ✅ Exact position of the dispenser that was clicked
+            BlockPos dispenserPos = getOpenedDispenserPosition();
             
             if (dispenserPos == null) {
                 return;
@@ -228,6 +233,11 @@ if (currentMachine != null) {
             // ✅ Check cache first (avoid detection)
             currentCachedMachine = MultiblockCacheManager.getMachineAt(dispenserPos);
             
+            // Entry was invalidated (or never confirmed in this world) - re-check just this one
+            if (currentCachedMachine != null && !currentCachedMachine.isVerified()) {
+                currentCachedMachine = MultiblockCacheManager.verifyNow(level, dispenserPos);
+            }
+            
             if (currentCachedMachine != null) {
                 loadCachedMultiblock(player);
                 return;
@@ -241,7 +251,7 @@ if (currentMachine != null) {
                 SlimefunMachineData machine = SlimefunDataLoader.getMultiblockById(machineId);
                 
                 if (machine != null) {
-                    MultiblockCacheManager.addMachine(machine, dispenserPos);
+                    MultiblockCacheManager.addMachine(machine, dispenserPos, result.getTemplate());
                     currentCachedMachine = MultiblockCacheManager.getMachineAt(dispenserPos);
                     currentMachine = machine;
                     
@@ -273,7 +283,7 @@ if (currentMachine != null) {
                 );
             }
         } finally {
-            PerformanceMonitor.end("AutoDetect.handle");
+            TIMER_AUTO_DETECT.end();
         }
     }
     
@@ -321,58 +331,22 @@ if (currentMachine != null) {
     }
     
     /**
-     * ✅ NEW: Cached dispenser position lookup
+     * ✅ Dispenser whose container is open, taken from the use-item packet that opened it
      */
-    private static BlockPos getCachedDispenserPosition() {
-        long now = System.currentTimeMillis();
-        
-        // Return cached if still valid
-        if (cachedDispenserPos != null && now - lastDispenserPosCache < DISPENSER_CACHE_DURATION) {
-            return cachedDispenserPos;
-        }
-        
-        // Refresh cache
-        Minecraft mc = Minecraft.getInstance();
-        Level level = mc.level;
-        if (level == null) return null;
-        
-        cachedDispenserPos = getDispenserPosition(mc, level);
-        lastDispenserPosCache = now;
-        
-        return cachedDispenserPos;
-    }
-    
-    private static BlockPos getDispenserPosition(Minecraft mc, Level level) {
-        try {
-            if (mc.hitResult == null || mc.hitResult.getType() != HitResult.Type.BLOCK) {
-                return null;
-            }
-            
-            BlockHitResult blockHit = (BlockHitResult) mc.hitResult;
-            BlockPos pos = blockHit.getBlockPos();
-            
-            if (level.getBlockState(pos).getBlock() == Blocks.DISPENSER) {
-                return pos;
-            }
-        } catch (Exception e) {
-            // Silent fail
-        }
-        
-        return null;
+    private static BlockPos getOpenedDispenserPosition() {
+        return InteractionTracker.getOpenedBlock() == Blocks.DISPENSER
+            ? InteractionTracker.getOpenedBlockPos()
+            : null;
     }
     
     /**
      * ✅ OPTIMIZED: Start auto-click with validation
      */
     public static void onContainerClose() {
-        PerformanceMonitor.start("UnifiedAuto.onContainerClose");
+        TIMER_ON_CONTAINER_CLOSE.start();
         try {
             needsTick = false;
             
-            // ✅ Clear dispenser cache
-            cachedDispenserPos = null;
-            lastDispenserPosCache = 0;
-            
             // ✅ Start auto-click if dispenser is ready
             if (currentMachine != null && currentMachine.isMultiblock()) {
                 String selectedRecipe = MultiblockAutomationHandler.getSelectedRecipe();
@@ -404,11 +378,16 @@ if (currentMachine != null) {
                     int clickCount = MultiblockAutomationHandler.getCalculatedClickCount();
                     
                     if (clickCount > 0 && currentDispenserPos != null) {
-                        MultiblockAutoClicker.enable(currentDispenserPos, currentMachine.getId(), clickCount);
+                        int intervalTicks = config != null ? config.getAutoClickIntervalTicks(currentMachine.getId()) : 1;
+                        MultiblockAutoClicker.enable(currentDispenserPos, currentMachine.getId(), clickCount, intervalTicks);
                     }
                 }
             }
             
+            if (currentMachine != null && currentMachine.isMultiblock()) {
+                ProductionLoop.onDispenserClosed(currentDispenserPos, currentMachine.getId());
+            }
+            
             currentDispenserPos = null;
             
             if (currentMachine != null && currentMachine.isElectric()) {
@@ -417,7 +396,7 @@ if (currentMachine != null) {
             
             currentMachine = null;
         } finally {
-            PerformanceMonitor.end("UnifiedAuto.onContainerClose");
+            TIMER_ON_CONTAINER_CLOSE.end();
         }
     }
     
@@ -426,55 +405,40 @@ if (currentMachine != null) {
     }
     
     /**
-     * ✅ FULLY OPTIMIZED: Smart throttling with early exits
+     * ✅ Production loop step, scheduled every client tick by TickScheduler
      */
     public static void tick() {
-        PerformanceMonitor.start("UnifiedAuto.tick");
+        TIMER_TICK.start();
         try {
             // ✅ FAST PATH: Skip if nothing to do
             if (!automationEnabled && !MultiblockAutoClicker.isEnabled()) {
                 return;
             }
             
-            long now = System.currentTimeMillis();
-            
-            // ✅ FAST PATH: Throttle main tick
-            if (now - lastTickTime < MIN_TICK_INTERVAL) {
-                return;
-            }
-            
-            lastTickTime = now;
-            
-            // ✅ PRIORITY 1: Auto-clicker (separate interval)
-            if (MultiblockAutoClicker.isEnabled() && now - lastAutoClickerCheck >= AUTO_CLICKER_CHECK_INTERVAL) {
-                lastAutoClickerCheck = now;
-                MultiblockAutoClicker.tick();
-            }
-            
-            // ✅ FAST PATH: Skip machine automation if not needed
-            if (!needsTick || currentMachine == null || !automationEnabled) {
-                return;
-            }
-            
-            // ✅ PRIORITY 2: Machine automation (separate interval)
-            if (now - lastMachineCheck < MACHINE_CHECK_INTERVAL) {
-                return;
-            }
-            
-            lastMachineCheck = now;
-            
-            // ✅ Handle machine automation
-            try {
-                if (currentMachine.isElectric()) {
-                    MachineAutomationHandler.tick();
-                } else if (currentMachine.isMultiblock()) {
-                    MultiblockAutomationHandler.tick(currentMachine);
-                }
-            } catch (Exception e) {
-                BapelSlimefunMod.LOGGER.error("Error in automation tick", e);
-            }
+            // ✅ Production loop drives open/fill/close around the auto-clicker
+            ProductionLoop.tick();
         } finally {
-            PerformanceMonitor.end("UnifiedAuto.tick");
+            TIMER_TICK.end();
+        }
+    }
+    
+    /**
+     * ✅ Machine automation, scheduled every MACHINE_CHECK_TICKS ticks
+     */
+    public static void tickMachineAutomation() {
+        // ✅ FAST PATH: Skip machine automation if not needed
+        if (!needsTick || currentMachine == null || !automationEnabled) {
+            return;
+        }
+        
+        try {
+            if (currentMachine.isElectric()) {
+                MachineAutomationHandler.tick();
+            } else if (currentMachine.isMultiblock()) {
+                MultiblockAutomationHandler.tick(currentMachine);
+            }
+        } catch (Exception e) {
+            BapelSlimefunMod.LOGGER.error("Error in automation tick", e);
         }
     }
     
@@ -506,6 +470,7 @@ if (currentMachine != null) {
             MachineAutomationHandler.setAutomationEnabled(automationEnabled);
             
             if (!automationEnabled) {
+                ProductionLoop.stop("Automation disabled");
                 MultiblockAutoClicker.disable();
             }
         } catch (Exception e) {
@@ -517,7 +482,7 @@ if (currentMachine != null) {
  * ✅ OPTIMIZED: Set recipe with validation
  */
 public static void setSelectedRecipe(String recipeId) {
-    PerformanceMonitor.start("UnifiedAuto.setSelectedRecipe");
+    TIMER_SET_SELECTED_RECIPE.start();
     try {
         SlimefunMachineData machine = getCurrentMachine();
         if (machine == null) {
@@ -570,8 +535,7 @@ public static void setSelectedRecipe(String recipeId) {
             }
             
             if (currentCachedMachine != null) {
-                currentCachedMachine.setLastSelectedRecipe(recipeId);
-                MultiblockCacheManager.save();
+                MultiblockCacheManager.updateRecipe(currentCachedMachine.getPosition(), recipeId);
             }
         }
         
@@ -599,7 +563,7 @@ public static void setSelectedRecipe(String recipeId) {
             }
         }
     } finally {
-        PerformanceMonitor.end("UnifiedAuto.setSelectedRecipe");
+        TIMER_SET_SELECTED_RECIPE.end();
     }
 }
     
@@ -0,0 +1,60 @@
+package com.bapel_slimefun_mod.automation;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ServerData;
+import net.minecraft.world.level.Level;
+
+/**
+ * Identifies "which world" position-keyed data belongs to:
+ * server address (or singleplayer save name) + dimension.
+ *
+ * Example: "server:play.example.net|minecraft:overworld"
+ */
+public final class WorldScope {
+    public static final String UNKNOWN = "unknown";
+
+    // Recomputed only when the client level object changes (join, leave, dimension change)
+    private static Level cachedLevel = null;
+    private static String cachedScope = null;
+
+    private WorldScope() {}
+
+    /**
+     * Scope of the level the client is currently in, or null when not in a world
+     */
+    public static String current() {
+        Minecraft mc = Minecraft.getInstance();
+        Level level = mc.level;
+        if (level == null) {
+            cachedLevel = null;
+            cachedScope = null;
+            return null;
+        }
+
+        if (level != cachedLevel || cachedScope == null) {
+            cachedScope = of(mc, level);
+            cachedLevel = level;
+        }
+        return cachedScope;
+    }
+
+    /**
+     * Scope key for a level
+     */
+    public static String of(Minecraft mc, Level level) {
+        return serverKey(mc) + "|" + level.dimension().location();
+    }
+
+    private static String serverKey(Minecraft mc) {
+        ServerData server = mc.getCurrentServer();
+        if (server != null && server.ip != null) {
+            return "server:" + server.ip.trim().toLowerCase();
+        }
+
+        if (mc.getSingleplayerServer() != null) {
+            return "local:" + mc.getSingleplayerServer().getWorldData().getLevelName();
+        }
+
+        return UNKNOWN;
+    }
+}
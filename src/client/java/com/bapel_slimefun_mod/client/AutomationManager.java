@@ -15,6 +15,8 @@ import com.bapel_slimefun_mod.debug.PerformanceMonitor;
  * Menyediakan method untuk start, stop, dan configure automation
  */
 public class AutomationManager {
+    private static final PerformanceMonitor.Timer TIMER_START_AUTOMATION = PerformanceMonitor.timer("AutoManager.startAutomation");
+    private static final PerformanceMonitor.Timer TIMER_STOP_AUTOMATION = PerformanceMonitor.timer("AutoManager.stopAutomation");
     
     /**
      * Mulai automation dengan recipe yang dipilih
@@ -23,7 +25,7 @@ public class AutomationManager {
      * @return true jika berhasil dimulai, false jika gagal
      */
     public static boolean startAutomation(String recipeId, boolean showMessage) {
-        PerformanceMonitor.start("AutoManager.startAutomation");
+        TIMER_START_AUTOMATION.start();
         try {
         try {
             // Validasi recipe ID
@@ -69,7 +71,7 @@ public class AutomationManager {
         }
     
         } finally {
-            PerformanceMonitor.end("AutoManager.startAutomation");
+            TIMER_START_AUTOMATION.end();
         }}
     
     /**
@@ -83,7 +85,7 @@ public class AutomationManager {
      * Stop automation
      */
     public static void stopAutomation(boolean showMessage) {
-        PerformanceMonitor.start("AutoManager.stopAutomation");
+        TIMER_STOP_AUTOMATION.start();
         try {
         MachineAutomationHandler.setAutomationEnabled(false);
         
@@ -93,7 +95,7 @@ public class AutomationManager {
         }
     
         } finally {
-            PerformanceMonitor.end("AutoManager.stopAutomation");
+            TIMER_STOP_AUTOMATION.end();
         }}
     
     /**
@@ -1,6 +1,9 @@
 package com.bapel_slimefun_mod.client;
 
+import com.bapel_slimefun_mod.BapelSlimefunMod;
 import com.bapel_slimefun_mod.automation.MachineAutomationHandler;
+import com.bapel_slimefun_mod.automation.ProductionLoop;
+import com.bapel_slimefun_mod.automation.RecipeOverlayRenderer;
 import com.bapel_slimefun_mod.client.gui.AutomationModeScreen;
 import com.bapel_slimefun_mod.config.ModConfig;
 import com.bapel_slimefun_mod.debug.PerformanceMonitor;
@@ -8,11 +11,13 @@ import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
 import net.minecraft.client.KeyMapping;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.screens.inventory.InventoryScreen;
 import org.lwjgl.glfw.GLFW;
 
 /**
  * Handles keybind registration and input
- * K = Toggle automation, R = Recipe overlay, M = Mode settings, F3 = Performance Monitor
+ * K = Toggle automation, R = Recipe overlay, M = Mode settings, O = Production loop,
+ * G = What can I make, F3 = Performance Monitor
  */
 public class ModKeybinds {
     
@@ -28,6 +33,12 @@ public class ModKeybinds {
     // F3 = Toggle performance monitor
     private static KeyMapping performanceMonitorKey;
     
+    // O = Start/stop closed-loop multiblock production
+    private static KeyMapping productionLoopKey;
+    
+    // G = Craftable recipes across all machines
+    private static KeyMapping craftableLookupKey;
+    
     /**
      * Register all keybinds
      */
@@ -60,6 +71,20 @@ public class ModKeybinds {
             "category.bapel-slimefun-mod.automation"
         ));
         
+        // O = Toggle production loop
+        productionLoopKey = KeyBindingHelper.registerKeyBinding(new KeyMapping(
+            "key.bapel-slimefun-mod.production_loop",
+            GLFW.GLFW_KEY_O,
+            "category.bapel-slimefun-mod.automation"
+        ));
+        
+        // G = What can I make
+        craftableLookupKey = KeyBindingHelper.registerKeyBinding(new KeyMapping(
+            "key.bapel-slimefun-mod.craftable_lookup",
+            GLFW.GLFW_KEY_G,
+            "category.bapel-slimefun-mod.automation"
+        ));
+        
         // Register tick event to handle key presses
         ClientTickEvents.END_CLIENT_TICK.register(client -> {
             handleKeyPresses(client);
@@ -85,6 +110,16 @@ public class ModKeybinds {
             handlePerformanceMonitor();
         }
         
+        // O = Production loop (inside container screens: ContainerScreenMixin)
+        while (productionLoopKey.consumeClick()) {
+            ProductionLoop.toggle();
+        }
+        
+        // G = What can I make (inside container screens: ContainerScreenMixin)
+        while (craftableLookupKey.consumeClick()) {
+            handleCraftableLookup(mc);
+        }
+        
         // R is handled in RecipeOverlayInputHandler mixin
     }
     
@@ -114,11 +149,26 @@ public class ModKeybinds {
      */
     private static void handleModeSettings(Minecraft mc) {
         if (mc.player != null) {
-            ModConfig config = ModConfig.load();
+            // Shared instance: a re-read from disk could miss a write that is still pending
+            ModConfig config = BapelSlimefunMod.getConfig();
+            if (config == null) {
+                config = ModConfig.load();
+            }
             mc.setScreen(new AutomationModeScreen(mc.screen, config));
         }
     }
     
+    /**
+     * Handle G = What can I make: the overlay only renders in container screens,
+     * so open the player inventory first
+     */
+    private static void handleCraftableLookup(Minecraft mc) {
+        if (mc.player == null || mc.screen != null) return;
+        
+        mc.setScreen(new InventoryScreen(mc.player));
+        RecipeOverlayRenderer.showGlobal();
+    }
+    
     /**
      * Handle F3 = Performance monitor toggle
      */
@@ -166,4 +216,18 @@ public class ModKeybinds {
     public static KeyMapping getPerformanceMonitorKey() {
         return performanceMonitorKey;
     }
+    
+    /**
+     * Get the production loop keybind (for mixin access)
+     */
+    public static KeyMapping getProductionLoopKey() {
+        return productionLoopKey;
+    }
+    
+    /**
+     * Get the craftable lookup keybind (for mixin access)
+     */
+    public static KeyMapping getCraftableLookupKey() {
+        return craftableLookupKey;
+    }
 }
\ No newline at end of file
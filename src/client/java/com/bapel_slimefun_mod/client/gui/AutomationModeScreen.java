@@ -1,6 +1,7 @@
 package com.bapel_slimefun_mod.client.gui;
 
 import com.bapel_slimefun_mod.automation.MultiblockCacheManager;
+import com.bapel_slimefun_mod.automation.MultiblockWorldScanner;
 import com.bapel_slimefun_mod.automation.RecipeMemoryManager;
 import com.bapel_slimefun_mod.automation.UnifiedAutomationManager;
 import com.bapel_slimefun_mod.automation.SlimefunMachineData;
@@ -22,6 +23,9 @@ import com.bapel_slimefun_mod.debug.PerformanceMonitor;
  * - Machine Detector (Always accessible - checks position when clicked)
  */
 public class AutomationModeScreen extends Screen {
+    private static final PerformanceMonitor.Timer TIMER_INIT = PerformanceMonitor.timer("AutoModeScreen.init");
+    private static final PerformanceMonitor.Timer TIMER_RENDER = PerformanceMonitor.timer("AutoModeScreen.render");
+    
     private final Screen parent;
     private final ModConfig config;
     
@@ -44,7 +48,7 @@ public class AutomationModeScreen extends Screen {
     
     @Override
     protected void init() {
-        PerformanceMonitor.start("AutoModeScreen.init");
+        TIMER_INIT.start();
         try {
         int centerX = this.width / 2;
         int startY = this.height / 2 - 90;
@@ -110,7 +114,7 @@ public class AutomationModeScreen extends Screen {
         updateButtonStates();
     
         } finally {
-            PerformanceMonitor.end("AutoModeScreen.init");
+            TIMER_INIT.end();
         }}
     
     private void setAutoMode(boolean auto) {
@@ -192,7 +196,7 @@ public class AutomationModeScreen extends Screen {
     
     @Override
     public void render(GuiGraphics graphics, int mouseX, int mouseY, float partialTick) {
-        PerformanceMonitor.start("AutoModeScreen.render");
+        TIMER_RENDER.start();
         try {
         // Draw background
         graphics.fill(0, 0, this.width, this.height, 0xC0101010);
@@ -290,7 +294,7 @@ public class AutomationModeScreen extends Screen {
         super.render(graphics, mouseX, mouseY, partialTick);
     
         } finally {
-            PerformanceMonitor.end("AutoModeScreen.render");
+            TIMER_RENDER.end();
         }}
     
     @Override
@@ -313,6 +317,7 @@ class MultiblockCacheScreen extends Screen {
     
     private Button viewCacheButton;
     private Button clearCacheButton;
+    private Button backgroundScanButton;
     private Button backButton;
     
     private static final int BUTTON_WIDTH = 200;
@@ -347,6 +352,14 @@ class MultiblockCacheScreen extends Screen {
         .bounds(centerX - BUTTON_WIDTH / 2, startY + BUTTON_SPACING, BUTTON_WIDTH, BUTTON_HEIGHT)
         .build();
         
+        // Background Scan Toggle
+        this.backgroundScanButton = Button.builder(
+            Component.literal(getBackgroundScanLabel()),
+            button -> toggleBackgroundScan()
+        )
+        .bounds(centerX - BUTTON_WIDTH / 2, startY + BUTTON_SPACING * 2, BUTTON_WIDTH, BUTTON_HEIGHT)
+        .build();
+        
         // Back Button
         this.backButton = Button.builder(
             Component.literal("Back"),
@@ -357,9 +370,35 @@ class MultiblockCacheScreen extends Screen {
         
         this.addRenderableWidget(viewCacheButton);
         this.addRenderableWidget(clearCacheButton);
+        this.addRenderableWidget(backgroundScanButton);
         this.addRenderableWidget(backButton);
     }
     
+    private String getBackgroundScanLabel() {
+        return config.isBackgroundScanEnabled()
+            ? "§bBackground Scan: §aON"
+            : "§bBackground Scan: §7OFF";
+    }
+    
+    /**
+     * Toggle discovery of multiblocks in loaded chunks
+     */
+    private void toggleBackgroundScan() {
+        boolean enabled = !config.isBackgroundScanEnabled();
+        config.setBackgroundScanEnabled(enabled);
+        this.backgroundScanButton.setMessage(Component.literal(getBackgroundScanLabel()));
+        if (enabled) {
+            MultiblockWorldScanner.enqueueLoadedChunks(); // chunks loaded while the scan was off
+        }
+        
+        if (minecraft != null && minecraft.player != null) {
+            String message = enabled
+                ? "§a[Scanner] Multiblocks in loaded chunks will be cached"
+                : "§e[Scanner] Background scan disabled";
+            minecraft.player.displayClientMessage(Component.literal(message), true);
+        }
+    }
+    
     private void viewCache() {
         if (minecraft != null && minecraft.player != null) {
             var machines = MultiblockCacheManager.getAllMachines();
@@ -23,6 +23,9 @@ import com.bapel_slimefun_mod.debug.PerformanceMonitor;
  * - Clear Cache: Removes cached multiblock at current position
  */
 public class MachineDetectorScreen extends Screen {
+    private static final PerformanceMonitor.Timer TIMER_INIT = PerformanceMonitor.timer("DetectorScreen.init");
+    private static final PerformanceMonitor.Timer TIMER_RENDER = PerformanceMonitor.timer("DetectorScreen.render");
+    
     private final Screen parent;
     private final BlockPos dispenserPos;
     
@@ -45,7 +48,7 @@ public class MachineDetectorScreen extends Screen {
     
     @Override
     protected void init() {
-        PerformanceMonitor.start("DetectorScreen.init");
+        TIMER_INIT.start();
         try {
         int centerX = this.width / 2;
         int startY = this.height / 2 - 40;
@@ -91,7 +94,7 @@ public class MachineDetectorScreen extends Screen {
         this.addRenderableWidget(backButton);
     
         } finally {
-            PerformanceMonitor.end("DetectorScreen.init");
+            TIMER_INIT.end();
         }}
     
     private void verifyMultiblock() {
@@ -125,7 +128,7 @@ public class MachineDetectorScreen extends Screen {
             
             if (machine != null) {
                 // Cache the detected machine
-                MultiblockCacheManager.addMachine(machine, dispenserPos);
+                MultiblockCacheManager.addMachine(machine, dispenserPos, result.getTemplate());
                 
                 // Update detection result
                 detectionResult = String.format(
@@ -205,7 +208,7 @@ public class MachineDetectorScreen extends Screen {
     
     @Override
     public void render(GuiGraphics graphics, int mouseX, int mouseY, float partialTick) {
-        PerformanceMonitor.start("DetectorScreen.render");
+        TIMER_RENDER.start();
         try {
         // Draw background
         graphics.fill(0, 0, this.width, this.height, 0xC0101010);
@@ -284,7 +287,7 @@ public class MachineDetectorScreen extends Screen {
         super.render(graphics, mouseX, mouseY, partialTick);
     
         } finally {
-            PerformanceMonitor.end("DetectorScreen.render");
+            TIMER_RENDER.end();
         }}
     
     @Override
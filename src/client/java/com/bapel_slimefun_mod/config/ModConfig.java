@@ -1,14 +1,22 @@
 package com.bapel_slimefun_mod.config;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.Reader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Configuration class for mod settings
@@ -16,8 +24,9 @@ import java.nio.file.Paths;
  */
 public class ModConfig {
     private static final Logger LOGGER = LoggerFactory.getLogger("bapel-slimefun-mod");
-    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
     private static final String CONFIG_FILE = "bapel-slimefun-mod.json";
+    private static final int SCHEMA_VERSION = 1;
+    private static final Adapter ADAPTER = new Adapter();
     
     // Automation settings
     private boolean automationEnabled = true;
@@ -29,6 +38,25 @@ public class ModConfig {
     private int overlayPositionX = 10;
     private int overlayPositionY = 60;
     
+    // World scanner settings (opt-in)
+    private boolean backgroundScanEnabled = false;
+    
+    // Production loop: items to produce before stopping (0 = until materials run out)
+    private int productionTargetItems = 0;
+    
+    // Auto-clicker: clicks sent per server tick across all running multiblocks
+    private int clicksPerServerTick = 1;
+    
+    // Auto-clicker: server chat phrases (lowercase) meaning a click crafted nothing;
+    // Slimefun messages are translated per server, so these are editable
+    private List<String> autoClickFailurePhrases = defaultFailurePhrases();
+    
+    // Auto-clicker: minimum ticks between two clicks per machine id (missing = 1)
+    private Map<String, Integer> autoClickIntervalTicks = new LinkedHashMap<>();
+    
+    // Performance monitor: keep recording timers while the overlay is hidden
+    private boolean profilingAlwaysOn = false;
+    
     /**
      * Private constructor for singleton-like usage
      */
@@ -42,8 +70,10 @@ public class ModConfig {
         
         if (Files.exists(configPath)) {
             try (Reader reader = Files.newBufferedReader(configPath)) {
-                ModConfig config = GSON.fromJson(reader, ModConfig.class);
-                return config;
+                ModConfig config = ADAPTER.read(new JsonReader(reader));
+                if (config != null) {
+                    return config;
+                }
             } catch (Exception e) {
                 LOGGER.error("Failed to load configuration, using defaults", e);
             }
@@ -56,21 +86,97 @@ public class ModConfig {
     }
     
     /**
-     * Save configuration to file
+     * Save configuration to file (write-behind, see PersistenceService).
+     * Serialized here on the calling (client) thread; the writer only gets the string.
      */
     public void save() {
-        Path configPath = getConfigPath();
+        String json = ADAPTER.toJson(this);
+        PersistenceService.schedule(getConfigPath(), () -> json);
+    }
+    
+    /**
+     * Streaming (de)serializer. Unknown keys are skipped and missing keys keep
+     * their defaults, so old and hand-edited files still load.
+     */
+    private static final class Adapter extends TypeAdapter<ModConfig> {
+        @Override
+        public void write(JsonWriter out, ModConfig config) throws IOException {
+            out.beginObject();
+            out.name("version").value(SCHEMA_VERSION);
+            out.name("automationEnabled").value(config.automationEnabled);
+            out.name("automationDelayMs").value(config.automationDelayMs);
+            out.name("rememberLastRecipe").value(config.rememberLastRecipe);
+            out.name("autoShowOverlay").value(config.autoShowOverlay);
+            out.name("enableOverlayAnimations").value(config.enableOverlayAnimations);
+            out.name("overlayPositionX").value(config.overlayPositionX);
+            out.name("overlayPositionY").value(config.overlayPositionY);
+            out.name("backgroundScanEnabled").value(config.backgroundScanEnabled);
+            out.name("productionTargetItems").value(config.productionTargetItems);
+            out.name("clicksPerServerTick").value(config.clicksPerServerTick);
+            out.name("autoClickFailurePhrases").beginArray();
+            for (String phrase : config.autoClickFailurePhrases) {
+                out.value(phrase);
+            }
+            out.endArray();
+            out.name("autoClickIntervalTicks").beginObject();
+            for (Map.Entry<String, Integer> entry : config.autoClickIntervalTicks.entrySet()) {
+                out.name(entry.getKey()).value(entry.getValue());
+            }
+            out.endObject();
+            out.name("profilingAlwaysOn").value(config.profilingAlwaysOn);
+            out.endObject();
+        }
         
-        try {
-            // Create parent directories if they don't exist
-            Files.createDirectories(configPath.getParent());
+        @Override
+        public ModConfig read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
             
-            // Write config to file
-            try (Writer writer = Files.newBufferedWriter(configPath)) {
-                GSON.toJson(this, writer);
+            ModConfig config = new ModConfig();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "automationEnabled": config.automationEnabled = in.nextBoolean(); break;
+                    case "automationDelayMs": config.automationDelayMs = in.nextInt(); break;
+                    case "rememberLastRecipe": config.rememberLastRecipe = in.nextBoolean(); break;
+                    case "autoShowOverlay": config.autoShowOverlay = in.nextBoolean(); break;
+                    case "enableOverlayAnimations": config.enableOverlayAnimations = in.nextBoolean(); break;
+                    case "overlayPositionX": config.overlayPositionX = in.nextInt(); break;
+                    case "overlayPositionY": config.overlayPositionY = in.nextInt(); break;
+                    case "backgroundScanEnabled": config.backgroundScanEnabled = in.nextBoolean(); break;
+                    case "productionTargetItems": config.productionTargetItems = Math.max(0, in.nextInt()); break;
+                    case "clicksPerServerTick": config.clicksPerServerTick = clampClicksPerTick(in.nextInt()); break;
+                    case "autoClickFailurePhrases": config.autoClickFailurePhrases = readPhrases(in); break;
+                    case "autoClickIntervalTicks": config.autoClickIntervalTicks = readIntervals(in); break;
+                    case "profilingAlwaysOn": config.profilingAlwaysOn = in.nextBoolean(); break;
+                    default: in.skipValue(); break; // "version" and unknown keys
+                }
+            }
+            in.endObject();
+            return config;
+        }
+        
+        private static List<String> readPhrases(JsonReader in) throws IOException {
+            List<String> phrases = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                String phrase = in.nextString().trim().toLowerCase();
+                if (!phrase.isEmpty()) phrases.add(phrase);
+            }
+            in.endArray();
+            return phrases;
+        }
+        
+        private static Map<String, Integer> readIntervals(JsonReader in) throws IOException {
+            Map<String, Integer> intervals = new LinkedHashMap<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                intervals.put(in.nextName().toUpperCase(), clampIntervalTicks(in.nextInt()));
             }
-        } catch (Exception e) {
-            LOGGER.error("Failed to save configuration", e);
+            in.endObject();
+            return intervals;
         }
     }
     
@@ -195,6 +301,105 @@ public class ModConfig {
         save();
     }
     
+    // ========================================
+    // WORLD SCANNER SETTINGS - Getters/Setters
+    // ========================================
+    
+    /**
+     * Check if multiblocks in loaded chunks should be detected in the background
+     */
+    public boolean isBackgroundScanEnabled() {
+        return backgroundScanEnabled;
+    }
+    
+    /**
+     * Enable/disable the background multiblock scanner
+     */
+    public void setBackgroundScanEnabled(boolean backgroundScanEnabled) {
+        this.backgroundScanEnabled = backgroundScanEnabled;
+        save();
+    }
+    
+    // ========================================
+    // PRODUCTION LOOP SETTINGS - Getters/Setters
+    // ========================================
+    
+    /**
+     * Items the production loop produces before stopping (0 = until materials run out)
+     */
+    public int getProductionTargetItems() {
+        return productionTargetItems;
+    }
+    
+    public void setProductionTargetItems(int productionTargetItems) {
+        this.productionTargetItems = Math.max(0, productionTargetItems);
+        save();
+    }
+    
+    // ========================================
+    // AUTO-CLICKER SETTINGS - Getters/Setters
+    // ========================================
+    
+    /**
+     * Clicks sent per server tick (50ms) across all auto-clicked multiblocks, 1-4
+     */
+    public int getClicksPerServerTick() {
+        return clicksPerServerTick;
+    }
+    
+    public void setClicksPerServerTick(int clicksPerServerTick) {
+        this.clicksPerServerTick = clampClicksPerTick(clicksPerServerTick);
+        save();
+    }
+    
+    private static int clampClicksPerTick(int value) {
+        return Math.max(1, Math.min(4, value));
+    }
+    
+    /**
+     * Lowercase chat phrases that mark an auto-click as failed
+     * (Slimefun machines.pattern-not-found / unknown-material / full-inventory)
+     */
+    public List<String> getAutoClickFailurePhrases() {
+        return Collections.unmodifiableList(autoClickFailurePhrases);
+    }
+    
+    /**
+     * Minimum game ticks between two auto-clicks on a machine (1-200, default 1)
+     */
+    public int getAutoClickIntervalTicks(String machineId) {
+        Integer ticks = machineId != null ? autoClickIntervalTicks.get(machineId.toUpperCase()) : null;
+        return ticks != null ? ticks : 1;
+    }
+    
+    public void setAutoClickIntervalTicks(String machineId, int ticks) {
+        autoClickIntervalTicks.put(machineId.toUpperCase(), clampIntervalTicks(ticks));
+        save();
+    }
+    
+    private static int clampIntervalTicks(int value) {
+        return Math.max(1, Math.min(200, value));
+    }
+    
+    private static List<String> defaultFailurePhrases() {
+        return new ArrayList<>(List.of("could not recognize", "inventory is too full"));
+    }
+    
+    // ========================================
+    // PERFORMANCE MONITOR SETTINGS - Getters/Setters
+    // ========================================
+    
+    /**
+     * Record PerformanceMonitor timers even while the overlay is hidden
+     */
+    public boolean isProfilingAlwaysOn() {
+        return profilingAlwaysOn;
+    }
+    
+    public void setProfilingAlwaysOn(boolean profilingAlwaysOn) {
+        this.profilingAlwaysOn = profilingAlwaysOn;
+        save();
+    }
     
     /**
      * String representation of config
@@ -208,6 +413,12 @@ public class ModConfig {
                 ", enableOverlayAnimations=" + enableOverlayAnimations +
                 ", overlayPositionX=" + overlayPositionX +
                 ", overlayPositionY=" + overlayPositionY +
+                ", backgroundScanEnabled=" + backgroundScanEnabled +
+                ", productionTargetItems=" + productionTargetItems +
+                ", clicksPerServerTick=" + clicksPerServerTick +
+                ", autoClickFailurePhrases=" + autoClickFailurePhrases +
+                ", autoClickIntervalTicks=" + autoClickIntervalTicks +
+                ", profilingAlwaysOn=" + profilingAlwaysOn +
                 '}';
     }
 }
@@ -0,0 +1,272 @@
+package com.bapel_slimefun_mod.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind persistence for the mod's JSON files
+ *
+ * - schedule() only marks a file dirty and (re)starts its debounce timer: the
+ *   write happens DEBOUNCE_MS after the last call, or MAX_DELAY_MS after the
+ *   first one if calls keep coming
+ * - Serialization and disk I/O run on a background virtual thread
+ * - Every write goes to "<file>.tmp" and is then atomically moved over the
+ *   target, so a crash never leaves a truncated file
+ * - Journals collect small append-only records; they are appended in order on
+ *   the same writer thread and truncated when a new snapshot is compacted in
+ * - flushAll() writes everything still pending (client shutdown)
+ */
+public final class PersistenceService {
+    private static final Logger LOGGER = LoggerFactory.getLogger("bapel-slimefun-mod");
+    private static final long DEBOUNCE_MS = 1500;
+    private static final long MAX_DELAY_MS = 10_000;
+    private static final long JOURNAL_DELAY_MS = 250;
+
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofVirtual().name("Bapel-Persistence").factory());
+
+    // Target file -> pending write
+    private static final Map<Path, Job> jobs = new ConcurrentHashMap<>();
+    private static final List<Journal> journals = new ArrayList<>();
+    // Serializes writers: the background flush and flushAll() never interleave on a file
+    private static final Object WRITE_LOCK = new Object();
+
+    private static final class Job {
+        final Path path;
+        volatile Supplier<String> serializer;
+        boolean scheduled;        // guarded by this
+        long firstDirtyAt;        // guarded by this
+        ScheduledFuture<?> timer; // guarded by this
+
+        Job(Path path) {
+            this.path = path;
+        }
+    }
+
+    private PersistenceService() {}
+
+    /**
+     * Mark a file dirty. {@code serializer} is invoked later on the writer thread,
+     * so it must only read state that is safe to read from another thread.
+     */
+    public static void schedule(Path path, Supplier<String> serializer) {
+        Job job = jobs.computeIfAbsent(path.toAbsolutePath(), Job::new);
+        job.serializer = serializer;
+
+        synchronized (job) {
+            long now = System.currentTimeMillis();
+            if (!job.scheduled) {
+                job.scheduled = true;
+                job.firstDirtyAt = now;
+            } else if (now - job.firstDirtyAt >= MAX_DELAY_MS) {
+                return; // keep the pending deadline, the write picks up this serializer
+            } else if (job.timer != null) {
+                job.timer.cancel(false);
+            }
+
+            try {
+                job.timer = WRITER.schedule(() -> write(job), DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+                return;
+            } catch (Exception e) {
+                job.timer = null;
+            }
+        }
+
+        // Executor already shut down (game closing) - write inline instead (outside the job lock)
+        write(job);
+    }
+
+    /**
+     * Append-only record log next to a snapshot file.
+     * Records must be idempotent: replaying a suffix of the journal on top of a
+     * newer snapshot has to give the same result.
+     */
+    public static final class Journal {
+        private final Path path;
+        private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean drainScheduled = new AtomicBoolean();
+        private final AtomicBoolean compactScheduled = new AtomicBoolean();
+        // Records on disk + queued since the last compaction (updated together with pending under this)
+        private final AtomicInteger records = new AtomicInteger();
+
+        private Journal(Path path) {
+            this.path = path;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * Queue one record (a single line, no line breaks). Cost does not depend on cache size.
+         */
+        public void append(String line) {
+            synchronized (this) {
+                pending.add(line);
+                records.incrementAndGet();
+            }
+
+            if (drainScheduled.compareAndSet(false, true)) {
+                try {
+                    WRITER.schedule(() -> {
+                        drainScheduled.set(false);
+                        synchronized (WRITE_LOCK) {
+                            drain();
+                        }
+                    }, JOURNAL_DELAY_MS, TimeUnit.MILLISECONDS);
+                } catch (Exception e) {
+                    drainScheduled.set(false);
+                    synchronized (WRITE_LOCK) {
+                        drain();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Number of records written since the last compaction
+         */
+        public int size() {
+            return records.get();
+        }
+
+        /**
+         * Replace {@code snapshotPath} with a fresh snapshot and empty the journal (background)
+         */
+        public void compact(Path snapshotPath, Supplier<String> snapshot) {
+            // One queued compaction covers every request made before it runs
+            if (!compactScheduled.compareAndSet(false, true)) return;
+
+            try {
+                WRITER.execute(() -> compactNow(snapshotPath, snapshot));
+            } catch (Exception e) {
+                compactNow(snapshotPath, snapshot);
+            }
+        }
+
+        private void compactNow(Path snapshotPath, Supplier<String> snapshot) {
+            synchronized (WRITE_LOCK) {
+                compactScheduled.set(false);
+                // Everything already on disk or queued happened before this serialization,
+                // so the snapshot covers it; newer records are replayed idempotently on top
+                drain();
+                try {
+                    writeAtomically(snapshotPath, snapshot.get());
+                    Files.deleteIfExists(path);
+                    // Journal file is gone: only records queued since the drain are left
+                    synchronized (this) {
+                        records.set(pending.size());
+                    }
+                } catch (Exception e) {
+                    LOGGER.error("Failed to compact {}", path, e);
+                }
+            }
+        }
+
+        /**
+         * Append queued records to the file (caller holds WRITE_LOCK)
+         */
+        private void drain() {
+            if (pending.isEmpty()) return;
+
+            StringBuilder batch = new StringBuilder();
+            String line;
+            while ((line = pending.poll()) != null) {
+                batch.append(line).append('\n');
+            }
+
+            try {
+                Path parent = path.getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                Files.writeString(path, batch, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (Exception e) {
+                LOGGER.error("Failed to append to {}", path, e);
+            }
+        }
+    }
+
+    /**
+     * Journal for a file; {@code existingRecords} is the number of records already on disk
+     */
+    public static synchronized Journal journal(Path path, int existingRecords) {
+        Journal journal = new Journal(path);
+        journal.records.set(existingRecords);
+        journals.add(journal);
+        return journal;
+    }
+
+    /**
+     * Write every pending file now (blocks the caller)
+     */
+    public static void flushAll() {
+        synchronized (PersistenceService.class) {
+            for (Journal journal : journals) {
+                synchronized (WRITE_LOCK) {
+                    journal.drain();
+                }
+            }
+        }
+        for (Job job : jobs.values()) {
+            write(job);
+        }
+    }
+
+    private static void write(Job job) {
+        synchronized (WRITE_LOCK) {
+            synchronized (job) {
+                if (!job.scheduled) return;
+                job.scheduled = false;
+                job.timer = null;
+            }
+
+            try {
+                writeAtomically(job.path, job.serializer.get());
+            } catch (Exception e) {
+                LOGGER.error("Failed to write {}", job.path, e);
+            }
+        }
+    }
+
+    /**
+     * Write content to a temp file next to {@code path} and move it into place
+     */
+    public static void writeAtomically(Path path, String content) throws IOException {
+        Path parent = path.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.writeString(temp, content, StandardCharsets.UTF_8);
+
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
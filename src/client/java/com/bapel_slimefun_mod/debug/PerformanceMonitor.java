@@ -4,6 +4,8 @@ import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiGraphics;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * ✅ ULTRA OPTIMIZED PERFORMANCE MONITOR
@@ -11,20 +13,33 @@ import java.util.concurrent.ConcurrentHashMap;
  * KEY OPTIMIZATIONS:
  * 1. Render throttling (max 10 FPS instead of 60)
  * 2. Cached string formatting (no StringBuilder every frame)
- * 3. Rolling average (avoid division every frame)
- * 4. Lazy stat calculation (only when visible)
- * 5. Reduced memory allocations
+ * 3. Pre-registered Timer handles - no map lookup or boxing per call
+ * 4. Per-thread scope stack - nested/recursive sections with one name stay correct
+ * 5. Log-bucketed histograms (4 buckets per power of two, ~19% error) for p50/p90/p99
+ * 6. Always-on mode: recording costs two nanoTime calls and a few atomic adds
+ * 
+ * Usage:
+ *   private static final PerformanceMonitor.Timer TIMER_TICK = PerformanceMonitor.timer("Foo.tick");
+ *   TIMER_TICK.start(); try { ... } finally { TIMER_TICK.end(); }
  */
 public class PerformanceMonitor {
     
     private static boolean visible = false;
+    private static volatile boolean alwaysOn = false;
+    
+    // Registered timers (name -> handle), registration only - never on the hot path
+    private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    
+    private static final ThreadLocal<Scope> scopes = ThreadLocal.withInitial(Scope::new);
     
-    // Timing data
-    private static final Map<String, Long> startTimes = new ConcurrentHashMap<>();
-    private static final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    // Bumped whenever recording switches on/off; scopes drop sections from an older epoch
+    private static volatile int recordingEpoch = 0;
     
-    // Frame tracking
-    private static final List<Long> frameTimes = Collections.synchronizedList(new ArrayList<>());
+    // Frame tracking (ring buffer, no boxing)
+    private static final int FRAME_SAMPLES = 100;
+    private static final long[] frameTimes = new long[FRAME_SAMPLES];
+    private static int frameCount = 0;
+    private static int frameHead = 0;
     private static long lastFrame = System.nanoTime();
     private static long startTime = System.currentTimeMillis();
     
@@ -37,31 +52,54 @@ public class PerformanceMonitor {
     private static long lastCacheUpdate = 0;
     private static final long CACHE_UPDATE_INTERVAL = 100; // Update cache every 100ms
     
+    // Pushed by the tick scheduler after every tick (the monitor doesn't depend on automation)
+    private static long schedulerUsedNs = 0;
+    private static int schedulerDeferred = 0;
+    private static int schedulerQueued = 0;
+    
     // ✅ OPTIMIZATION: Pre-calculated positions
     private static int[] lineYPositions = null;
     private static int cachedLineCount = 0;
     
+    /**
+     * Register (or fetch) the timer for {@code name}; keep the handle in a static final field
+     */
+    public static Timer timer(String name) {
+        return timers.computeIfAbsent(name, Timer::new);
+    }
+    
+    /**
+     * Name-based convenience for one-off sections; hot paths should hold a Timer
+     */
     public static void start(String name) {
-        if (!visible) return; // ✅ Skip if not visible
-        startTimes.put(name, System.nanoTime());
+        if (!isRecording()) return;
+        timer(name).start();
     }
     
     public static void end(String name) {
-        if (!visible) return; // ✅ Skip if not visible
-        
-        Long start = startTimes.remove(name);
-        if (start != null) {
-            long duration = System.nanoTime() - start;
-            
-            // ✅ OPTIMIZATION: Only track if duration > 0.1ms (filter noise)
-            if (duration > 100000) {
-                stats.computeIfAbsent(name, k -> new Stats()).add(duration);
-            }
-        }
+        Timer timer = timers.get(name);
+        if (timer != null) timer.end();
+    }
+    
+    /**
+     * Whether timers record right now (overlay visible or always-on mode)
+     */
+    public static boolean isRecording() {
+        return visible || alwaysOn;
+    }
+    
+    public static void setAlwaysOn(boolean enabled) {
+        if (alwaysOn != enabled) recordingEpoch++;
+        alwaysOn = enabled;
+    }
+    
+    public static boolean isAlwaysOn() {
+        return alwaysOn;
     }
     
     public static void toggle() {
         visible = !visible;
+        recordingEpoch++;
         
         if (!visible) {
             // Clear caches when hiding
@@ -74,11 +112,21 @@ public class PerformanceMonitor {
         return visible;
     }
     
+    /**
+     * Tick scheduler stats of the last tick: time used, tasks deferred, tasks still queued
+     */
+    public static void recordScheduler(long usedNs, int deferred, int queued) {
+        schedulerUsedNs = usedNs;
+        schedulerDeferred = deferred;
+        schedulerQueued = queued;
+    }
+    
     public static void trackFrame() {
         long now = System.nanoTime();
-        frameTimes.add(now - lastFrame);
+        frameTimes[frameHead] = now - lastFrame;
+        frameHead = (frameHead + 1) % FRAME_SAMPLES;
+        if (frameCount < FRAME_SAMPLES) frameCount++;
         lastFrame = now;
-        if (frameTimes.size() > 100) frameTimes.remove(0);
     }
     
     /**
@@ -145,36 +193,38 @@ public class PerformanceMonitor {
         long maxMem = runtime.maxMemory() / 1048576;
         lines.add(String.format("Memory: %dMB / %dMB", usedMem, maxMem));
         
+        // Tick scheduler
+        lines.add(String.format("Scheduler: %.2fms, %d deferred, %d queued",
+            schedulerUsedNs / 1000000.0, schedulerDeferred, schedulerQueued));
+        
         lines.add(""); // Spacer
         lines.add("----------------------------------------");
-        lines.add("Method Name                 Avg    Min    Max    Calls");
+        lines.add("Section                    p50    p90    p99    Max    Calls");
         lines.add("----------------------------------------");
         
-        // Sort methods by average time
-        List<Map.Entry<String, Stats>> list = new ArrayList<>(stats.entrySet());
-        list.sort((a, b) -> Double.compare(b.getValue().avg(), a.getValue().avg()));
+        // Sort sections by total time spent
+        List<Timer> list = new ArrayList<>();
+        for (Timer timer : timers.values()) {
+            if (timer.getCount() > 0) list.add(timer);
+        }
+        list.sort((a, b) -> Long.compare(b.getTotalNanos(), a.getTotalNanos()));
         
         // ✅ OPTIMIZATION: Show top 15 only
         int count = 0;
         long totalTime = 0;
-        int totalCalls = 0;
+        long totalCalls = 0;
         
-        for (Map.Entry<String, Stats> e : list) {
-            if (count++ > 14) break;
-            
-            Stats s = e.getValue();
-            double avgMs = s.avg() / 1000000.0;
-            double minMs = s.min / 1000000.0;
-            double maxMs = s.max / 1000000.0;
+        for (Timer t : list) {
+            totalTime += t.getTotalNanos();
+            totalCalls += t.getCount();
+            if (count++ > 14) continue;
             
-            totalTime += s.total;
-            totalCalls += s.count;
-            
-            String name = e.getKey();
+            String name = t.getName();
             if (name.length() > 26) name = name.substring(0, 24) + "..";
             
-            lines.add(String.format("%-26s %.2f  %.2f  %.2f  %d", 
-                name, avgMs, minMs, maxMs, s.count));
+            lines.add(String.format("%-26s %.2f  %.2f  %.2f  %.2f  %d", name,
+                t.percentile(0.50) / 1000000.0, t.percentile(0.90) / 1000000.0,
+                t.percentile(0.99) / 1000000.0, t.getMaxNanos() / 1000000.0, t.getCount()));
         }
         
         if (list.isEmpty()) {
@@ -184,7 +234,7 @@ public class PerformanceMonitor {
             
             double totalMs = totalTime / 1000000.0;
             lines.add(String.format("Total: %.2fms across %d calls", totalMs, totalCalls));
-            lines.add(String.format("Tracking: %d methods", stats.size()));
+            lines.add(String.format("Tracking: %d sections%s", list.size(), alwaysOn ? " (always on)" : ""));
         }
         
         // Cache results
@@ -248,43 +298,38 @@ public class PerformanceMonitor {
             return cachedFPS;
         }
         
-        if (frameTimes.isEmpty()) {
-            cachedFPS = 0;
-        } else {
-            long total = 0;
-            for (Long t : frameTimes) total += t;
-            long avg = total / frameTimes.size();
-            cachedFPS = avg == 0 ? 0 : (int)(1000000000L / avg);
-        }
+        long avg = getAvgFrameTime();
+        cachedFPS = avg == 0 ? 0 : (int)(1000000000L / avg);
         
         lastFPSCalc = now;
         return cachedFPS;
     }
     
     private static long getAvgFrameTime() {
-        if (frameTimes.isEmpty()) return 0;
+        if (frameCount == 0) return 0;
         long total = 0;
-        for (Long t : frameTimes) total += t;
-        return total / frameTimes.size();
+        for (int i = 0; i < frameCount; i++) total += frameTimes[i];
+        return total / frameCount;
     }
     
     private static long getMinFrameTime() {
-        if (frameTimes.isEmpty()) return 0;
+        if (frameCount == 0) return 0;
         long min = Long.MAX_VALUE;
-        for (Long t : frameTimes) min = Math.min(min, t);
+        for (int i = 0; i < frameCount; i++) min = Math.min(min, frameTimes[i]);
         return min;
     }
     
     private static long getMaxFrameTime() {
-        if (frameTimes.isEmpty()) return 0;
+        if (frameCount == 0) return 0;
         long max = 0;
-        for (Long t : frameTimes) max = Math.max(max, t);
+        for (int i = 0; i < frameCount; i++) max = Math.max(max, frameTimes[i]);
         return max;
     }
     
     public static void reset() {
-        stats.clear();
-        frameTimes.clear();
+        for (Timer timer : timers.values()) timer.clear();
+        frameCount = 0;
+        frameHead = 0;
         startTime = System.currentTimeMillis();
         
         // Clear caches
@@ -293,21 +338,145 @@ public class PerformanceMonitor {
         cachedFPS = 0;
     }
     
-    private static class Stats {
-        long total = 0;
-        long min = Long.MAX_VALUE;
-        long max = 0;
-        int count = 0;
+    /**
+     * Pre-registered timing section with a log-bucketed duration histogram.
+     * start()/end() go through the calling thread's scope stack, so the same
+     * timer may be nested (recursion) and different timers may interleave.
+     */
+    public static final class Timer {
+        // Bucket = 4 * floor(log2(ns)) + next two bits; 64 powers of two cover any long
+        private static final int BUCKETS = 64 * 4;
+        
+        private final String name;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+        
+        private Timer(String name) {
+            this.name = name;
+        }
+        
+        public void start() {
+            if (!isRecording()) return;
+            scopes.get().push(this, System.nanoTime());
+        }
+        
+        public void end() {
+            if (!isRecording()) return; // open sections are dropped via recordingEpoch
+            long now = System.nanoTime();
+            long started = scopes.get().pop(this);
+            if (started >= 0) {
+                record(now - started);
+            }
+        }
         
-        synchronized void add(long time) {
-            total += time;
-            min = Math.min(min, time);
-            max = Math.max(max, time);
-            count++;
+        void record(long nanos) {
+            buckets.incrementAndGet(bucketOf(nanos));
+            count.incrementAndGet();
+            total.addAndGet(nanos);
+            
+            long current = max.get();
+            while (nanos > current && !max.compareAndSet(current, nanos)) {
+                current = max.get();
+            }
         }
         
-        double avg() {
-            return count == 0 ? 0 : (double)total / count;
+        static int bucketOf(long nanos) {
+            if (nanos < 1) return 0;
+            int exp = 63 - Long.numberOfLeadingZeros(nanos);
+            int sub = exp >= 2 ? (int) ((nanos >>> (exp - 2)) & 3) : 0;
+            return exp * 4 + sub;
+        }
+        
+        static long bucketUpperBound(int bucket) {
+            int exp = bucket / 4;
+            int sub = bucket % 4;
+            if (exp < 2) return 1L << (exp + 1);
+            return (long) (5 + sub) << (exp - 2);
+        }
+        
+        /**
+         * Upper bound of the bucket holding quantile {@code q} (0-1), capped at the max
+         */
+        public long percentile(double q) {
+            long n = count.get();
+            if (n == 0) return 0;
+            
+            long target = Math.max(1, (long) Math.ceil(q * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= target) {
+                    return Math.min(bucketUpperBound(i), max.get());
+                }
+            }
+            return max.get();
+        }
+        
+        public String getName() { return name; }
+        public long getCount() { return count.get(); }
+        public long getTotalNanos() { return total.get(); }
+        public long getMaxNanos() { return max.get(); }
+        
+        void clear() {
+            for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+            count.set(0);
+            total.set(0);
+            max.set(0);
+        }
+    }
+    
+    /**
+     * Per-thread stack of open sections
+     */
+    private static final class Scope {
+        private Timer[] timers = new Timer[16];
+        private long[] starts = new long[16];
+        private int depth = 0;
+        private int epoch = 0;
+        
+        void push(Timer timer, long now) {
+            checkEpoch();
+            if (depth == timers.length) {
+                timers = Arrays.copyOf(timers, depth * 2);
+                starts = Arrays.copyOf(starts, depth * 2);
+            }
+            timers[depth] = timer;
+            starts[depth] = now;
+            depth++;
+        }
+        
+        /**
+         * Close the innermost open section of {@code timer}; sections opened above it
+         * stay open (interleaved timers). Returns its start time, or -1 if not open
+         * (started while recording was off).
+         */
+        long pop(Timer timer) {
+            checkEpoch();
+            for (int i = depth - 1; i >= 0; i--) {
+                if (timers[i] == timer) {
+                    long started = starts[i];
+                    int above = depth - i - 1;
+                    System.arraycopy(timers, i + 1, timers, i, above);
+                    System.arraycopy(starts, i + 1, starts, i, above);
+                    timers[--depth] = null;
+                    return started;
+                }
+            }
+            return -1;
+        }
+        
+        /**
+         * Forget sections opened before recording was last switched on/off
+         */
+        private void checkEpoch() {
+            int current = recordingEpoch;
+            if (epoch != current) {
+                Arrays.fill(timers, 0, depth, null);
+                depth = 0;
+                epoch = current;
+            }
         }
     }
 }
\ No newline at end of file
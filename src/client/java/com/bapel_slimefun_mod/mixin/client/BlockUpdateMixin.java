@@ -0,0 +1,40 @@
+package com.bapel_slimefun_mod.mixin.client;
+
+import com.bapel_slimefun_mod.BapelSlimefunMod;
+import com.bapel_slimefun_mod.automation.MultiblockCacheManager;
+import net.minecraft.client.multiplayer.ClientPacketListener;
+import net.minecraft.network.protocol.game.ClientboundBlockUpdatePacket;
+import net.minecraft.network.protocol.game.ClientboundSectionBlocksUpdatePacket;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Forwards server block changes to MultiblockCacheManager so cached machines
+ * whose footprint was broken get marked dirty.
+ *
+ * Injected at TAIL: the handlers bounce from the network thread to the client
+ * thread first, so TAIL only runs once, on the client thread, after the block is set.
+ */
+@Mixin(ClientPacketListener.class)
+public class BlockUpdateMixin {
+    
+    @Inject(method = "handleBlockUpdate", at = @At("TAIL"))
+    private void onBlockUpdate(ClientboundBlockUpdatePacket packet, CallbackInfo ci) {
+        try {
+            MultiblockCacheManager.onBlockChanged(packet.getPos(), packet.getBlockState());
+        } catch (Exception e) {
+            BapelSlimefunMod.LOGGER.error("Error in block update listener", e);
+        }
+    }
+    
+    @Inject(method = "handleChunkBlocksUpdate", at = @At("TAIL"))
+    private void onSectionBlocksUpdate(ClientboundSectionBlocksUpdatePacket packet, CallbackInfo ci) {
+        try {
+            packet.runUpdates(MultiblockCacheManager::onBlockChanged);
+        } catch (Exception e) {
+            BapelSlimefunMod.LOGGER.error("Error in section update listener", e);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.bapel_slimefun_mod.mixin.client;
 
 import com.bapel_slimefun_mod.BapelSlimefunMod;
+import com.bapel_slimefun_mod.automation.MultiblockAutoClicker;
+import net.minecraft.client.Minecraft;
 import net.minecraft.client.multiplayer.ClientPacketListener;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.protocol.game.ClientboundSystemChatPacket;
@@ -13,7 +15,8 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
  * âœ… CLEANED: No more command handling
  * 
  * All machine detection is now handled via GUI (M key â†’ Machine Detector)
- * This mixin only logs Slimefun messages for debugging
+ * This mixin logs Slimefun messages for debugging and passes them to the
+ * auto-clicker, which treats multiblock failure messages as unconfirmed clicks
  */
 @Mixin(ClientPacketListener.class)
 public class ChatListenerMixin {
@@ -24,6 +27,11 @@ public class ChatListenerMixin {
             Component message = packet.content();
             String text = message.getString();
             
+            // Handler runs twice (network thread, then client thread) - react once
+            if (Minecraft.getInstance().isSameThread()) {
+                MultiblockAutoClicker.onServerMessage(text);
+            }
+            
             // âœ… OPTIONAL: Log Slimefun messages for debugging
             if (text.contains("Slimefun")) {
                 BapelSlimefunMod.LOGGER.debug("[Chat] Slimefun message: {}", text);
@@ -3,6 +3,7 @@ package com.bapel_slimefun_mod.mixin.client;
 import com.bapel_slimefun_mod.client.ModKeybinds;
 import com.bapel_slimefun_mod.BapelSlimefunMod;
 import com.bapel_slimefun_mod.automation.UnifiedAutomationManager;
+import com.bapel_slimefun_mod.automation.ProductionLoop;
 import com.bapel_slimefun_mod.automation.RecipeOverlayInputHandler;
 import com.bapel_slimefun_mod.automation.RecipeOverlayRenderer;
 
@@ -65,6 +66,22 @@ public abstract class ContainerScreenMixin {
                 return;
             }
             
+            if (ModKeybinds.getProductionLoopKey().matches(keyCode, scanCode)
+                    && !RecipeOverlayRenderer.isSearchMode()) {
+                ProductionLoop.toggle();
+                cir.setReturnValue(true);
+                cir.cancel();
+                return;
+            }
+            
+            if (ModKeybinds.getCraftableLookupKey().matches(keyCode, scanCode)
+                    && !RecipeOverlayRenderer.isSearchMode()) {
+                RecipeOverlayRenderer.toggleGlobal();
+                cir.setReturnValue(true);
+                cir.cancel();
+                return;
+            }
+            
             boolean handled = RecipeOverlayInputHandler.handleKeyPress(
                 keyCode, scanCode, 1, modifiers
             );
@@ -0,0 +1,32 @@
+package com.bapel_slimefun_mod.mixin.client;
+
+import com.bapel_slimefun_mod.BapelSlimefunMod;
+import com.bapel_slimefun_mod.automation.InteractionTracker;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientPacketListener;
+import net.minecraft.network.protocol.game.ClientboundOpenScreenPacket;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Binds the last block interaction to the container the server opens.
+ *
+ * Injected at HEAD so the binding exists before the screen's init() runs;
+ * the first (network thread) pass is skipped, the handler re-runs on the client thread.
+ */
+@Mixin(ClientPacketListener.class)
+public class OpenScreenMixin {
+
+    @Inject(method = "handleOpenScreen", at = @At("HEAD"))
+    private void onOpenScreen(ClientboundOpenScreenPacket packet, CallbackInfo ci) {
+        if (!Minecraft.getInstance().isSameThread()) return;
+
+        try {
+            InteractionTracker.onOpenScreen(packet.getContainerId());
+        } catch (Exception e) {
+            BapelSlimefunMod.LOGGER.error("Error binding opened container", e);
+        }
+    }
+}
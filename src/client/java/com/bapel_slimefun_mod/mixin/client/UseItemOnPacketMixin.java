@@ -0,0 +1,36 @@
+package com.bapel_slimefun_mod.mixin.client;
+
+import com.bapel_slimefun_mod.BapelSlimefunMod;
+import com.bapel_slimefun_mod.automation.InteractionTracker;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientCommonPacketListenerImpl;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ServerboundUseItemOnPacket;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Records the exact block of every outgoing "use item on block" packet,
+ * so an opened container can be tied to the block that was clicked.
+ */
+@Mixin(ClientCommonPacketListenerImpl.class)
+public class UseItemOnPacketMixin {
+
+    @Inject(method = "send", at = @At("HEAD"))
+    private void onSend(Packet<?> packet, CallbackInfo ci) {
+        if (!(packet instanceof ServerboundUseItemOnPacket useItemOn)) return;
+
+        try {
+            Minecraft mc = Minecraft.getInstance();
+            if (mc.level == null || !mc.isSameThread()) return;
+
+            BlockPos pos = useItemOn.getHitResult().getBlockPos();
+            InteractionTracker.onUseItemOn(pos, mc.level.getBlockState(pos).getBlock());
+        } catch (Exception e) {
+            BapelSlimefunMod.LOGGER.error("Error recording block interaction", e);
+        }
+    }
+}